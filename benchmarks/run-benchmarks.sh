@@ -0,0 +1,16 @@
+#!/bin/sh
+# Builds the benchmarks and runs them. The JMH results are stored as JSON in
+# benchmarks/results/<commit>.json, so runs of two commits can be compared.
+# Extra arguments are passed to JMH, e.g. "-p size=1000" or "TaskManagerBenchmark".
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -B -q package
+
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+if [ -n "$(git status --porcelain -- src resources 2>/dev/null)" ]; then
+  commit="$commit-dirty"
+fi
+mkdir -p benchmarks/results
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "benchmarks/results/$commit.json" "$@"
+echo "Results written to benchmarks/results/$commit.json"
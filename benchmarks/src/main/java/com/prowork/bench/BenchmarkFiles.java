@@ -0,0 +1,36 @@
+package com.prowork.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Temporary directories for the benchmarks.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+final class BenchmarkFiles {
+
+  private BenchmarkFiles() {
+  }
+
+  static Path createDirectory() {
+    try {
+      return Files.createTempDirectory("prowork-bench");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static void delete(Path directory) {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException e) {
+      System.err.println("Could not delete " + directory + ": " + e.getMessage());
+    }
+  }
+}
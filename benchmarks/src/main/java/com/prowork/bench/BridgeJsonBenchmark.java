@@ -0,0 +1,93 @@
+package com.prowork.bench;
+
+import com.prowork.JavaBridge;
+import com.prowork.model.Task;
+import com.prowork.model.TaskJsonFormat;
+import com.prowork.model.TaskJsonWriter;
+import com.prowork.model.TaskPersistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes tasks to the JSON sent to the web views.
+ *
+ * serializeTasks writes all tasks with the bridge format and no cache.
+ * The other benchmarks call JavaBridge, whose shared TaskManager loads the
+ * synthetic tasks from a temporary user.home; every fork starts with a new
+ * JavaBridge class, so each task count gets its own manager.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dprowork.archiveAfterDays=0"})
+public class BridgeJsonBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private Path home;
+  private List<Task> tasks;
+  private JavaBridge bridge;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    home = BenchmarkFiles.createDirectory();
+    tasks = SyntheticTasks.generate(size);
+    TaskPersistence persistence = new TaskPersistence(home.resolve(".prowork"));
+    persistence.saveTasks(tasks);
+    persistence.close();
+
+    System.setProperty("user.home", home.toString());
+    bridge = new JavaBridge(null);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    JavaBridge.shutdown();
+    BenchmarkFiles.delete(home);
+  }
+
+  @Benchmark
+  public String serializeTasks() throws IOException {
+    StringWriter out = new StringWriter(size * 200);
+    new TaskJsonWriter(out, TaskJsonFormat.BRIDGE).writeTasks(tasks);
+    return out.toString();
+  }
+
+  @Benchmark
+  public String getAllTasks() {
+    return bridge.getAllTasks();
+  }
+
+  @Benchmark
+  public String getTasksPage() {
+    return bridge.getTasksPage(0, 100, "", "");
+  }
+
+  @Benchmark
+  public String getTasksForDate() {
+    return bridge.getTasksForDate(SyntheticTasks.START.toString());
+  }
+}
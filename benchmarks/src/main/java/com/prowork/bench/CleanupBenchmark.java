@@ -0,0 +1,71 @@
+package com.prowork.bench;
+
+import com.prowork.model.TaskManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the completed tasks of a freshly loaded TaskManager.
+ *
+ * Cleanup changes the manager, so each call gets a new one and is timed
+ * once; generating the tasks and building the manager are not measured.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dprowork.archiveAfterDays=0"})
+public class CleanupBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private Path directory;
+  private TaskManager manager;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    directory = BenchmarkFiles.createDirectory();
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpManager() {
+    // New tasks each time, since a manager takes over its tasks. They were
+    // completed before now, so the completed ones are all older than 0 days.
+    manager = new TaskManager(new MemoryTaskStore(SyntheticTasks.generate(size), directory));
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeManager() {
+    manager.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    BenchmarkFiles.delete(directory);
+  }
+
+  @Benchmark
+  public TaskManager cleanupCompletedTasks() {
+    manager.cleanupCompletedTasks(0);
+    return manager;
+  }
+}
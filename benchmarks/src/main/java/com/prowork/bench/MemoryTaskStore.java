@@ -0,0 +1,46 @@
+package com.prowork.bench;
+
+import com.prowork.model.Task;
+import com.prowork.model.TaskStore;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A task store that keeps its tasks in memory and ignores saves, so the
+ * TaskManager benchmarks do not measure disk writes.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class MemoryTaskStore implements TaskStore {
+  private final List<Task> tasks;
+  private final Path directory;
+
+  /**
+   * Constructs a store holding the given tasks.
+   *
+   * @param tasks The tasks loadTasks returns
+   * @param directory A directory for the tasks file path, used by the archive
+   */
+  public MemoryTaskStore(List<Task> tasks, Path directory) {
+    this.tasks = tasks;
+    this.directory = directory;
+  }
+
+  @Override
+  public List<Task> loadTasks() {
+    return new ArrayList<>(tasks);
+  }
+
+  @Override
+  public boolean saveTasks(List<Task> tasks) {
+    return true;
+  }
+
+  @Override
+  public Path getTasksFilePath() {
+    return directory.resolve("tasks.json");
+  }
+}
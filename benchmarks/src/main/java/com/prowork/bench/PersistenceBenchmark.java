@@ -0,0 +1,67 @@
+package com.prowork.bench;
+
+import com.prowork.model.Task;
+import com.prowork.model.TaskPersistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads the JSON tasks file of TaskPersistence.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private Path directory;
+  private TaskPersistence persistence;
+  private List<Task> tasks;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    directory = BenchmarkFiles.createDirectory();
+    persistence = new TaskPersistence(directory);
+    tasks = SyntheticTasks.generate(size);
+    persistence.saveTasks(tasks);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    persistence.close();
+    BenchmarkFiles.delete(directory);
+  }
+
+  @Benchmark
+  public boolean saveTasks() {
+    return persistence.saveTasks(tasks);
+  }
+
+  @Benchmark
+  public List<Task> loadTasks() {
+    return persistence.loadTasks();
+  }
+}
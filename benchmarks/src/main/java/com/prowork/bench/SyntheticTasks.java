@@ -0,0 +1,69 @@
+package com.prowork.bench;
+
+import com.prowork.model.Priority;
+import com.prowork.model.RepetitionPattern;
+import com.prowork.model.Task;
+import com.prowork.model.TaskType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the same synthetic tasks on every run, so results of different
+ * commits measure the same data.
+ *
+ * Deadlines are spread over two years starting at START. About one task in
+ * twenty repeats weekly, test tasks have notes and about a third of the
+ * tasks are completed.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class SyntheticTasks {
+  /** The first deadline of the generated tasks. */
+  public static final LocalDate START = LocalDate.of(2026, 1, 1);
+  /** The number of days the deadlines are spread over. */
+  public static final int DAYS = 730;
+
+  private static final String[] WORDS = {
+    "Mathe", "Deutsch", "Englisch", "Physik", "Projekt", "Bericht", "Meeting",
+    "Training", "Hausaufgaben", "Lernen", "Präsentation", "Kapitel", "Übung"
+  };
+  private static final long SEED = 42;
+
+  private SyntheticTasks() {
+  }
+
+  /**
+   * Generates tasks.
+   *
+   * @param count The number of tasks
+   * @return New tasks, not attached to a manager
+   */
+  public static List<Task> generate(int count) {
+    Random random = new Random(SEED);
+    TaskType[] types = TaskType.values();
+    Priority[] priorities = {Priority.HIGH, Priority.MEDIUM, Priority.LOW};
+    List<Task> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+      Task task = new Task(
+        name,
+        START.plusDays(random.nextInt(DAYS)),
+        types[random.nextInt(types.length)],
+        priorities[random.nextInt(priorities.length)],
+        random.nextInt(20) == 0 ? RepetitionPattern.WEEKLY : RepetitionPattern.NONE
+      );
+      if (task.canHaveNotes()) {
+        task.setNotes("Notizen zu " + name + ": " + WORDS[random.nextInt(WORDS.length)]);
+      }
+      if (random.nextInt(3) == 0) {
+        task.setCompleted(true);
+      }
+      tasks.add(task);
+    }
+    return tasks;
+  }
+}
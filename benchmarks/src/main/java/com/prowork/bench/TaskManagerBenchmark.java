@@ -0,0 +1,83 @@
+package com.prowork.bench;
+
+import com.prowork.model.Task;
+import com.prowork.model.TaskManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries a TaskManager backed by a MemoryTaskStore.
+ *
+ * The lookups cycle through fixed ids and dates, so every run asks for the
+ * same values in the same order.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dprowork.archiveAfterDays=0"})
+public class TaskManagerBenchmark {
+  private static final int LOOKUPS = 1024;
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private Path directory;
+  private TaskManager manager;
+  private final String[] ids = new String[LOOKUPS];
+  private final LocalDate[] dates = new LocalDate[LOOKUPS];
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    directory = BenchmarkFiles.createDirectory();
+    List<Task> tasks = SyntheticTasks.generate(size);
+    manager = new TaskManager(new MemoryTaskStore(tasks, directory));
+    for (int i = 0; i < LOOKUPS; i++) {
+      ids[i] = tasks.get((int) ((long) i * size / LOOKUPS)).getId();
+      dates[i] = SyntheticTasks.START.plusDays((long) i * SyntheticTasks.DAYS / LOOKUPS);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    manager.close();
+    BenchmarkFiles.delete(directory);
+  }
+
+  @Benchmark
+  public Task getTask() {
+    return manager.getTask(ids[next++ & (LOOKUPS - 1)]);
+  }
+
+  @Benchmark
+  public List<Task> getTasksForDate() {
+    return manager.getTasksForDate(dates[next++ & (LOOKUPS - 1)]);
+  }
+
+  @Benchmark
+  public List<Task> getSortedTasks() {
+    return manager.getSortedTasks();
+  }
+}
@@ -0,0 +1,82 @@
+package com.prowork.bench;
+
+import com.prowork.model.Task;
+import com.prowork.model.TaskTable;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap taken by completed tasks as Task objects in an ArrayList and as a
+ * TaskTable, the two forms TaskArchive can keep an archive segment in
+ * (prowork.taskTable=false and true).
+ *
+ * Each call builds the list or table from the same completed synthetic
+ * tasks and measures everything reachable from it with JOL; the secondary
+ * result "bytes" is that heap size. JMH adds up the counter over the
+ * measured calls, so only one call is measured. The time includes the JOL
+ * walk and is not meant to be compared. The hot tasks of a TaskManager stay Task
+ * objects, since the manager's indexes, views and listeners need them.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TaskTableBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private List<Task> tasks;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    tasks = SyntheticTasks.generate(size);
+    for (Task task : tasks) {
+      task.setCompleted(true);
+    }
+  }
+
+  /**
+   * The retained heap of the last built form, reported per call.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long bytes;
+  }
+
+  @Benchmark
+  public List<Task> taskObjects(Footprint footprint) {
+    List<Task> list = new ArrayList<>(tasks);
+    footprint.bytes = GraphLayout.parseInstance(list).totalSize();
+    return list;
+  }
+
+  @Benchmark
+  public TaskTable taskTable(Footprint footprint) {
+    TaskTable table = new TaskTable(tasks);
+    footprint.bytes = GraphLayout.parseInstance(table).totalSize();
+    return table;
+  }
+}
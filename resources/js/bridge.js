@@ -0,0 +1,84 @@
+/**
+ * ProWork - Bridge helper
+ * Calls JavaBridge methods without blocking the page
+ */
+
+let bridgeRequestId = 0;
+const pendingBridgeCalls = new Map();
+const bridgeCallbacks = [];
+const tasksReadyCallbacks = [];
+
+/**
+ * Runs the callback once javaBridge has been injected into the page.
+ * App calls onJavaBridgeInjected() after each page load, so no polling is needed.
+ */
+function whenJavaBridge(callback) {
+  bridgeCallbacks.push(callback);
+  runBridgeCallbacks();
+}
+
+/**
+ * Runs the callback once javaBridge is available and the tasks are loaded.
+ * The tasks load in the background at startup; JavaBridge calls
+ * onTasksReady() when they are done.
+ */
+function whenTasksReady(callback) {
+  tasksReadyCallbacks.push(callback);
+  runBridgeCallbacks();
+}
+
+function onJavaBridgeInjected() {
+  runBridgeCallbacks();
+}
+
+function onTasksReady() {
+  runBridgeCallbacks();
+}
+
+function runBridgeCallbacks() {
+  if (typeof javaBridge === 'undefined') {
+    return;
+  }
+  bridgeCallbacks.splice(0).forEach(callback => callback());
+  if (javaBridge.isReady()) {
+    tasksReadyCallbacks.splice(0).forEach(callback => callback());
+  }
+}
+
+/**
+ * Calls a JavaBridge method and returns a promise for its result.
+ * With the asynchronous bridge the method runs on a background thread in
+ * Java; otherwise it is called directly and the promise is already settled.
+ */
+function callBridge(method, ...args) {
+  if (!javaBridge.isAsyncEnabled()) {
+    try {
+      return Promise.resolve(javaBridge[method](...args));
+    } catch (error) {
+      return Promise.reject(error);
+    }
+  }
+
+  return new Promise(function(resolve, reject) {
+    const requestId = ++bridgeRequestId;
+    pendingBridgeCalls.set(requestId, { resolve: resolve, reject: reject });
+    javaBridge.callAsync(requestId, method, args);
+  });
+}
+
+/**
+ * Called by JavaBridge on the FX thread when an asynchronous call finished.
+ */
+function onBridgeResult(requestId, ok, result) {
+  const call = pendingBridgeCalls.get(requestId);
+  if (!call) {
+    return;
+  }
+  pendingBridgeCalls.delete(requestId);
+
+  if (ok) {
+    call.resolve(result);
+  } else {
+    call.reject(new Error(result));
+  }
+}
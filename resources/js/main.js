@@ -4,6 +4,9 @@
  */
 
 let currentDetailTaskId = null;
+// Last seen version of the task list and the tasks received so far
+let taskVersion = -1;
+const tasksById = new Map();
 
 window.addEventListener('DOMContentLoaded', function() {
     console.log('ProWork loaded');
@@ -160,9 +163,18 @@ function waitForJavaBridge() {
 
 function loadTasks() {
   try {
-    const tasksJson = window.javaApp.getAllTasks();
-    const tasks = JSON.parse(tasksJson);
-    displayTasks(tasks);
+    const changes = JSON.parse(window.javaApp.getChangesSince(taskVersion));
+    if (changes.full) {
+      tasksById.clear();
+    }
+    changes.deleted.forEach(function(id) {
+      tasksById.delete(id);
+    });
+    changes.updated.concat(changes.added).forEach(function(task) {
+      tasksById.set(task.id, task);
+    });
+    taskVersion = changes.version;
+    displayTasks(Array.from(tasksById.values()));
   } catch (error) {
     console.error('Error loading tasks:', error);
     document.getElementById('task-list').innerHTML = '<p style="color:red;">Error loading tasks</p>';
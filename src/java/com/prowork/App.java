@@ -1,17 +1,29 @@
 package com.prowork;
 
+import com.prowork.metrics.Counter;
+import com.prowork.metrics.Metrics;
+import com.prowork.metrics.Timer;
+import com.prowork.model.WorkspaceManager;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.concurrent.Worker;
 import netscape.javascript.JSObject;
 import java.net.URL;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main application class for ProWork task management system.
@@ -20,7 +32,7 @@ import java.util.Optional;
  * HTML/CSS/JavaScript frontend with a Java backend. The application features:
  * - Task list view for managing tasks
  * - Calendar view for visualizing tasks by date
- * - Menu bar for navigation and help
+ * - Menu bar for navigation, workspaces, help and live statistics
  * - JavaScript-Java bridge for frontend-backend communication
  * 
  * The application uses a single WebView with different HTML pages loaded
@@ -33,6 +45,9 @@ public class App extends Application {
   private String appIconPath = "/assets/img/ProWork.png";
   private WebEngine engine;
   private JavaBridge bridge;
+  private FxBlockMonitor fxMonitor;
+  private Stage stage;
+  private Menu workspaceMenu;
 
   /**
    * Starts the JavaFX application.
@@ -42,6 +57,7 @@ public class App extends Application {
    */
   @Override
   public void start(Stage stage) {
+    this.stage = stage;
     // Create MenuBar
     MenuBar menuBar = new MenuBar();
     
@@ -54,14 +70,21 @@ public class App extends Application {
     calendarItem.setOnAction(e -> loadView("/calendar.html"));
     
     viewMenu.getItems().addAll(taskListItem, calendarItem);
+
+    // Workspace Menu - switches between separate task lists, Ctrl+1..9 for the first nine
+    workspaceMenu = new Menu("Arbeitsbereich");
+    workspaceMenu.setOnShowing(e -> updateWorkspaceMenu());
+    updateWorkspaceMenu();
     
     // Help Menu
     Menu helpMenu = new Menu("Hilfe");
     MenuItem aboutItem = new MenuItem("Über ProWork");
     aboutItem.setOnAction(e -> showAbout());
-    helpMenu.getItems().add(aboutItem);
+    MenuItem statsItem = new MenuItem("Statistiken");
+    statsItem.setOnAction(e -> showStats());
+    helpMenu.getItems().addAll(aboutItem, statsItem);
     
-    menuBar.getMenus().addAll(viewMenu, helpMenu);
+    menuBar.getMenus().addAll(viewMenu, workspaceMenu, helpMenu);
 
     // Create WebView for hybrid HTML/JS frontend
     WebView view = new WebView();
@@ -102,6 +125,12 @@ public class App extends Application {
       }
     });
 
+    // Optionally measure how long the FX thread is blocked
+    if (Boolean.getBoolean("prowork.fxMonitor")) {
+      fxMonitor = new FxBlockMonitor();
+      fxMonitor.start();
+    }
+
     // Load initial page (task list view)
     loadView("/index.html");
 
@@ -118,9 +147,22 @@ public class App extends Application {
     }
 
     // Configure and show the stage
-    stage.setTitle("ProWork");
+    updateTitle();
     stage.setScene(new Scene(root, 1200, 800));
     stage.show();
+    StartupTimer.mark(StartupTimer.Phase.STAGE_SHOWN);
+  }
+
+  /**
+   * Stops the JavaFX application.
+   * Writes task changes that are still waiting for the background save.
+   */
+  @Override
+  public void stop() {
+    if (fxMonitor != null) {
+      fxMonitor.stop();
+    }
+    JavaBridge.shutdown();
   }
 
   /**
@@ -154,12 +196,101 @@ public class App extends Application {
       // Verify injection succeeded
       Object test = engine.executeScript("typeof javaBridge");
       System.out.println("javaBridge type: " + test);
+
+      // Let the page start without polling for the bridge
+      engine.executeScript("if (window.onJavaBridgeInjected) { window.onJavaBridgeInjected(); }");
     } catch (Exception e) {
       System.err.println("Error injecting JavaBridge: " + e.getMessage());
       e.printStackTrace();
     }
   }
 
+  /**
+   * Fills the workspace menu with the existing workspaces, the active one
+   * selected, and the item to create a new one.
+   */
+  private void updateWorkspaceMenu() {
+    String active = JavaBridge.getActiveWorkspace();
+    List<String> names = JavaBridge.getWorkspaceNames();
+    ToggleGroup group = new ToggleGroup();
+    workspaceMenu.getItems().clear();
+    for (int i = 0; i < names.size(); i++) {
+      String name = names.get(i);
+      RadioMenuItem item = new RadioMenuItem(name);
+      item.setToggleGroup(group);
+      item.setSelected(name.equals(active));
+      if (i < 9) {
+        item.setAccelerator(KeyCombination.keyCombination("Shortcut+" + (i + 1)));
+      }
+      item.setOnAction(e -> switchWorkspace(name));
+      workspaceMenu.getItems().add(item);
+    }
+    MenuItem createItem = new MenuItem("Neuer Arbeitsbereich...");
+    createItem.setOnAction(e -> showCreateWorkspace());
+    workspaceMenu.getItems().addAll(new SeparatorMenuItem(), createItem);
+  }
+
+  /**
+   * Switches to a workspace unless it is already active. If it cannot be
+   * loaded, the previous workspace stays and an error is shown.
+   * 
+   * @param name The workspace name
+   */
+  private void switchWorkspace(String name) {
+    if (name.equals(JavaBridge.getActiveWorkspace())) {
+      return;
+    }
+    stage.setTitle("ProWork - " + name + " (wird geladen...)");
+    bridge.switchWorkspace(name, () -> {
+      updateTitle();
+      updateWorkspaceMenu();
+      if (!name.equals(JavaBridge.getActiveWorkspace())) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Arbeitsbereich wechseln");
+        alert.setHeaderText(null);
+        alert.setContentText("Der Arbeitsbereich \"" + name + "\" konnte nicht geladen werden.");
+        alert.showAndWait();
+      }
+    });
+  }
+
+  /**
+   * Asks for the name of a new workspace, creates it and switches to it.
+   */
+  private void showCreateWorkspace() {
+    TextInputDialog dialog = new TextInputDialog();
+    dialog.setTitle("Neuer Arbeitsbereich");
+    dialog.setHeaderText("Name des neuen Arbeitsbereichs");
+    dialog.setContentText("Name:");
+    Optional<String> result = dialog.showAndWait();
+    if (!result.isPresent() || result.get().trim().isEmpty()) {
+      return;
+    }
+    String name = result.get().trim();
+    try {
+      JavaBridge.createWorkspace(name);
+    } catch (IllegalArgumentException e) {
+      Alert alert = new Alert(Alert.AlertType.ERROR);
+      alert.setTitle("Neuer Arbeitsbereich");
+      alert.setHeaderText(null);
+      alert.setContentText("Der Name ist ungültig oder wird schon verwendet. Erlaubt sind Buchstaben, "
+          + "Ziffern, Leerzeichen und _ . - (höchstens 64 Zeichen).");
+      alert.showAndWait();
+      return;
+    }
+    updateWorkspaceMenu();
+    switchWorkspace(name);
+  }
+
+  /**
+   * Shows the active workspace in the window title, unless it is the default one.
+   */
+  private void updateTitle() {
+    String active = JavaBridge.getActiveWorkspace();
+    boolean named = active != null && !active.equals(WorkspaceManager.DEFAULT_WORKSPACE);
+    stage.setTitle(named ? "ProWork - " + active : "ProWork");
+  }
+
   /**
    * Displays the About dialog with application information.
    */
@@ -171,13 +302,75 @@ public class App extends Application {
     alert.showAndWait();
   }
 
+  /**
+   * Displays the metrics of bridge calls, storage and caches.
+   * The dialog does not block the application and refreshes every second
+   * until it is closed.
+   */
+  private void showStats() {
+    TextArea text = new TextArea(formatStats());
+    text.setEditable(false);
+    text.setStyle("-fx-font-family: monospace;");
+    text.setPrefSize(640, 420);
+
+    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+    alert.setTitle("Statistiken");
+    alert.setHeaderText("Laufzeitstatistik von ProWork");
+    alert.getDialogPane().setContent(text);
+    alert.setResizable(true);
+
+    Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> text.setText(formatStats())));
+    refresh.setCycleCount(Timeline.INDEFINITE);
+    alert.setOnHidden(e -> refresh.stop());
+    refresh.play();
+    alert.show();
+  }
+
+  /**
+   * Formats the current metrics for the stats dialog.
+   * Must be called on the FX thread, which the FX block monitor requires.
+   * 
+   * @return The text of the dialog
+   */
+  private String formatStats() {
+    StringBuilder text = new StringBuilder();
+    text.append(String.format("%-28s %8s %10s %10s %12s%n", "Zeiten", "Anzahl", "Ø ms", "max ms", "gesamt ms"));
+    for (Map.Entry<String, Timer> entry : Metrics.getTimers().entrySet()) {
+      Timer timer = entry.getValue();
+      text.append(String.format("%-28s %8d %10.2f %10.2f %12.1f%n", entry.getKey(), timer.getCount(),
+          timer.getMean(TimeUnit.MILLISECONDS), timer.getMax(TimeUnit.MILLISECONDS),
+          timer.getTotal(TimeUnit.MILLISECONDS)));
+    }
+
+    text.append(String.format("%nZähler%n"));
+    for (Map.Entry<String, Counter> entry : Metrics.getCounters().entrySet()) {
+      text.append(String.format("%-28s %12d%n", entry.getKey(), entry.getValue().get()));
+    }
+    SortedMap<String, Long> gauges = Metrics.getGaugeValues();
+    for (Map.Entry<String, Long> entry : gauges.entrySet()) {
+      text.append(String.format("%-28s %12d%n", entry.getKey(), entry.getValue()));
+    }
+
+    long hits = gauges.getOrDefault("jsonCache.hits", 0L);
+    long lookups = hits + gauges.getOrDefault("jsonCache.misses", 0L);
+    if (lookups > 0) {
+      text.append(String.format("%nJSON-Cache Trefferquote: %.1f %%%n", 100.0 * hits / lookups));
+    }
+    text.append(System.lineSeparator()).append(fxMonitor != null
+        ? fxMonitor.getSummary()
+        : "FX-Thread: nicht gemessen (mit -Dprowork.fxMonitor=true starten)");
+    return text.toString();
+  }
+
   /**
    * Main entry point for the application.
+   * Starts loading the tasks before the JavaFX toolkit starts.
    * 
    * @param args Command line arguments (not used)
    */
   
   public static void main(String[] args) { 
+    JavaBridge.startLoading();
     launch(); 
   }
 }
\ No newline at end of file
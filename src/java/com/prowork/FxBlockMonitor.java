@@ -0,0 +1,110 @@
+package com.prowork;
+
+import com.prowork.metrics.FxBlockedEvent;
+import com.prowork.metrics.Metrics;
+import com.prowork.metrics.Timer;
+import javafx.application.Platform;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long the JavaFX application thread is blocked.
+ *
+ * A background thread posts a heartbeat to the FX thread at a fixed interval
+ * and records how late it runs. A free FX thread runs it within a
+ * millisecond; a late heartbeat means the thread was busy, for example with
+ * a bridge call that wrote a file or serialized many tasks. Only one
+ * heartbeat is pending at a time, so a long block is counted once.
+ *
+ * Enabled with -Dprowork.fxMonitor=true. The summary is printed when the
+ * application exits; run once with -Dprowork.asyncBridge=false and once
+ * without to compare blocking and asynchronous bridge calls. While it runs,
+ * blocks also go to the metrics registry as timer "fx.blocked" and are
+ * recorded as FxBlockedEvents.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class FxBlockMonitor {
+  private static final long INTERVAL_MILLIS = 20;
+  private static final long BLOCKED_MILLIS = 50;
+
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "prowork-fx-monitor");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+  private final Timer blockedTimer = Metrics.timer("fx.blocked");
+
+  // Only written on the FX thread
+  private long heartbeats;
+  private long blockedCount;
+  private long blockedNanos;
+  private long maxDelayNanos;
+
+  /**
+   * Starts posting heartbeats to the FX thread.
+   */
+  void start() {
+    timer.scheduleAtFixedRate(this::postHeartbeat, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the heartbeats and prints the summary.
+   * Must be called on the FX thread.
+   */
+  void stop() {
+    timer.shutdownNow();
+    System.out.println(getSummary());
+  }
+
+  /**
+   * Describes how often and how long the FX thread was blocked.
+   * Must be called on the FX thread.
+   *
+   * @return The summary
+   */
+  String getSummary() {
+    return "FX thread: " + heartbeats + " heartbeats, blocked " + blockedCount
+        + " times over " + BLOCKED_MILLIS + " ms, " + TimeUnit.NANOSECONDS.toMillis(blockedNanos)
+        + " ms in total, longest " + TimeUnit.NANOSECONDS.toMillis(maxDelayNanos) + " ms";
+  }
+
+  /**
+   * Posts a heartbeat unless the previous one has not run yet.
+   */
+  private void postHeartbeat() {
+    if (!heartbeatPending.compareAndSet(false, true)) {
+      return;
+    }
+    long posted = System.nanoTime();
+    Platform.runLater(() -> {
+      record(System.nanoTime() - posted);
+      heartbeatPending.set(false);
+    });
+  }
+
+  /**
+   * Records how late a heartbeat ran.
+   *
+   * @param delayNanos Time between posting and running the heartbeat
+   */
+  private void record(long delayNanos) {
+    heartbeats++;
+    maxDelayNanos = Math.max(maxDelayNanos, delayNanos);
+    if (delayNanos >= TimeUnit.MILLISECONDS.toNanos(BLOCKED_MILLIS)) {
+      blockedCount++;
+      blockedNanos += delayNanos;
+      blockedTimer.record(delayNanos);
+
+      FxBlockedEvent event = new FxBlockedEvent();
+      if (event.shouldCommit()) {
+        event.delay = delayNanos;
+        event.commit();
+      }
+    }
+  }
+}
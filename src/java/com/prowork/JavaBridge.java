@@ -1,9 +1,44 @@
 package com.prowork;
 
+import com.prowork.metrics.BridgeCallEvent;
+import com.prowork.metrics.Metrics;
 import com.prowork.model.*;
+import javafx.application.Platform;
 import javafx.scene.web.WebEngine;
+import javafx.stage.FileChooser;
+import netscape.javascript.JSObject;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 /**
  * Bridge between JavaScript frontend and Java backend.
@@ -14,26 +49,367 @@ import java.util.List;
  * 
  * The JavaBridge uses a static TaskManager instance shared across all
  * JavaBridge instances, ensuring data consistency when switching views.
+ * It is the manager of the active workspace; App switches workspaces
+ * through switchWorkspace.
+ * 
+ * Modifications and heavy reads can also be made asynchronously through
+ * callAsync: they run on a background worker and their result is passed
+ * back to JavaScript on the FX thread, so the WebView stays responsive.
+ * js/bridge.js wraps this in promises. Setting prowork.asyncBridge=false
+ * makes the pages call the methods directly again, for comparison.
+ * 
+ * Asynchronous calls are timed per method in the metrics registry
+ * ("bridge.<method>", plus "bridge.queue" for the wait for the worker) and
+ * recorded as BridgeCallEvents.
  * 
  * @author Chris
  * @version 1.0
  */
 public class JavaBridge {
+  private static final int INITIAL_BUFFER = 16 * 1024;
+  private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+  private static final Comparator<Task> BY_PRIORITY =
+      Comparator.comparing(Task::getPriority, Comparator.nullsLast(Comparator.naturalOrder()));
+
+  /** Number of imported tasks added to the manager at once. */
+  private static final int IMPORT_BATCH_SIZE = Integer.getInteger("prowork.importBatchSize", 2000);
+
+  private static final boolean ASYNC_ENABLED =
+      Boolean.parseBoolean(System.getProperty("prowork.asyncBridge", "true"));
+
+  /**
+   * Runs asynchronous calls one at a time, in the order they were made,
+   * so a read issued after a modification always sees it.
+   */
+  private static final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "prowork-bridge");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private final WebEngine engine;
+
+  /**
+   * Buffer reused for the JSON returned to JavaScript, one per thread,
+   * since asynchronous calls are answered on the bridge worker thread.
+   */
+  private final ThreadLocal<StringWriter> jsonBuffer =
+      ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER));
   
   /**
-   * Static TaskManager shared between all JavaBridge instances.
-   * This ensures tasks persist when switching between views.
+   * Loads the tasks of the first workspace in the background at launch.
+   */
+  private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "prowork-loader");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * The workspaces, of which the few used last stay loaded. Shared between
+   * all JavaBridge instances like the manager of the active workspace.
+   */
+  private static final WorkspaceManager workspaces = new WorkspaceManager();
+
+  /**
+   * Serialized JSON of the tasks, shared like the TaskManager so that
+   * switching views serves unchanged tasks without serializing them again.
+   * Entries are invalidated through the manager's change notifications.
+   */
+  private static final TaskJsonCache jsonCache =
+      new TaskJsonCache(TaskJsonFormat.BRIDGE, Long.getLong("prowork.jsonCacheChars", 4L * 1024 * 1024));
+
+  /**
+   * TaskManager of the active workspace, shared between all JavaBridge
+   * instances. This ensures tasks persist when switching between views.
+   * 
+   * The manager is created on a background thread as soon as this class is
+   * initialized, which App triggers at launch, so the tasks load while the
+   * stage and the first page are being set up. Methods that need the tasks
+   * wait for it through taskManager(); the pages wait for onTasksReady.
+   * Switching the workspace replaces the future on the bridge worker.
    */
-  private static final TaskManager taskManager = new TaskManager();
+  private static volatile CompletableFuture<TaskManager> taskManagerLoader =
+      CompletableFuture.supplyAsync(() -> attachJsonCache(createTaskManager(initialWorkspace())), loader);
+
+  /**
+   * Empty manager used in place of a workspace that failed to load, see
+   * taskManager(); null while none is needed.
+   */
+  private static TaskManager unsavedManager;
+
+  static {
+    Metrics.gauge("jsonCache.hits", jsonCache::getHitCount);
+    Metrics.gauge("jsonCache.misses", jsonCache::getMissCount);
+    Metrics.gauge("jsonCache.listHits", jsonCache::getArrayHitCount);
+    Metrics.gauge("jsonCache.listMisses", jsonCache::getArrayMissCount);
+    Metrics.gauge("saves.requested", () -> ofLoadedManager(TaskManager::getSaveRequestCount));
+    Metrics.gauge("saves.performed", () -> ofLoadedManager(TaskManager::getPerformedSaveCount));
+    Metrics.gauge("saves.merged", () -> ofLoadedManager(TaskManager::getMergedSaveCount));
+    Metrics.gauge("workspaces.loaded", () -> workspaces.getLoadedNames().size());
+  }
 
   /**
    * Constructs a JavaBridge for the given WebEngine.
+   * Once the tasks are loaded, the page shown in the engine is told
+   * through window.onTasksReady().
    * 
    * @param engine The WebEngine to control for view switching
    */
   public JavaBridge(WebEngine engine) { 
     this.engine = engine;
+    if (engine != null) {
+      // Also when loading failed, so the page falls back to the empty manager
+      taskManagerLoader.whenComplete((manager, error) -> Platform.runLater(this::notifyTasksReady));
+    }
+  }
+
+  /**
+   * Starts loading the tasks in the background, if that has not started yet.
+   * Called by App at launch; only initializes this class.
+   */
+  static void startLoading() {
+    // Class initialization has started the loader
+  }
+
+  /**
+   * Returns the workspace to open at launch: the one named by the system
+   * property prowork.workspace, or the default workspace.
+   * 
+   * @return The workspace name
+   */
+  private static String initialWorkspace() {
+    String name = System.getProperty("prowork.workspace", WorkspaceManager.DEFAULT_WORKSPACE);
+    if (!workspaces.exists(name)) {
+      System.err.println("Unknown workspace " + name + ", opening " + WorkspaceManager.DEFAULT_WORKSPACE);
+      return WorkspaceManager.DEFAULT_WORKSPACE;
+    }
+    return name;
+  }
+
+  /**
+   * Activates a workspace, loading its tasks unless they are still loaded.
+   * Runs on the loader thread at launch and on the worker when switching.
+   * 
+   * @param workspace The workspace name
+   * @return The manager with all tasks loaded
+   */
+  private static TaskManager createTaskManager(String workspace) {
+    long start = System.nanoTime();
+    TaskManager manager = workspaces.activate(workspace);
+    System.out.println("Tasks of workspace " + workspace + " ready in background in "
+        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    StartupTimer.mark(StartupTimer.Phase.TASKS_READY);
+    return manager;
+  }
+
+  /**
+   * Lets the JSON cache follow the changes of a manager.
+   * 
+   * @param manager The manager of the active workspace
+   * @return The manager
+   */
+  private static TaskManager attachJsonCache(TaskManager manager) {
+    manager.removeChangeListener(jsonCache);
+    manager.addChangeListener(jsonCache);
+    return manager;
+  }
+
+  /**
+   * Reads a value of the active manager without waiting for it to load.
+   * 
+   * @param value Reads the value
+   * @return The value, or 0 while no manager is loaded
+   */
+  private static long ofLoadedManager(ToLongFunction<TaskManager> value) {
+    TaskManager manager = loadedManager();
+    return manager != null ? value.applyAsLong(manager) : 0;
+  }
+
+  /**
+   * Returns the active manager without waiting for it to load.
+   * 
+   * @return The manager, or null while it is loading or if loading failed
+   */
+  private static TaskManager loadedManager() {
+    return taskManagerLoader.exceptionally(error -> null).getNow(null);
+  }
+
+  /**
+   * Returns the shared TaskManager, waiting until it is loaded.
+   * If loading failed, the cause is logged once and an empty manager takes
+   * its place for the rest of the session.
+   * 
+   * @return The manager
+   */
+  private static TaskManager taskManager() {
+    CompletableFuture<TaskManager> current = taskManagerLoader;
+    try {
+      return current.join();
+    } catch (CompletionException | CancellationException e) {
+      return replaceFailedLoader(current, e);
+    }
+  }
+
+  /**
+   * Replaces a failed loader with an empty manager. Its store lives in a
+   * temporary directory, so nothing is ever saved over the tasks of the
+   * workspace that failed to load.
+   * 
+   * @param failed The loader that failed
+   * @param error The exception thrown by join()
+   * @return The manager now used by the bridge
+   */
+  private static synchronized TaskManager replaceFailedLoader(CompletableFuture<TaskManager> failed,
+      RuntimeException error) {
+    if (taskManagerLoader != failed) {
+      // Another thread has already replaced it
+      return taskManagerLoader.join();
+    }
+    Throwable cause = error.getCause() != null ? error.getCause() : error;
+    System.err.println("Error loading tasks, continuing with an empty workspace that is not saved: " + cause);
+    cause.printStackTrace();
+    Path directory;
+    try {
+      directory = Files.createTempDirectory("prowork-unsaved");
+    } catch (IOException e) {
+      directory = Paths.get(System.getProperty("java.io.tmpdir"), "prowork-unsaved");
+    }
+    unsavedManager = attachJsonCache(new TaskManager(new TaskPersistence(directory)));
+    taskManagerLoader = CompletableFuture.completedFuture(unsavedManager);
+    return unsavedManager;
+  }
+
+  /**
+   * Lists the workspaces for the App menu.
+   * 
+   * @return The workspace names, the default one first
+   */
+  static List<String> getWorkspaceNames() {
+    return workspaces.getWorkspaceNames();
+  }
+
+  /**
+   * Returns the name of the active workspace for the App menu.
+   * 
+   * @return The name, or null while the first workspace is loading
+   */
+  static String getActiveWorkspace() {
+    return workspaces.getActiveName();
+  }
+
+  /**
+   * Creates an empty workspace.
+   * 
+   * @param name The workspace name
+   * @throws IllegalArgumentException if the name is invalid or already used
+   */
+  static void createWorkspace(String name) {
+    workspaces.createWorkspace(name);
+  }
+
+  /**
+   * Switches to another workspace and reloads the current page with its tasks.
+   * Must run on the FX thread.
+   * 
+   * The switch runs on the worker, after the calls made before it, so they
+   * still apply to the previous workspace, and before the calls made after
+   * it. The workspace is activated and loaded there, and idle workspaces are
+   * only closed once the bridge uses the new manager, so no call is ever
+   * routed to a closed one. The JSON cache is cleared, since it holds the
+   * tasks of the previous workspace.
+   * 
+   * If the workspace cannot be loaded, the previous one stays active and
+   * the page is not reloaded; onSwitched runs all the same, and the caller
+   * can tell the failure from getActiveWorkspace().
+   * 
+   * @param name The workspace name
+   * @param onSwitched Runs on the FX thread once the page shows the workspace
+   *     or the switch failed
+   */
+  void switchWorkspace(String name, Runnable onSwitched) {
+    System.out.println("Switching to workspace: " + name);
+    worker.execute(() -> {
+      String previousName = workspaces.getActiveName();
+      boolean switched = false;
+      try {
+        TaskManager previousManager = taskManager();
+        TaskManager manager = createTaskManager(name);
+        if (previousManager != manager) {
+          previousManager.removeChangeListener(jsonCache);
+          jsonCache.clear();
+        }
+        attachJsonCache(manager);
+        taskManagerLoader = CompletableFuture.completedFuture(manager);
+        switched = true;
+        workspaces.closeIdle();
+      } catch (Exception e) {
+        System.err.println("Error switching to workspace " + name + ": " + e.getMessage());
+        if (!switched) {
+          restoreWorkspace(previousName);
+        }
+      }
+      if (engine == null) {
+        onSwitched.run();
+        return;
+      }
+      boolean reload = switched;
+      Platform.runLater(() -> {
+        if (reload) {
+          engine.reload();
+        }
+        onSwitched.run();
+      });
+    });
+  }
+
+  /**
+   * Makes the workspace the bridge still uses active again after a failed
+   * switch. It is still loaded, since idle workspaces are only closed after
+   * a successful switch.
+   * 
+   * @param previousName The workspace active before the switch, or null
+   */
+  private static void restoreWorkspace(String previousName) {
+    try {
+      if (previousName != null) {
+        workspaces.activate(previousName);
+      }
+      attachJsonCache(taskManager());
+    } catch (Exception e) {
+      System.err.println("Error restoring workspace " + previousName + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Tells JavaScript whether the tasks are loaded, so calls will not wait.
+   * Called from JavaScript via javaBridge.isReady().
+   * 
+   * @return true once the tasks are loaded
+   */
+  public boolean isReady() {
+    return taskManagerLoader.isDone();
+  }
+
+  /**
+   * Records that the page showed its first tasks, for the startup timings.
+   * Called from JavaScript via javaBridge.reportFirstRender().
+   */
+  public void reportFirstRender() {
+    StartupTimer.mark(StartupTimer.Phase.FIRST_RENDER);
+  }
+
+  /**
+   * Calls window.onTasksReady() on the current page. A page that is not
+   * loaded yet asks isReady() when the bridge is injected instead.
+   * Must run on the FX thread.
+   */
+  private void notifyTasksReady() {
+    try {
+      engine.executeScript("if (window.onTasksReady) { window.onTasksReady(); }");
+    } catch (Exception e) {
+      System.err.println("Could not notify page that tasks are ready: " + e.getMessage());
+    }
   }
 
   /**
@@ -60,7 +436,7 @@ public class JavaBridge {
       if (notes != null && !notes.isEmpty()) {
         task.setNotes(notes);
       }
-      taskManager.addTask(task);
+      taskManager().addTask(task);
       System.out.println("Task added: " + name + " (ID: " + task.getId() + ")");
       return task.getId();
     } catch (Exception e) {
@@ -75,14 +451,103 @@ public class JavaBridge {
    * Called from JavaScript via javaBridge.getAllTasks().
    * 
    * The JSON format uses 'dueDate' and 'taskType' as field names to match
-   * the JavaScript frontend expectations.
+   * the JavaScript frontend expectations. The array is served from the
+   * JSON cache while no task changed.
    * 
    * @return JSON array of all tasks
    */
   public String getAllTasks() {
-    List<Task> tasks = taskManager.getAllTasks();
+    long version = taskManager().getVersion();
+    List<Task> tasks = taskManager().getAllTasks();
     System.out.println("Getting all tasks. Count: " + tasks.size());
-    return tasksToJson(tasks);
+    return jsonCache.getAllTasksJson(tasks, version);
+  }
+
+  /**
+   * Retrieves only the tasks that changed since a version the view has seen.
+   * Called from JavaScript via javaBridge.getChangesSince(version).
+   * 
+   * The result has the form
+   * {"version":N,"full":false,"added":[...],"updated":[...],"deleted":["id",...]}.
+   * If "full" is true, the view must replace its list with "added".
+   * Pass -1 to get the complete list on first load.
+   * 
+   * @param version The last version the view has seen
+   * @return JSON object with the changes and the new version
+   */
+  public String getChangesSince(long version) {
+    return getChangesSince(version, -1);
+  }
+
+  /**
+   * Retrieves the tasks that changed since a version, but at most limit of them.
+   * Called from JavaScript via javaBridge.getChangesSince(version, limit) by
+   * the paged list, which patches the tasks it shows and reloads its pages
+   * if "full" is true. Such a full resync carries no tasks, so the answer
+   * stays small however many tasks there are.
+   * 
+   * @param version The last version the view has seen
+   * @param limit The maximum number of changed tasks; negative for a full
+   *        resync with all tasks
+   * @return JSON object with the changes and the new version
+   */
+  public String getChangesSince(long version, int limit) {
+    TaskChanges changes = taskManager().getChangesSince(version, limit);
+    try {
+      StringWriter out = clearJsonBuffer();
+      TaskJsonWriter writer = new TaskJsonWriter(out, TaskJsonFormat.BRIDGE);
+      out.write("{\"version\":" + changes.getVersion() + ",\"full\":" + changes.isFullResync() + ",\"added\":");
+      jsonCache.writeArray(out, changes.getAdded());
+      out.write(",\"updated\":");
+      jsonCache.writeArray(out, changes.getUpdated());
+      out.write(",\"deleted\":[");
+      boolean first = true;
+      for (String id : changes.getDeletedIds()) {
+        if (!first) {
+          out.write(',');
+        }
+        out.write('"');
+        writer.writeEscaped(id);
+        out.write('"');
+        first = false;
+      }
+      out.write("]}");
+      return out.toString();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Retrieves one page of the sorted and filtered task list.
+   * Called from JavaScript via javaBridge.getTasksPage(offset, limit, sort, filter).
+   * 
+   * The result has the form {"version":N,"total":T,"offset":O,"tasks":[...]},
+   * where total is the number of tasks passing the filter. The list is kept
+   * sorted by the TaskManager, so a page costs O(log n + limit).
+   * 
+   * @param offset The position of the first task
+   * @param limit The maximum number of tasks
+   * @param sort Comma-separated sort keys, e.g. "DEADLINE,NAME"; empty for
+   *        priority, deadline and name
+   * @param filter Comma-separated filter, e.g. "active,TEST"; empty for all tasks
+   * @return JSON object with the page and the total count
+   */
+  public String getTasksPage(int offset, int limit, String sort, String filter) {
+    try {
+      long version = taskManager().getVersion();
+      TaskSortKey[] keys = sort == null || sort.isEmpty() ? new TaskSortKey[0] : TaskSortKey.parse(sort);
+      TaskPage page = taskManager().getSortedView(TaskFilter.parse(filter), keys).getPage(offset, limit);
+      StringWriter out = clearJsonBuffer();
+      out.write("{\"version\":" + version + ",\"total\":" + page.getTotal()
+          + ",\"offset\":" + page.getOffset() + ",\"tasks\":");
+      jsonCache.writeArray(out, page.getTasks());
+      out.write('}');
+      return out.toString();
+    } catch (Exception e) {
+      System.err.println("Error getting task page: " + e.getMessage());
+      return "{\"version\":-1,\"total\":0,\"offset\":0,\"tasks\":[]}";
+    }
   }
 
   /**
@@ -94,7 +559,7 @@ public class JavaBridge {
    */
   public boolean deleteTask(String id) {
     System.out.println("Deleting task: " + id);
-    boolean result = taskManager.deleteTask(id);
+    boolean result = taskManager().deleteTask(id);
     System.out.println("Delete result: " + result);
     return result;
   }
@@ -107,16 +572,167 @@ public class JavaBridge {
    * @return true if task was found and marked complete, false otherwise
    */
   public boolean completeTask(String id) {
-    Task task = taskManager.getTask(id);
-    if (task != null) {
-      task.setCompleted(true);
-      taskManager.save(); // Persist the change
+    if (taskManager().modifyTask(id, task -> task.setCompleted(true))) {
       System.out.println("Task completed: " + id);
       return true;
     }
     return false;
   }
 
+  /**
+   * Adds several tasks with a single save.
+   * Called from JavaScript via javaBridge.addTasks(json).
+   *
+   * Every task gets a new ID, like with addTask. Tasks without a name or a
+   * valid due date are not added.
+   *
+   * @param json JSON array of tasks with the fields of getAllTasks
+   * @return JSON array with the ID of each created task, or null for each
+   *         task that was not added; null if the input is not a task array
+   */
+  public String addTasks(String json) {
+    try {
+      List<Task> parsed = readTaskArray(json);
+      if (parsed == null) {
+        return null;
+      }
+      List<Task> created = new ArrayList<>();
+      List<String> ids = new ArrayList<>();
+      for (Task task : parsed) {
+        if (task == null) {
+          ids.add(null);
+          continue;
+        }
+        Task copy = new Task(task.getName(), task.getDeadline(), task.getType(), task.getPriority(), task.getRepetition());
+        if (task.getNotes() != null && !task.getNotes().isEmpty()) {
+          copy.setNotes(task.getNotes());
+        }
+        created.add(copy);
+        ids.add(copy.getId());
+      }
+      taskManager().addTasks(created);
+      System.out.println("Tasks added: " + created.size() + " of " + parsed.size());
+      return stringsToJson(ids);
+    } catch (Exception e) {
+      System.err.println("Error adding tasks: " + e.getMessage());
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  /**
+   * Deletes several tasks with a single save.
+   * Called from JavaScript via javaBridge.deleteTasks(json).
+   *
+   * @param json JSON array of task IDs
+   * @return JSON array telling for each ID whether the task was deleted,
+   *         or null if the input is not an array of IDs
+   */
+  public String deleteTasks(String json) {
+    List<String> ids = readIdArray(json);
+    if (ids == null) {
+      return null;
+    }
+    boolean[] results = taskManager().deleteTasks(ids);
+    System.out.println("Tasks deleted: " + count(results) + " of " + ids.size());
+    return booleansToJson(results);
+  }
+
+  /**
+   * Marks several tasks as completed with a single save.
+   * Called from JavaScript via javaBridge.completeTasks(json).
+   *
+   * @param json JSON array of task IDs
+   * @return JSON array telling for each ID whether the task was found,
+   *         or null if the input is not an array of IDs
+   */
+  public String completeTasks(String json) {
+    List<String> ids = readIdArray(json);
+    if (ids == null) {
+      return null;
+    }
+    boolean[] results = taskManager().completeTasks(ids);
+    System.out.println("Tasks completed: " + count(results) + " of " + ids.size());
+    return booleansToJson(results);
+  }
+
+  /**
+   * Changes the priority of several tasks with a single save. Only the
+   * priority is touched; all other fields keep their current values.
+   * Called from JavaScript via javaBridge.setTasksPriority(json, priority).
+   *
+   * @param json JSON array of task IDs
+   * @param priority The new priority (HIGH, MEDIUM, LOW)
+   * @return JSON array telling for each ID whether the task was found,
+   *         or null if the input is not an array of IDs or no priority
+   */
+  public String setTasksPriority(String json, String priority) {
+    List<String> ids = readIdArray(json);
+    if (ids == null) {
+      return null;
+    }
+    Priority value;
+    try {
+      value = Priority.valueOf(priority);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      System.err.println("Invalid priority: " + priority);
+      return null;
+    }
+    Consumer<Task> change = task -> task.setPriority(value);
+    boolean[] results = taskManager().modifyTasks(ids, Collections.nCopies(ids.size(), change));
+    System.out.println("Task priorities changed: " + count(results) + " of " + ids.size());
+    return booleansToJson(results);
+  }
+
+  /**
+   * Updates several tasks with a single save.
+   * Called from JavaScript via javaBridge.updateTasks(json).
+   *
+   * Each task object replaces name, due date, type, priority and repetition
+   * of the task with the same ID. Notes are only replaced when the object
+   * has them and the task supports them, and a task is only ever marked as
+   * completed, never reopened, so an outdated object cannot undo a change
+   * made in the meantime. To change a single field of many tasks, use a
+   * field-targeted call such as setTasksPriority instead.
+   *
+   * @param json JSON array of tasks with the fields of getAllTasks
+   * @return JSON array telling for each task whether it was found and
+   *         updated, or null if the input is not a task array
+   */
+  public String updateTasks(String json) {
+    try {
+      List<Task> parsed = readTaskArray(json);
+      if (parsed == null) {
+        return null;
+      }
+      List<String> ids = new ArrayList<>(parsed.size());
+      List<Consumer<Task>> modifications = new ArrayList<>(parsed.size());
+      for (Task task : parsed) {
+        ids.add(task != null ? task.getId() : null);
+        modifications.add(copy -> {
+          copy.setName(task.getName());
+          copy.setDeadline(task.getDeadline());
+          copy.setType(task.getType());
+          copy.setPriority(task.getPriority());
+          copy.setRepetition(task.getRepetition());
+          if (task.isCompleted() && !copy.isCompleted()) {
+            copy.setCompleted(true);
+          }
+          if (task.getNotes() != null && copy.canHaveNotes()) {
+            copy.setNotes(task.getNotes());
+          }
+        });
+      }
+      boolean[] results = taskManager().modifyTasks(ids, modifications);
+      System.out.println("Tasks updated: " + count(results) + " of " + ids.size());
+      return booleansToJson(results);
+    } catch (Exception e) {
+      System.err.println("Error updating tasks: " + e.getMessage());
+      e.printStackTrace();
+      return null;
+    }
+  }
+
   /**
    * Retrieves all tasks for a specific date as JSON.
    * Called from JavaScript via javaBridge.getTasksForDate(dateStr).
@@ -127,7 +743,7 @@ public class JavaBridge {
   public String getTasksForDate(String dateStr) {
     try {
       LocalDate date = LocalDate.parse(dateStr);
-      List<Task> tasks = taskManager.getTasksForDate(date);
+      List<Task> tasks = taskManager().getTasksForDate(date);
       return tasksToJson(tasks);
     } catch (Exception e) {
       System.err.println("Error getting tasks for date: " + e.getMessage());
@@ -135,6 +751,108 @@ public class JavaBridge {
     }
   }
 
+  /**
+   * Finds tasks whose name or notes contain words starting with the words
+   * of the query. Called from JavaScript via javaBridge.searchTasks(query, limit).
+   * 
+   * @param query The search words, e.g. "mathe haus"
+   * @param limit Maximum number of results, or 0 for all
+   * @return JSON array of the matching tasks, active ones first
+   */
+  public String searchTasks(String query, int limit) {
+    try {
+      return tasksToJson(taskManager().searchTasks(query, limit));
+    } catch (Exception e) {
+      System.err.println("Error searching tasks: " + e.getMessage());
+      return "[]";
+    }
+  }
+
+  /**
+   * Lists the months for which completed tasks were archived.
+   * Called from JavaScript via javaBridge.getArchiveMonths().
+   * 
+   * @return JSON array of months in YYYY-MM format, oldest first
+   */
+  public String getArchiveMonths() {
+    StringBuilder json = new StringBuilder("[");
+    for (YearMonth month : taskManager().getArchive().getMonths()) {
+      if (json.length() > 1) {
+        json.append(',');
+      }
+      json.append('"').append(month).append('"');
+    }
+    return json.append(']').toString();
+  }
+
+  /**
+   * Retrieves the archived tasks completed in a month as JSON.
+   * Called from JavaScript via javaBridge.getArchivedTasks(monthStr).
+   * 
+   * @param monthStr The month in YYYY-MM format
+   * @return JSON array of the archived tasks
+   */
+  public String getArchivedTasks(String monthStr) {
+    try {
+      // Archived tasks are built per call, so they bypass the JSON cache
+      StringWriter out = clearJsonBuffer();
+      new TaskJsonWriter(out, TaskJsonFormat.BRIDGE)
+          .writeTasks(taskManager().getArchive().getTasks(YearMonth.parse(monthStr)));
+      return out.toString();
+    } catch (Exception e) {
+      System.err.println("Error getting archived tasks: " + e.getMessage());
+      return "[]";
+    }
+  }
+
+  /**
+   * Retrieves the tasks of a calendar window, grouped per day.
+   * Called from JavaScript via javaBridge.getCalendarRange(from, to, maxPerDay).
+   * 
+   * Repeating tasks are included once per occurrence. The tasks of each day
+   * are sorted by priority and capped at maxPerDay; the number of tasks that
+   * did not fit is returned as 'more'. Days without tasks are left out:
+   * {"days":{"2025-03-01":{"total":5,"more":2,"tasks":[...]}, ...}}
+   * 
+   * @param fromStr The first visible date in YYYY-MM-DD format
+   * @param toStr The last visible date in YYYY-MM-DD format
+   * @param maxPerDay Maximum number of tasks per day, or 0 for all
+   * @return JSON object with the tasks per day
+   */
+  public String getCalendarRange(String fromStr, String toStr, int maxPerDay) {
+    try {
+      LocalDate from = LocalDate.parse(fromStr);
+      LocalDate to = LocalDate.parse(toStr);
+      Iterator<Occurrence> occurrences = taskManager().iterateOccurrences(from, to);
+
+      StringWriter out = clearJsonBuffer();
+      out.write("{\"days\":{");
+      List<Task> day = new ArrayList<>();
+      LocalDate date = null;
+      boolean firstDay = true;
+      while (occurrences.hasNext()) {
+        Occurrence occurrence = occurrences.next();
+        if (!occurrence.getDate().equals(date)) {
+          if (date != null) {
+            writeCalendarDay(out, date, day, maxPerDay, firstDay);
+            firstDay = false;
+          }
+          date = occurrence.getDate();
+          day.clear();
+        }
+        day.add(occurrence.getTask());
+      }
+      if (date != null) {
+        writeCalendarDay(out, date, day, maxPerDay, firstDay);
+      }
+      out.write("}}");
+      return out.toString();
+    } catch (Exception e) {
+      System.err.println("Error getting calendar range: " + e.getMessage());
+      return "{\"days\":{}}";
+    }
+  }
+
   /**
    * Updates the notes for a task.
    * Called from JavaScript via javaBridge.updateTaskNotes(id, notes).
@@ -146,10 +864,8 @@ public class JavaBridge {
    */
   public boolean updateTaskNotes(String id, String notes) {
     System.out.println("Updating notes for task: " + id);
-    Task task = taskManager.getTask(id);
-    if (task != null && task.canHaveNotes()) {
-      task.setNotes(notes);
-      taskManager.save(); // Persist the change
+    Task task = taskManager().getTask(id);
+    if (task != null && task.canHaveNotes() && taskManager().modifyTask(id, copy -> copy.setNotes(notes))) {
       System.out.println("Notes updated successfully");
       return true;
     }
@@ -165,7 +881,7 @@ public class JavaBridge {
    * @return JSON representation of the task, or null if not found
    */
   public String getTask(String id) {
-    Task task = taskManager.getTask(id);
+    Task task = taskManager().getTask(id);
     if (task != null) {
       return taskToJson(task);
     }
@@ -203,21 +919,399 @@ public class JavaBridge {
   }
 
   /**
-   * Converts a list of tasks to JSON array format.
+   * Lets the user pick an iCalendar file.
+   * Called from JavaScript via javaBridge.chooseCalendarFile(forSave).
+   * Must run on the FX thread.
+   * 
+   * @param forSave true to choose a file to export to, false to import from
+   * @return The path of the chosen file, or null if the dialog was cancelled
+   */
+  public String chooseCalendarFile(boolean forSave) {
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle(forSave ? "Kalender exportieren" : "Kalender importieren");
+    chooser.getExtensionFilters().addAll(
+        new FileChooser.ExtensionFilter("iCalendar (*.ics)", "*.ics"),
+        new FileChooser.ExtensionFilter("Alle Dateien", "*.*"));
+    if (forSave) {
+      chooser.setInitialFileName("prowork.ics");
+    }
+    File file = forSave ? chooser.showSaveDialog(null) : chooser.showOpenDialog(null);
+    return file != null ? file.getAbsolutePath() : null;
+  }
+
+  /**
+   * Imports the to-dos and events of an iCalendar file as tasks.
+   * Called from JavaScript via callBridge('importCalendar', path).
+   * 
+   * The file is read as a stream and the tasks are added in batches of
+   * prowork.importBatchSize, each with a single save request. After each
+   * batch the page is told the progress through
+   * window.onCalendarProgress(imported, percent). Entries whose UID is
+   * already a task ID, e.g. from an earlier import, are not added again,
+   * including tasks that have been moved to the archive since.
+   * 
+   * The result has the form
+   * {"imported":N,"skipped":S,"duplicates":D,"problems":["line 3: ...",...]}.
+   * 
+   * @param path The path of the .ics file
+   * @return JSON object with the counts, or null if the file cannot be read
+   */
+  public String importCalendar(String path) {
+    long start = System.nanoTime();
+    Path file = Paths.get(path);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+         IcsReader reader = new IcsReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+      long size = Math.max(1, channel.size());
+      Map<String, Task> batch = new LinkedHashMap<>();
+      int[] counts = new int[2];
+      Predicate<String> archived = taskManager().getArchive().archivedIds();
+      reader.readTasks(task -> {
+        if (batch.containsKey(task.getId()) || taskManager().getTask(task.getId()) != null
+            || archived.test(task.getId())) {
+          counts[1]++;
+          return;
+        }
+        batch.put(task.getId(), task);
+        if (batch.size() >= IMPORT_BATCH_SIZE) {
+          counts[0] += addImportBatch(batch);
+          reportCalendarProgress(counts[0], progressOf(channel, size));
+        }
+      });
+      counts[0] += addImportBatch(batch);
+      reportCalendarProgress(counts[0], 100);
+
+      System.out.println("Calendar imported from " + file + ": " + counts[0] + " tasks, "
+          + reader.getSkippedCount() + " skipped, " + counts[1] + " already present in "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+      StringWriter out = clearJsonBuffer();
+      TaskJsonWriter writer = new TaskJsonWriter(out, TaskJsonFormat.BRIDGE);
+      out.write("{\"imported\":" + counts[0] + ",\"skipped\":" + reader.getSkippedCount()
+          + ",\"duplicates\":" + counts[1] + ",\"problems\":[");
+      List<String> problems = reader.getProblems();
+      for (int i = 0; i < problems.size(); i++) {
+        out.write(i > 0 ? ",\"" : "\"");
+        writer.writeEscaped(problems.get(i));
+        out.write('"');
+      }
+      out.write("]}");
+      return out.toString();
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Error importing calendar: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Exports all tasks to an iCalendar file as to-dos.
+   * Called from JavaScript via callBridge('exportCalendar', path).
+   * Archived tasks are not exported.
+   * 
+   * @param path The path of the .ics file to write
+   * @return The number of exported tasks, or -1 if the file cannot be written
+   */
+  public int exportCalendar(String path) {
+    List<Task> tasks = taskManager().getAllTasks();
+    try (BufferedWriter out = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+      IcsWriter writer = new IcsWriter(out);
+      writer.beginCalendar();
+      for (Task task : tasks) {
+        writer.writeTask(task);
+      }
+      writer.endCalendar();
+      System.out.println("Calendar exported to " + path + ": " + tasks.size() + " tasks");
+      return tasks.size();
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Error exporting calendar: " + e.getMessage());
+      return -1;
+    }
+  }
+
+  /**
+   * Adds and empties a batch of imported tasks.
+   * 
+   * @param batch The tasks by ID
+   * @return The number of added tasks
+   */
+  private static int addImportBatch(Map<String, Task> batch) {
+    int count = batch.size();
+    taskManager().addTasks(new ArrayList<>(batch.values()));
+    batch.clear();
+    return count;
+  }
+
+  private static int progressOf(FileChannel channel, long size) {
+    try {
+      return (int) Math.min(99, channel.position() * 100 / size);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Passes the progress of an import to the page, if one is shown.
+   * 
+   * @param imported The number of tasks imported so far
+   * @param percent The share of the file read so far
+   */
+  private void reportCalendarProgress(int imported, int percent) {
+    if (engine == null) {
+      return;
+    }
+    Platform.runLater(() -> {
+      try {
+        engine.executeScript("if (window.onCalendarProgress) { window.onCalendarProgress("
+            + imported + "," + percent + "); }");
+      } catch (Exception e) {
+        System.err.println("Could not report import progress: " + e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Tells JavaScript whether calls should be made through callAsync.
+   * Called from JavaScript via javaBridge.isAsyncEnabled().
+   * 
+   * @return true unless prowork.asyncBridge is set to false
+   */
+  public boolean isAsyncEnabled() {
+    return ASYNC_ENABLED;
+  }
+
+  /**
+   * Runs a bridge method on the background worker and returns immediately.
+   * Called from JavaScript via callBridge(method, ...args) in js/bridge.js.
+   * 
+   * The arguments are read here on the FX thread. When the method has
+   * finished, window.onBridgeResult(requestId, ok, result) is called on the
+   * FX thread with its return value, or with the error message if it failed.
+   * 
+   * @param requestId Number the page uses to match the result to the call
+   * @param method Name of the bridge method to run
+   * @param args JavaScript array with the arguments of the method
+   */
+  public void callAsync(int requestId, String method, JSObject args) {
+    Object[] values = toArray(args);
+    long queuedNanos = System.nanoTime();
+    worker.execute(() -> {
+      BridgeCallEvent event = new BridgeCallEvent();
+      event.begin();
+      long startNanos = System.nanoTime();
+      boolean ok;
+      Object result;
+      try {
+        result = invoke(method, values);
+        ok = true;
+      } catch (Exception e) {
+        System.err.println("Error in asynchronous call " + method + ": " + e.getMessage());
+        result = String.valueOf(e.getMessage());
+        ok = false;
+      }
+
+      Metrics.timer("bridge." + method).recordSince(startNanos);
+      Metrics.timer("bridge.queue").record(startNanos - queuedNanos);
+      event.end();
+      if (event.shouldCommit()) {
+        event.method = method;
+        event.succeeded = ok;
+        event.queueTime = startNanos - queuedNanos;
+        event.commit();
+      }
+
+      boolean success = ok;
+      Object value = result;
+      Platform.runLater(() -> deliver(requestId, success, value));
+    });
+  }
+
+  /**
+   * Writes all pending task changes to disk and stops background saving.
+   * Called once from App.stop() when the application exits, also if the
+   * tasks never finished loading.
+   */
+  public static void shutdown() {
+    worker.shutdown();
+    try {
+      if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+        System.err.println("Bridge worker did not finish in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // Does not wait for a load that is still running or throw for a failed one
+    TaskManager manager = loadedManager();
+    workspaces.close();
+    synchronized (JavaBridge.class) {
+      if (unsavedManager != null) {
+        unsavedManager.close();
+      }
+    }
+    if (manager != null) {
+      System.out.println("Saves requested: " + manager.getSaveRequestCount()
+          + ", performed: " + manager.getPerformedSaveCount()
+          + ", merged: " + manager.getMergedSaveCount());
+    }
+    System.out.println("JSON cache hits: " + jsonCache.getHitCount()
+        + ", misses: " + jsonCache.getMissCount()
+        + ", list hits: " + jsonCache.getArrayHitCount()
+        + ", list misses: " + jsonCache.getArrayMissCount());
+  }
+
+  /**
+   * Runs the bridge method with the given name. Only methods that modify
+   * tasks or build larger results are available asynchronously.
+   * 
+   * @param method Name of the bridge method
+   * @param args The arguments passed from JavaScript
+   * @return The return value of the method
+   */
+  private Object invoke(String method, Object[] args) {
+    switch (method) {
+      case "addTask":
+        return addTask(stringArg(args, 0), stringArg(args, 1), stringArg(args, 2),
+            stringArg(args, 3), stringArg(args, 4), stringArg(args, 5));
+      case "deleteTask":
+        return deleteTask(stringArg(args, 0));
+      case "completeTask":
+        return completeTask(stringArg(args, 0));
+      case "addTasks":
+        return addTasks(stringArg(args, 0));
+      case "deleteTasks":
+        return deleteTasks(stringArg(args, 0));
+      case "completeTasks":
+        return completeTasks(stringArg(args, 0));
+      case "setTasksPriority":
+        return setTasksPriority(stringArg(args, 0), stringArg(args, 1));
+      case "updateTasks":
+        return updateTasks(stringArg(args, 0));
+      case "updateTaskNotes":
+        return updateTaskNotes(stringArg(args, 0), stringArg(args, 1));
+      case "importCalendar":
+        return importCalendar(stringArg(args, 0));
+      case "exportCalendar":
+        return exportCalendar(stringArg(args, 0));
+      case "getAllTasks":
+        return getAllTasks();
+      case "getChangesSince":
+        return args.length > 1
+            ? getChangesSince(numberArg(args, 0).longValue(), numberArg(args, 1).intValue())
+            : getChangesSince(numberArg(args, 0).longValue());
+      case "getTasksPage":
+        return getTasksPage(numberArg(args, 0).intValue(), numberArg(args, 1).intValue(),
+            stringArg(args, 2), stringArg(args, 3));
+      case "getTask":
+        return getTask(stringArg(args, 0));
+      case "getTasksForDate":
+        return getTasksForDate(stringArg(args, 0));
+      case "getCalendarRange":
+        return getCalendarRange(stringArg(args, 0), stringArg(args, 1), numberArg(args, 2).intValue());
+      case "searchTasks":
+        return searchTasks(stringArg(args, 0), numberArg(args, 1).intValue());
+      case "getArchiveMonths":
+        return getArchiveMonths();
+      case "getArchivedTasks":
+        return getArchivedTasks(stringArg(args, 0));
+      default:
+        throw new IllegalArgumentException("Unknown bridge method: " + method);
+    }
+  }
+
+  /**
+   * Passes the result of an asynchronous call to the page.
+   * Must run on the FX thread.
+   * 
+   * @param requestId Number of the call
+   * @param ok Whether the call succeeded
+   * @param result The return value, or the error message
+   */
+  private void deliver(int requestId, boolean ok, Object result) {
+    try {
+      JSObject window = (JSObject) engine.executeScript("window");
+      window.call("onBridgeResult", requestId, ok, result);
+    } catch (Exception e) {
+      // The page may have been replaced while the call was running
+      System.err.println("Could not deliver result of call " + requestId + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Copies the elements of a JavaScript array, so they can be used
+   * off the FX thread.
+   * 
+   * @param array The JavaScript array, or null
+   * @return The elements
+   */
+  private static Object[] toArray(JSObject array) {
+    if (array == null) {
+      return new Object[0];
+    }
+    int length = ((Number) array.getMember("length")).intValue();
+    Object[] values = new Object[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = array.getSlot(i);
+    }
+    return values;
+  }
+
+  /**
+   * Reads a string argument of an asynchronous call.
+   * 
+   * @param args The arguments
+   * @param index The position of the argument
+   * @return The argument as string, or null if missing
+   */
+  private static String stringArg(Object[] args, int index) {
+    return index < args.length && args[index] != null ? String.valueOf(args[index]) : null;
+  }
+
+  /**
+   * Reads a numeric argument of an asynchronous call.
+   * 
+   * @param args The arguments
+   * @param index The position of the argument
+   * @return The argument as number
+   */
+  private static Number numberArg(Object[] args, int index) {
+    Object value = index < args.length ? args[index] : null;
+    return value instanceof Number ? (Number) value : Double.valueOf(String.valueOf(value));
+  }
+
+  /**
+   * Writes the entry of one calendar day, sorted by priority and capped.
+   * 
+   * @param out The buffer to write to
+   * @param date The day
+   * @param tasks All tasks due on the day, in date-index order
+   * @param maxPerDay Maximum number of tasks to include, or 0 for all
+   * @param first Whether this is the first day written
+   * @throws IOException if writing fails
+   */
+  private void writeCalendarDay(StringWriter out, LocalDate date, List<Task> tasks, int maxPerDay, boolean first) throws IOException {
+    tasks.sort(BY_PRIORITY);
+    int shown = maxPerDay > 0 ? Math.min(maxPerDay, tasks.size()) : tasks.size();
+
+    if (!first) {
+      out.write(',');
+    }
+    out.write("\"" + date + "\":{\"total\":" + tasks.size() + ",\"more\":" + (tasks.size() - shown) + ",\"tasks\":");
+    jsonCache.writeArray(out, tasks.subList(0, shown));
+    out.write('}');
+  }
+
+  /**
+   * Converts a list of tasks to JSON array format, using the cached
+   * JSON of each task.
    * 
    * @param tasks The list of tasks to convert
    * @return JSON array string
    */
   private String tasksToJson(List<Task> tasks) {
-    StringBuilder json = new StringBuilder("[");
-    for (int i = 0; i < tasks.size(); i++) {
-      json.append(taskToJson(tasks.get(i)));
-      if (i < tasks.size() - 1) {
-        json.append(",");
-      }
+    StringWriter out = clearJsonBuffer();
+    try {
+      jsonCache.writeArray(out, tasks);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-    json.append("]");
-    return json.toString();
+    return out.toString();
   }
 
   /**
@@ -230,32 +1324,122 @@ public class JavaBridge {
    * @return JSON object string
    */
   private String taskToJson(Task task) {
-    return String.format(
-      "{\"id\":\"%s\",\"name\":\"%s\",\"dueDate\":\"%s\",\"taskType\":\"%s\",\"priority\":\"%s\",\"repetition\":\"%s\",\"notes\":\"%s\",\"completed\":%b,\"color\":\"%s\"}",
-      task.getId(),
-      escapeJson(task.getName()),
-      task.getDeadline().toString(),
-      task.getType().name(),
-      task.getPriority().name(),
-      task.getRepetition().name(),
-      escapeJson(task.getNotes()),
-      task.isCompleted(),
-      task.getType().getColor()
-    );
-  }
-
-  /**
-   * Escapes special characters for JSON format.
-   * Handles quotes, backslashes, newlines, and carriage returns.
-   * 
-   * @param str The string to escape
-   * @return Escaped string safe for JSON
-   */
-  private String escapeJson(String str) {
-    if (str == null) return "";
-    return str.replace("\\", "\\\\")
-              .replace("\"", "\\\"")
-              .replace("\n", "\\n")
-              .replace("\r", "\\r");
+    return jsonCache.getJson(task);
+  }
+
+  /**
+   * Parses a JSON array of tasks sent by a batch call.
+   * 
+   * @param json The array
+   * @return The tasks, with null for each element that could not be read,
+   *         or null if the input is not a task array
+   * @throws IOException if reading fails
+   */
+  private static List<Task> readTaskArray(String json) throws IOException {
+    if (json == null) {
+      return null;
+    }
+    try (TaskJsonReader reader = new TaskJsonReader(new StringReader(json), TaskJsonFormat.BRIDGE)) {
+      List<Task> tasks = reader.readTaskElements();
+      for (String problem : reader.getProblems()) {
+        System.err.println("Batch input: " + problem);
+      }
+      return tasks.isEmpty() && !reader.getProblems().isEmpty() ? null : tasks;
+    }
+  }
+
+  /**
+   * Parses a JSON array of task IDs sent by a batch call.
+   * 
+   * @param json The array
+   * @return The IDs, or null if the input is not an array of strings
+   */
+  private static List<String> readIdArray(String json) {
+    if (json == null) {
+      return null;
+    }
+    try (TaskJsonReader reader = new TaskJsonReader(new StringReader(json))) {
+      List<String> ids = reader.readStrings();
+      for (String problem : reader.getProblems()) {
+        System.err.println("Batch input: " + problem);
+      }
+      return ids;
+    } catch (IOException e) {
+      System.err.println("Error reading task IDs: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Writes the per-item results of a batch call as a JSON array.
+   * 
+   * @param values The results
+   * @return JSON array of strings and nulls
+   * @throws IOException if writing fails
+   */
+  private String stringsToJson(List<String> values) throws IOException {
+    StringWriter out = clearJsonBuffer();
+    TaskJsonWriter writer = new TaskJsonWriter(out, TaskJsonFormat.BRIDGE);
+    out.write('[');
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      if (values.get(i) == null) {
+        out.write("null");
+      } else {
+        out.write('"');
+        writer.writeEscaped(values.get(i));
+        out.write('"');
+      }
+    }
+    out.write(']');
+    return out.toString();
+  }
+
+  /**
+   * Writes the per-item results of a batch call as a JSON array.
+   * 
+   * @param values The results
+   * @return JSON array of booleans
+   */
+  private String booleansToJson(boolean[] values) {
+    StringWriter out = clearJsonBuffer();
+    out.write('[');
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      out.write(String.valueOf(values[i]));
+    }
+    out.write(']');
+    return out.toString();
+  }
+
+  private static int count(boolean[] values) {
+    int count = 0;
+    for (boolean value : values) {
+      if (value) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Empties the reused JSON buffer. A buffer that grew very large for a
+   * single big response is replaced, so it does not stay in memory.
+   * 
+   * @return The empty buffer
+   */
+  private StringWriter clearJsonBuffer() {
+    StringWriter buffer = jsonBuffer.get();
+    if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+      buffer = new StringWriter(INITIAL_BUFFER);
+      jsonBuffer.set(buffer);
+    } else {
+      buffer.getBuffer().setLength(0);
+    }
+    return buffer;
   }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.prowork;
+
+import com.prowork.metrics.Metrics;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Logs how long after the JVM started each phase of the application start
+ * was reached, to track the time until the user can work.
+ *
+ * The phases usually finish in the order they are declared, but loading the
+ * tasks runs in the background and may finish before the stage is shown.
+ * Each phase is logged once; the times also go to the metrics registry as
+ * gauges "startup.<phase>" in milliseconds.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+final class StartupTimer {
+
+  /**
+   * The phases of the application start.
+   */
+  enum Phase {
+    STAGE_SHOWN("stageShown", "stage shown"),
+    TASKS_READY("tasksReady", "tasks ready"),
+    FIRST_RENDER("firstRender", "first render");
+
+    private final String metricName;
+    private final String label;
+
+    Phase(String metricName, String label) {
+      this.metricName = metricName;
+      this.label = label;
+    }
+  }
+
+  private static final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+  private static final Map<Phase, Long> reached = new EnumMap<>(Phase.class);
+
+  private StartupTimer() {
+  }
+
+  /**
+   * Records that a phase was reached. Later calls for the same phase are ignored.
+   *
+   * @param phase The phase
+   */
+  static synchronized void mark(Phase phase) {
+    if (reached.containsKey(phase)) {
+      return;
+    }
+    long millis = System.currentTimeMillis() - jvmStartMillis;
+    reached.put(phase, millis);
+    Metrics.gauge("startup." + phase.metricName, () -> millis);
+    System.out.println("Startup: " + phase.label + " after " + millis + " ms");
+
+    if (reached.size() == Phase.values().length) {
+      StringBuilder summary = new StringBuilder("Startup: JVM start");
+      for (Phase each : Phase.values()) {
+        summary.append(" -> ").append(each.label).append(' ').append(reached.get(each)).append(" ms");
+      }
+      System.out.println(summary);
+    }
+  }
+}
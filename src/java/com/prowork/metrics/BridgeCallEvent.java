@@ -0,0 +1,32 @@
+package com.prowork.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one asynchronous call from a web view to JavaBridge.
+ * The event's duration is the time the method ran on the bridge worker.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@Name("com.prowork.BridgeCall")
+@Label("Bridge Call")
+@Category("ProWork")
+@Description("A JavaBridge method called from JavaScript")
+public class BridgeCallEvent extends Event {
+  @Label("Method")
+  public String method;
+
+  @Label("Succeeded")
+  public boolean succeeded;
+
+  @Label("Queue Time")
+  @Description("Time the call waited for the bridge worker")
+  @Timespan(Timespan.NANOSECONDS)
+  public long queueTime;
+}
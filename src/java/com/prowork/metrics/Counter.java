@@ -0,0 +1,41 @@
+package com.prowork.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A sum that only grows, e.g. written bytes or skipped records.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class Counter {
+  private final LongAdder sum = new LongAdder();
+
+  Counter() {
+  }
+
+  /**
+   * Adds to the counter.
+   *
+   * @param amount The amount to add
+   */
+  public void add(long amount) {
+    sum.add(amount);
+  }
+
+  /**
+   * Adds one to the counter.
+   */
+  public void increment() {
+    sum.increment();
+  }
+
+  /**
+   * Returns the current sum.
+   *
+   * @return The value
+   */
+  public long get() {
+    return sum.sum();
+  }
+}
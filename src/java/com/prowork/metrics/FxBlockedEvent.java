@@ -0,0 +1,26 @@
+package com.prowork.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for a time the JavaFX application thread was too
+ * busy to run a heartbeat of the FX block monitor.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@Name("com.prowork.FxBlocked")
+@Label("FX Thread Blocked")
+@Category("ProWork")
+@Description("The JavaFX application thread ran a heartbeat late")
+public class FxBlockedEvent extends Event {
+  @Label("Delay")
+  @Description("How late the heartbeat ran")
+  @Timespan(Timespan.NANOSECONDS)
+  public long delay;
+}
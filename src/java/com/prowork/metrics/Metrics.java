@@ -0,0 +1,94 @@
+package com.prowork.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process registry of the application's timers, counters and gauges.
+ *
+ * Metrics are created on first use and live until the application exits.
+ * Recording only adds to striped counters, so it is cheap enough for every
+ * bridge call and store operation. Names are dotted, e.g. "bridge.addTask"
+ * or "store.save.bytes"; the stats dialog shows them sorted by name.
+ *
+ * The same operations are also recorded as Java Flight Recorder events,
+ * see BridgeCallEvent, StoreEvent and FxBlockedEvent.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class Metrics {
+  private static final ConcurrentMap<String, Timer> timers = new ConcurrentSkipListMap<>();
+  private static final ConcurrentMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+  private static final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+  private Metrics() {
+  }
+
+  /**
+   * Returns the timer with the given name, creating it if needed.
+   *
+   * @param name The metric name
+   * @return The timer
+   */
+  public static Timer timer(String name) {
+    Timer timer = timers.get(name);
+    return timer != null ? timer : timers.computeIfAbsent(name, n -> new Timer());
+  }
+
+  /**
+   * Returns the counter with the given name, creating it if needed.
+   *
+   * @param name The metric name
+   * @return The counter
+   */
+  public static Counter counter(String name) {
+    Counter counter = counters.get(name);
+    return counter != null ? counter : counters.computeIfAbsent(name, n -> new Counter());
+  }
+
+  /**
+   * Registers a value that is read when the metrics are shown, e.g. a
+   * count another class already keeps. Replaces a gauge of the same name.
+   *
+   * @param name The metric name
+   * @param value Supplies the current value
+   */
+  public static void gauge(String name, LongSupplier value) {
+    gauges.put(name, value);
+  }
+
+  /**
+   * Returns all timers.
+   *
+   * @return The timers by name, sorted by name
+   */
+  public static Map<String, Timer> getTimers() {
+    return Collections.unmodifiableMap(timers);
+  }
+
+  /**
+   * Returns all counters.
+   *
+   * @return The counters by name, sorted by name
+   */
+  public static Map<String, Counter> getCounters() {
+    return Collections.unmodifiableMap(counters);
+  }
+
+  /**
+   * Reads the current values of all gauges.
+   *
+   * @return The values by name, sorted by name
+   */
+  public static SortedMap<String, Long> getGaugeValues() {
+    SortedMap<String, Long> values = new TreeMap<>();
+    gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+    return values;
+  }
+}
@@ -0,0 +1,42 @@
+package com.prowork.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for loading, saving or appending to a task store.
+ * Recorded through StoreOperation.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+@Name("com.prowork.Store")
+@Label("Task Store Operation")
+@Category("ProWork")
+@Description("Tasks loaded from or written to a task store")
+public class StoreEvent extends Event {
+  @Label("Store")
+  public String store;
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Tasks")
+  @Description("Tasks read or written")
+  public int tasks;
+
+  @Label("Skipped")
+  @Description("Malformed records skipped while loading")
+  public int skipped;
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+
+  @Label("Succeeded")
+  public boolean succeeded;
+}
@@ -0,0 +1,80 @@
+package com.prowork.metrics;
+
+/**
+ * Times one load, save or journal append of a task store and records it
+ * in the metrics registry and as a StoreEvent.
+ *
+ * The metrics are named after the operation: a timer "store.save" and
+ * counters "store.save.tasks", "store.save.bytes" and "store.save.failures";
+ * loads also count skipped records in "store.load.skipped".
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class StoreOperation {
+  private final StoreEvent event = new StoreEvent();
+  private final String store;
+  private final String operation;
+  private final long startNanos;
+
+  private StoreOperation(String store, String operation) {
+    this.store = store;
+    this.operation = operation;
+    this.startNanos = System.nanoTime();
+    event.begin();
+  }
+
+  /**
+   * Starts timing an operation.
+   *
+   * @param store The kind of store, e.g. "json"
+   * @param operation "load", "save" or "append"
+   * @return The running operation
+   */
+  public static StoreOperation begin(String store, String operation) {
+    return new StoreOperation(store, operation);
+  }
+
+  /**
+   * Records the operation as finished.
+   *
+   * @param tasks The number of tasks read or written
+   * @param skipped The number of malformed records skipped
+   * @param bytes The number of bytes read or written
+   */
+  public void succeeded(int tasks, int skipped, long bytes) {
+    record(true, tasks, skipped, bytes);
+  }
+
+  /**
+   * Records the operation as failed.
+   */
+  public void failed() {
+    record(false, 0, 0, 0);
+  }
+
+  private void record(boolean succeeded, int tasks, int skipped, long bytes) {
+    String prefix = "store." + operation;
+    Metrics.timer(prefix).recordSince(startNanos);
+    if (succeeded) {
+      Metrics.counter(prefix + ".tasks").add(tasks);
+      Metrics.counter(prefix + ".bytes").add(bytes);
+      if (skipped > 0 || "load".equals(operation)) {
+        Metrics.counter(prefix + ".skipped").add(skipped);
+      }
+    } else {
+      Metrics.counter(prefix + ".failures").increment();
+    }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.store = store;
+      event.operation = operation;
+      event.tasks = tasks;
+      event.skipped = skipped;
+      event.bytes = bytes;
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.prowork.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often an operation ran and how long it took in total and at most.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class Timer {
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  Timer() {
+  }
+
+  /**
+   * Records one run of the operation.
+   *
+   * @param nanos The duration in nanoseconds
+   */
+  public void record(long nanos) {
+    count.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  /**
+   * Records one run that started at the given time and ends now.
+   *
+   * @param startNanos The System.nanoTime() when the operation started
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Returns the number of recorded runs.
+   *
+   * @return The count
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the total time of all runs.
+   *
+   * @param unit The unit of the result
+   * @return The total time
+   */
+  public double getTotal(TimeUnit unit) {
+    return (double) totalNanos.sum() / unit.toNanos(1);
+  }
+
+  /**
+   * Returns the average time of a run.
+   *
+   * @param unit The unit of the result
+   * @return The average time, or 0 if nothing was recorded
+   */
+  public double getMean(TimeUnit unit) {
+    long runs = count.sum();
+    return runs == 0 ? 0 : getTotal(unit) / runs;
+  }
+
+  /**
+   * Returns the time of the longest run.
+   *
+   * @param unit The unit of the result
+   * @return The longest time
+   */
+  public double getMax(TimeUnit unit) {
+    return (double) maxNanos.get() / unit.toNanos(1);
+  }
+}
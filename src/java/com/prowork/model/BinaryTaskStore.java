@@ -0,0 +1,394 @@
+package com.prowork.model;
+
+import com.prowork.metrics.StoreOperation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores tasks in a compact binary file that is read in a single pass.
+ *
+ * The file (.prowork/tasks.bin) starts with a header, followed by one
+ * fixed-width record per task and a string area. Loading reads the file
+ * into one buffer with positional channel reads and decodes the records
+ * directly, so no text has to be parsed; only names and
+ * notes are decoded from UTF-8. All numbers are big-endian.
+ *
+ * Header (32 bytes): magic "PWTS", format version, record size, task count,
+ * reserved, offset and length of the string area.
+ *
+ * Record (52 bytes): 128-bit ID, deadline as epoch day, completion time as
+ * epoch second and nanoseconds (UTC), type, priority and repetition as
+ * enum ordinals, flags, and offset and length of the name and the notes in
+ * the string area. An ID that is not a UUID is stored in the string area.
+ *
+ * Enum ordinals are part of the format: reordering an enum requires a new
+ * format version. The store has no journal, so every save rewrites the file;
+ * TaskStoreConverter converts between this format and JSON.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class BinaryTaskStore implements TaskStore {
+  static final String TASKS_FILE = "tasks.bin";
+  static final int MAGIC = 0x50575453;
+  static final short FORMAT_VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int RECORD_SIZE = 52;
+
+  private static final String STORE_NAME = "binary";
+  private static final int NO_DATE = Integer.MIN_VALUE;
+  private static final long NO_TIME = Long.MIN_VALUE;
+  private static final byte NO_VALUE = -1;
+  private static final int NO_STRING = -1;
+  private static final byte COMPLETED = 1;
+  private static final byte TEXT_ID = 2;
+
+  private static final TaskType[] TYPES = TaskType.values();
+  private static final Priority[] PRIORITIES = Priority.values();
+  private static final RepetitionPattern[] REPETITIONS = RepetitionPattern.values();
+
+  private final Path tasksFilePath;
+
+  /**
+   * Constructs a binary store in the default directory: USER_HOME/.prowork/tasks.bin
+   */
+  public BinaryTaskStore() {
+    this(TaskStore.defaultDirectory());
+  }
+
+  /**
+   * Constructs a binary store that keeps its file in the given directory.
+   * The directory is created if it does not exist.
+   *
+   * @param appDir The directory for the tasks file
+   */
+  public BinaryTaskStore(Path appDir) {
+    TaskPersistence.createDirectory(appDir);
+    this.tasksFilePath = appDir.resolve(TASKS_FILE);
+    System.out.println("Tasks will be stored at: " + tasksFilePath);
+  }
+
+  /**
+   * Loads all tasks by reading the whole file into a heap buffer.
+   * The file is not memory-mapped: a mapping stays open until it is garbage
+   * collected, and on Windows an open mapping makes the replacing move in
+   * saveTasks fail.
+   *
+   * @return The loaded tasks, or an empty list if the file does not exist or is invalid
+   */
+  @Override
+  public List<Task> loadTasks() {
+    StoreOperation operation = StoreOperation.begin(STORE_NAME, "load");
+    if (!Files.exists(tasksFilePath)) {
+      System.out.println("No tasks file found, starting with empty task list");
+      operation.succeeded(0, 0, 0);
+      return new ArrayList<>();
+    }
+
+    try (FileChannel channel = FileChannel.open(tasksFilePath, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE) {
+        throw new IOException("file is too short");
+      }
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("file is too large");
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      if (readFully(channel, buffer, 0) < size) {
+        throw new IOException("file is truncated");
+      }
+      List<Task> tasks = readTasks(buffer, size);
+      System.out.println("Successfully loaded " + tasks.size() + " tasks from file");
+      operation.succeeded(tasks.size(), 0, size);
+      return tasks;
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Error loading tasks from " + tasksFilePath + ": " + e.getMessage());
+      operation.failed();
+      return new ArrayList<>();
+    }
+  }
+
+  /**
+   * Writes all tasks to a new file, which then replaces the old one.
+   *
+   * @param tasks The tasks to save
+   * @return true if save was successful, false otherwise
+   */
+  @Override
+  public boolean saveTasks(List<Task> tasks) {
+    StoreOperation operation = StoreOperation.begin(STORE_NAME, "save");
+    try {
+      ByteArrayOutputStream strings = new ByteArrayOutputStream(tasks.size() * 32);
+      ByteBuffer records = ByteBuffer.allocate(tasks.size() * RECORD_SIZE);
+      for (Task task : tasks) {
+        writeRecord(records, task, strings);
+      }
+      records.flip();
+
+      long size;
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC)
+          .putShort(FORMAT_VERSION)
+          .putShort((short) RECORD_SIZE)
+          .putInt(tasks.size())
+          .putInt(0)
+          .putLong(HEADER_SIZE + (long) tasks.size() * RECORD_SIZE)
+          .putLong(strings.size());
+      header.flip();
+
+      Path tempFile = tasksFilePath.resolveSibling(TASKS_FILE + ".tmp");
+      try (FileChannel channel = FileChannel.open(tempFile,
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer[] parts = { header, records, ByteBuffer.wrap(strings.toByteArray()) };
+        size = HEADER_SIZE + records.remaining() + parts[2].remaining();
+        long remaining = size;
+        while (remaining > 0) {
+          remaining -= channel.write(parts);
+        }
+      }
+      try {
+        Files.move(tempFile, tasksFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, tasksFilePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+      System.out.println("Successfully saved " + tasks.size() + " tasks to file");
+      operation.succeeded(tasks.size(), 0, size);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Error saving tasks: " + e.getMessage());
+      operation.failed();
+      return false;
+    }
+  }
+
+  /**
+   * Returns the path where tasks are stored.
+   *
+   * @return Path to the tasks file
+   */
+  @Override
+  public Path getTasksFilePath() {
+    return tasksFilePath;
+  }
+
+  /**
+   * Reads into a buffer from a position until it is full or the file ends.
+   *
+   * @return The number of bytes read
+   */
+  private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    int total = 0;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  /**
+   * Reads the header and all records of a file.
+   *
+   * @param buffer The file contents
+   * @param size The size of the file
+   * @return The tasks
+   * @throws IOException if the header does not describe a valid file
+   */
+  private List<Task> readTasks(ByteBuffer buffer, long size) throws IOException {
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("not a ProWork task file");
+    }
+    short version = buffer.getShort(4);
+    if (version != FORMAT_VERSION) {
+      throw new IOException("unsupported format version " + version);
+    }
+    if (buffer.getShort(6) != RECORD_SIZE) {
+      throw new IOException("unexpected record size " + buffer.getShort(6));
+    }
+    int count = buffer.getInt(8);
+    long stringOffset = buffer.getLong(16);
+    long stringLength = buffer.getLong(24);
+    if (count < 0 || stringOffset != HEADER_SIZE + (long) count * RECORD_SIZE
+        || stringLength < 0 || stringOffset + stringLength > size) {
+      throw new IOException("file is truncated or corrupt");
+    }
+
+    ByteBuffer strings = buffer.duplicate();
+    strings.position((int) stringOffset);
+    strings = strings.slice();
+    strings.limit((int) stringLength);
+
+    List<Task> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      tasks.add(readRecord(buffer, HEADER_SIZE + i * RECORD_SIZE, strings));
+    }
+    return tasks;
+  }
+
+  /**
+   * Reads one task record.
+   *
+   * @param buffer The file contents
+   * @param base The offset of the record
+   * @param strings The string area
+   * @return The task
+   */
+  private Task readRecord(ByteBuffer buffer, int base, ByteBuffer strings) {
+    byte flags = buffer.get(base + 35);
+    long high = buffer.getLong(base);
+    long low = buffer.getLong(base + 8);
+    String id = (flags & TEXT_ID) != 0
+        ? readString(strings, (int) (high >>> 32), (int) high)
+        : new UUID(high, low).toString();
+
+    int epochDay = buffer.getInt(base + 16);
+    Task task = new Task(
+        id,
+        readString(strings, buffer.getInt(base + 36), buffer.getInt(base + 40)),
+        epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null,
+        enumAt(TYPES, buffer.get(base + 32)),
+        enumAt(PRIORITIES, buffer.get(base + 33)),
+        enumAt(REPETITIONS, buffer.get(base + 34)));
+
+    String notes = readString(strings, buffer.getInt(base + 44), buffer.getInt(base + 48));
+    if (notes != null) {
+      task.setNotes(notes);
+    }
+    if ((flags & COMPLETED) != 0) {
+      task.setCompleted(true);
+    }
+    long completedSecond = buffer.getLong(base + 20);
+    task.setCompletedAt(completedSecond != NO_TIME
+        ? LocalDateTime.ofEpochSecond(completedSecond, buffer.getInt(base + 28), ZoneOffset.UTC)
+        : null);
+    return task;
+  }
+
+  /**
+   * Writes one task record and appends its strings to the string area.
+   *
+   * @param records The buffer for the records
+   * @param task The task to write
+   * @param strings The string area
+   */
+  private void writeRecord(ByteBuffer records, Task task, ByteArrayOutputStream strings) {
+    int base = records.position();
+    byte flags = task.isCompleted() ? COMPLETED : 0;
+
+    UUID uuid = parseUuid(task.getId());
+    if (uuid != null) {
+      records.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    } else {
+      flags |= TEXT_ID;
+      long ref = writeString(strings, task.getId());
+      records.putLong(ref).putLong(0);
+    }
+
+    records.putInt(task.getDeadline() != null ? (int) task.getDeadline().toEpochDay() : NO_DATE);
+    LocalDateTime completedAt = task.getCompletedAt();
+    records.putLong(completedAt != null ? completedAt.toEpochSecond(ZoneOffset.UTC) : NO_TIME);
+    records.putInt(completedAt != null ? completedAt.getNano() : 0);
+    records.put(ordinal(task.getType()))
+        .put(ordinal(task.getPriority()))
+        .put(ordinal(task.getRepetition()))
+        .put(flags);
+    records.putLong(writeString(strings, task.getName()));
+    records.putLong(writeString(strings, task.getNotes()));
+    records.position(base + RECORD_SIZE);
+  }
+
+  /**
+   * Appends a string to the string area.
+   *
+   * @param strings The string area
+   * @param value The string, may be null
+   * @return Offset in the upper and length in the lower 32 bits
+   */
+  private static long writeString(ByteArrayOutputStream strings, String value) {
+    if (value == null) {
+      return NO_STRING & 0xFFFFFFFFL;
+    }
+    int offset = strings.size();
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    strings.write(bytes, 0, bytes.length);
+    return ((long) offset << 32) | bytes.length;
+  }
+
+  /**
+   * Reads a string from the string area.
+   *
+   * @param strings The string area
+   * @param offset The offset of the string
+   * @param length The length in bytes, or NO_STRING for null
+   * @return The string
+   */
+  private static String readString(ByteBuffer strings, int offset, int length) {
+    if (length == NO_STRING) {
+      return null;
+    }
+    if (length == 0) {
+      return "";
+    }
+    byte[] bytes = new byte[length];
+    ByteBuffer view = strings.duplicate();
+    view.position(offset);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Parses an ID that can be stored in 128 bits without losing its text.
+   *
+   * @param id The task ID
+   * @return The UUID, or null if the ID must be stored as text
+   */
+  static UUID parseUuid(String id) {
+    if (id == null || id.length() != 36) {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(id);
+      return uuid.toString().equals(id) ? uuid : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the ordinal stored for an enum value.
+   *
+   * @param value The value, may be null
+   * @return The ordinal, or NO_VALUE for null
+   */
+  private static byte ordinal(Enum<?> value) {
+    return value != null ? (byte) value.ordinal() : NO_VALUE;
+  }
+
+  /**
+   * Returns the enum value for a stored ordinal.
+   *
+   * @param values All values of the enum
+   * @param ordinal The stored ordinal
+   * @return The value, or null for NO_VALUE or an unknown ordinal
+   */
+  private static <E> E enumAt(E[] values, byte ordinal) {
+    return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+  }
+}
@@ -0,0 +1,133 @@
+package com.prowork.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded log of task changes, numbered by a monotonically increasing version.
+ *
+ * Every recorded change increments the version. Views remember the version
+ * they have seen and ask for the changes since then. Only the most recent
+ * changes are kept; a view that fell further behind, or whose version is
+ * from before a reset, has to resynchronize completely.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class ChangeLog {
+
+  /**
+   * Kind of change made to a task.
+   */
+  enum Kind {
+    ADDED,
+    UPDATED,
+    DELETED
+  }
+
+  private final Deque<Entry> entries = new ArrayDeque<>();
+  private final int capacity;
+  private long version;
+  /** Oldest version from which the remaining entries are complete. */
+  private long oldestVersion;
+
+  /**
+   * Creates a change log keeping at most the given number of changes.
+   *
+   * @param capacity Maximum number of changes to keep
+   */
+  ChangeLog(int capacity) {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  /**
+   * Records a change and returns the new version.
+   *
+   * @param id The ID of the changed task
+   * @param kind The kind of change
+   * @return The version after the change
+   */
+  long record(String id, Kind kind) {
+    version++;
+    entries.addLast(new Entry(version, id, kind));
+    if (entries.size() > capacity) {
+      oldestVersion = entries.removeFirst().version;
+    }
+    return version;
+  }
+
+  /**
+   * Forgets all changes, forcing every view to resynchronize completely.
+   * Used when the tasks were replaced as a whole.
+   *
+   * @return The version after the reset
+   */
+  long reset() {
+    version++;
+    entries.clear();
+    oldestVersion = version;
+    return version;
+  }
+
+  /**
+   * Returns the current version.
+   *
+   * @return The version of the last change
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the net change per task since the given version, in the order
+   * the tasks were first changed. A task added and deleted again within
+   * the window is left out.
+   *
+   * @param since The version the caller has seen
+   * @return The changes per task ID, or null if the caller must resynchronize
+   */
+  Map<String, Kind> changesSince(long since) {
+    if (since < oldestVersion || since > version) {
+      return null;
+    }
+
+    Map<String, Kind> first = new LinkedHashMap<>();
+    Map<String, Kind> last = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      if (entry.version > since) {
+        first.putIfAbsent(entry.id, entry.kind);
+        last.put(entry.id, entry.kind);
+      }
+    }
+
+    Map<String, Kind> changes = new LinkedHashMap<>();
+    for (Map.Entry<String, Kind> change : first.entrySet()) {
+      boolean wasAdded = change.getValue() == Kind.ADDED;
+      if (last.get(change.getKey()) == Kind.DELETED) {
+        if (!wasAdded) {
+          changes.put(change.getKey(), Kind.DELETED);
+        }
+      } else {
+        changes.put(change.getKey(), wasAdded ? Kind.ADDED : Kind.UPDATED);
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * One recorded change.
+   */
+  private static final class Entry {
+    private final long version;
+    private final String id;
+    private final Kind kind;
+
+    Entry(long version, String id, Kind kind) {
+      this.version = version;
+      this.id = id;
+      this.kind = kind;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.prowork.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of tasks ordered by deadline.
+ *
+ * Tasks are kept in one bucket per date inside a sorted map, so all tasks
+ * of a date range are found in O(log n + result) instead of scanning every
+ * task. Within a day the tasks keep the order in which they were indexed.
+ * Tasks without a deadline are not indexed.
+ *
+ * Like the SearchIndex, the index is updated by its TaskManager under the
+ * manager's lock but has its own lock, so queries do not wait for the
+ * manager and never need a copy of the index. A task replaced by its
+ * modified copy is swapped in one step, so a query sees either of them
+ * but never both.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class DeadlineIndex {
+  private final NavigableMap<LocalDate, Set<Task>> buckets = new TreeMap<>();
+
+  /**
+   * Adds a task under its current deadline.
+   *
+   * @param task The task to add
+   */
+  synchronized void add(Task task) {
+    if (task.getDeadline() != null) {
+      buckets.computeIfAbsent(task.getDeadline(), date -> new LinkedHashSet<>()).add(task);
+    }
+  }
+
+  /**
+   * Removes a task from the bucket of the given deadline.
+   *
+   * @param task The task to remove
+   * @param deadline The deadline the task was indexed under
+   */
+  synchronized void remove(Task task, LocalDate deadline) {
+    if (deadline == null) {
+      return;
+    }
+    Set<Task> bucket = buckets.get(deadline);
+    if (bucket != null && bucket.remove(task) && bucket.isEmpty()) {
+      buckets.remove(deadline);
+    }
+  }
+
+  /**
+   * Moves a task whose deadline changed to the bucket of its new deadline.
+   *
+   * @param task The task, already holding its new deadline
+   * @param oldDeadline The deadline the task was indexed under
+   */
+  synchronized void move(Task task, LocalDate oldDeadline) {
+    remove(task, oldDeadline);
+    add(task);
+  }
+
+  /**
+   * Removes all tasks from the index.
+   */
+  synchronized void clear() {
+    buckets.clear();
+  }
+
+  /**
+   * Replaces a task by its modified copy in one step. The copy is indexed
+   * under its own deadline.
+   *
+   * @param original The indexed task, still holding the deadline it is indexed under
+   * @param copy The task replacing it
+   */
+  synchronized void replace(Task original, Task copy) {
+    remove(original, original.getDeadline());
+    add(copy);
+  }
+
+  /**
+   * Returns the tasks due on a single date.
+   *
+   * @param date The date
+   * @return The tasks due on that date
+   */
+  synchronized List<Task> tasksOn(LocalDate date) {
+    Set<Task> bucket = buckets.get(date);
+    return bucket != null ? new ArrayList<>(bucket) : new ArrayList<>();
+  }
+
+  /**
+   * Returns the tasks due within a date range, ordered by deadline.
+   *
+   * @param from The first date of the range (inclusive)
+   * @param to The last date of the range (inclusive)
+   * @return The tasks due in the range
+   */
+  synchronized List<Task> tasksInRange(LocalDate from, LocalDate to) {
+    List<Task> result = new ArrayList<>();
+    if (from.isAfter(to)) {
+      return result;
+    }
+    for (Set<Task> bucket : buckets.subMap(from, true, to, true).values()) {
+      result.addAll(bucket);
+    }
+    return result;
+  }
+
+  /**
+   * Counts the tasks per day within a date range. Days without tasks
+   * are left out.
+   *
+   * @param from The first date of the range (inclusive)
+   * @param to The last date of the range (inclusive)
+   * @return Number of tasks per day, ordered by date
+   */
+  synchronized NavigableMap<LocalDate, Integer> countPerDay(LocalDate from, LocalDate to) {
+    NavigableMap<LocalDate, Integer> counts = new TreeMap<>();
+    if (from.isAfter(to)) {
+      return counts;
+    }
+    for (Map.Entry<LocalDate, Set<Task>> entry : buckets.subMap(from, true, to, true).entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().size());
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,449 @@
+package com.prowork.model;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader that turns the to-dos and events of an iCalendar (.ics)
+ * file into tasks.
+ *
+ * The file is read line by line and only the properties of the current
+ * component are kept, so memory use does not grow with the file. VTODO and
+ * VEVENT components become tasks:
+ * - SUMMARY is the name and DESCRIPTION the notes
+ * - DUE, or DTSTART if there is no DUE, is the deadline
+ * - RRULE with FREQ=DAILY, WEEKLY, MONTHLY or YEARLY and no INTERVAL other
+ *   than 1 is the repetition; other rules are imported without repetition
+ * - the first CATEGORIES value naming a task type is the type; events
+ *   default to MEETING and to-dos to WORK
+ * - PRIORITY 1-4 is high, 5 or none medium and 6-9 low
+ * - STATUS:COMPLETED or a COMPLETED time marks the task completed
+ * - UID is the task ID
+ *
+ * Components without a summary or a date, and changed instances of a
+ * series (RECURRENCE-ID), are skipped and counted. The first problems are
+ * kept with their line numbers.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class IcsReader implements Closeable {
+  private static final int MAX_PROBLEMS = 100;
+
+  private final BufferedReader reader;
+  private final List<String> problems = new ArrayList<>();
+  private int skippedCount;
+  private int lineNumber;
+  private int currentLine;
+  private String pendingLine;
+  private int pendingLineNumber;
+
+  // Properties of the component being read
+  private String component;
+  private int componentLine;
+  private int nestedDepth;
+  private String uid;
+  private String summary;
+  private String description;
+  private LocalDate due;
+  private LocalDate start;
+  private RepetitionPattern repetition;
+  private TaskType type;
+  private Priority priority;
+  private boolean completed;
+  private LocalDateTime completedAt;
+  private boolean recurrenceInstance;
+
+  /**
+   * Constructs a reader on top of the given character stream.
+   *
+   * @param reader The source of the iCalendar text
+   */
+  public IcsReader(Reader reader) {
+    this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+  }
+
+  /**
+   * Reads all to-dos and events and passes each as a task to the consumer,
+   * in the order of the file.
+   *
+   * @param consumer Receives each task
+   * @throws IOException if the underlying stream cannot be read
+   */
+  public void readTasks(Consumer<Task> consumer) throws IOException {
+    String line;
+    while ((line = nextUnfoldedLine()) != null) {
+      int colon = valueStart(line);
+      if (colon < 0) {
+        if (!line.isEmpty()) {
+          report(currentLine, "line without ':'");
+        }
+        continue;
+      }
+      int nameEnd = line.indexOf(';');
+      if (nameEnd < 0 || nameEnd > colon) {
+        nameEnd = colon;
+      }
+      String name = line.substring(0, nameEnd).toUpperCase();
+      String value = line.substring(colon + 1);
+
+      if (name.equals("BEGIN")) {
+        String kind = value.trim().toUpperCase();
+        if (component != null) {
+          nestedDepth++;
+        } else if (kind.equals("VTODO") || kind.equals("VEVENT")) {
+          beginComponent(kind);
+        }
+      } else if (name.equals("END")) {
+        if (component != null) {
+          if (nestedDepth > 0) {
+            nestedDepth--;
+          } else {
+            Task task = endComponent();
+            if (task != null) {
+              consumer.accept(task);
+            }
+          }
+        }
+      } else if (component != null && nestedDepth == 0) {
+        readProperty(name, value);
+      }
+    }
+    if (component != null) {
+      skip(componentLine, component + " is not closed");
+      component = null;
+    }
+  }
+
+  /**
+   * Gets the first problems found while reading, each with its line.
+   *
+   * @return Up to 100 problem descriptions
+   */
+  public List<String> getProblems() {
+    return Collections.unmodifiableList(problems);
+  }
+
+  /**
+   * Gets the number of components that could not be imported.
+   *
+   * @return The skipped component count
+   */
+  public int getSkippedCount() {
+    return skippedCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Reads the next content line, joining the continuation lines that
+   * start with a space or tab.
+   *
+   * @return The unfolded line, or null at the end of the input
+   * @throws IOException if the underlying stream cannot be read
+   */
+  private String nextUnfoldedLine() throws IOException {
+    String line;
+    if (pendingLine != null) {
+      line = pendingLine;
+      currentLine = pendingLineNumber;
+      pendingLine = null;
+    } else {
+      line = nextRawLine();
+      currentLine = lineNumber;
+    }
+    if (line == null) {
+      return null;
+    }
+    String next = nextRawLine();
+    if (!isContinuation(next)) {
+      pendingLine = next;
+      pendingLineNumber = lineNumber;
+      return line;
+    }
+    StringBuilder unfolded = new StringBuilder(line);
+    while (isContinuation(next)) {
+      unfolded.append(next, 1, next.length());
+      next = nextRawLine();
+    }
+    pendingLine = next;
+    pendingLineNumber = lineNumber;
+    return unfolded.toString();
+  }
+
+  private static boolean isContinuation(String line) {
+    return line != null && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t');
+  }
+
+  private String nextRawLine() throws IOException {
+    String line = reader.readLine();
+    if (line != null) {
+      lineNumber++;
+    }
+    return line;
+  }
+
+  /**
+   * Finds the colon that separates the value, skipping colons inside
+   * quoted parameter values.
+   *
+   * @return The position of the colon, or -1
+   */
+  private static int valueStart(String line) {
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ':' && !quoted) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void beginComponent(String kind) {
+    component = kind;
+    componentLine = currentLine;
+    nestedDepth = 0;
+    uid = null;
+    summary = null;
+    description = null;
+    due = null;
+    start = null;
+    repetition = RepetitionPattern.NONE;
+    type = null;
+    priority = Priority.MEDIUM;
+    completed = false;
+    completedAt = null;
+    recurrenceInstance = false;
+  }
+
+  private void readProperty(String name, String value) {
+    switch (name) {
+      case "UID":
+        uid = value.trim();
+        break;
+      case "SUMMARY":
+        summary = unescape(value).trim();
+        break;
+      case "DESCRIPTION":
+        description = unescape(value);
+        break;
+      case "DUE":
+        due = parseDate(value);
+        break;
+      case "DTSTART":
+        start = parseDate(value);
+        break;
+      case "RRULE":
+        repetition = parseRule(value);
+        break;
+      case "CATEGORIES":
+        if (type == null) {
+          type = parseCategories(value);
+        }
+        break;
+      case "PRIORITY":
+        priority = parsePriority(value);
+        break;
+      case "STATUS":
+        completed |= value.trim().equalsIgnoreCase("COMPLETED");
+        break;
+      case "COMPLETED":
+        completed = true;
+        completedAt = parseDateTime(value);
+        break;
+      case "RECURRENCE-ID":
+        recurrenceInstance = true;
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Builds the task of the component that just ended.
+   *
+   * @return The task, or null if the component was skipped
+   */
+  private Task endComponent() {
+    String kind = component;
+    component = null;
+    if (recurrenceInstance) {
+      skip(componentLine, "changed instance of a series is not imported");
+      return null;
+    }
+    if (summary == null || summary.isEmpty()) {
+      skip(componentLine, kind + " has no summary");
+      return null;
+    }
+    LocalDate deadline = due != null ? due : start;
+    if (deadline == null) {
+      skip(componentLine, kind + " has no date");
+      return null;
+    }
+    if (type == null) {
+      type = kind.equals("VEVENT") ? TaskType.MEETING : TaskType.WORK;
+    }
+
+    Task task = uid != null && !uid.isEmpty()
+        ? new Task(uid, summary, deadline, type, priority, repetition)
+        : new Task(summary, deadline, type, priority, repetition);
+    if (description != null && !description.isEmpty()) {
+      task.setNotes(description);
+    }
+    if (completed) {
+      task.setCompleted(true);
+      if (completedAt != null) {
+        task.setCompletedAt(completedAt);
+      }
+    }
+    return task;
+  }
+
+  /**
+   * Parses a DATE or DATE-TIME value. Times in UTC are converted to the
+   * local date; all other times keep the date as written.
+   */
+  private LocalDate parseDate(String value) {
+    LocalDateTime dateTime = parseDateTime(value);
+    return dateTime != null ? dateTime.toLocalDate() : null;
+  }
+
+  private LocalDateTime parseDateTime(String value) {
+    String text = value.trim();
+    try {
+      if (text.length() < 8) {
+        throw new NumberFormatException();
+      }
+      LocalDate date = LocalDate.of(
+          Integer.parseInt(text.substring(0, 4)),
+          Integer.parseInt(text.substring(4, 6)),
+          Integer.parseInt(text.substring(6, 8)));
+      if (text.length() < 15 || text.charAt(8) != 'T') {
+        return date.atStartOfDay();
+      }
+      LocalDateTime dateTime = date.atTime(LocalTime.of(
+          Integer.parseInt(text.substring(9, 11)),
+          Integer.parseInt(text.substring(11, 13)),
+          Integer.parseInt(text.substring(13, 15))));
+      if (text.endsWith("Z")) {
+        return dateTime.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+      }
+      return dateTime;
+    } catch (RuntimeException e) {
+      report(currentLine, "invalid date '" + text + "'");
+      return null;
+    }
+  }
+
+  private RepetitionPattern parseRule(String value) {
+    RepetitionPattern pattern = RepetitionPattern.NONE;
+    for (String part : value.split(";")) {
+      int equals = part.indexOf('=');
+      if (equals < 0) {
+        continue;
+      }
+      String key = part.substring(0, equals).trim().toUpperCase();
+      String partValue = part.substring(equals + 1).trim().toUpperCase();
+      if (key.equals("INTERVAL") && !partValue.equals("1")) {
+        report(currentLine, "repetition every " + partValue + " periods is imported without repetition");
+        return RepetitionPattern.NONE;
+      }
+      if (key.equals("FREQ")) {
+        switch (partValue) {
+          case "DAILY": pattern = RepetitionPattern.DAILY; break;
+          case "WEEKLY": pattern = RepetitionPattern.WEEKLY; break;
+          case "MONTHLY": pattern = RepetitionPattern.MONTHLY; break;
+          case "YEARLY": pattern = RepetitionPattern.YEARLY; break;
+          default:
+            report(currentLine, "repetition " + partValue + " is imported without repetition");
+            return RepetitionPattern.NONE;
+        }
+      }
+    }
+    return pattern;
+  }
+
+  /**
+   * Finds the first category naming a task type, by its name, its display
+   * name or the label used in the task list.
+   */
+  private static TaskType parseCategories(String value) {
+    for (String category : unescape(value).split(",")) {
+      String name = category.trim();
+      for (TaskType candidate : TaskType.values()) {
+        if (name.equalsIgnoreCase(candidate.name()) || name.equalsIgnoreCase(candidate.getDisplayName())) {
+          return candidate;
+        }
+      }
+      switch (name.toLowerCase()) {
+        case "tests": case "prüfung": case "klausur": case "exam": return TaskType.TEST;
+        case "hausaufgaben": case "hausaufgabe": return TaskType.HOMEWORK;
+        case "meetings": case "besprechung": case "termin": return TaskType.MEETING;
+        case "arbeit": return TaskType.WORK;
+        default: break;
+      }
+    }
+    return null;
+  }
+
+  private Priority parsePriority(String value) {
+    try {
+      int level = Integer.parseInt(value.trim());
+      if (level >= 1 && level <= 4) {
+        return Priority.HIGH;
+      }
+      return level >= 6 && level <= 9 ? Priority.LOW : Priority.MEDIUM;
+    } catch (NumberFormatException e) {
+      report(currentLine, "invalid priority '" + value.trim() + "'");
+      return Priority.MEDIUM;
+    }
+  }
+
+  /**
+   * Resolves the escapes of a TEXT value.
+   */
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder text = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char next = value.charAt(++i);
+        text.append(next == 'n' || next == 'N' ? '\n' : next);
+      } else {
+        text.append(c);
+      }
+    }
+    return text.toString();
+  }
+
+  private void skip(int line, String message) {
+    skippedCount++;
+    report(line, message);
+  }
+
+  private void report(int line, String message) {
+    if (problems.size() < MAX_PROBLEMS) {
+      problems.add("line " + line + ": " + message);
+    }
+  }
+}
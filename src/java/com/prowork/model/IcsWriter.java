@@ -0,0 +1,164 @@
+package com.prowork.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streaming writer that serializes tasks as the to-dos of an iCalendar
+ * (.ics) file, the counterpart of IcsReader.
+ *
+ * Each task is written as one VTODO as soon as it is passed in, so the
+ * calendar is never built in memory. The deadline becomes DUE, the
+ * repetition an RRULE, the type CATEGORIES and the priority PRIORITY
+ * (1, 5 or 9). Long lines are folded after 75 bytes as the format requires.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class IcsWriter {
+  private static final int MAX_LINE_BYTES = 75;
+  private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+  private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+  private final Writer out;
+  private final String timestamp;
+  private final StringBuilder line = new StringBuilder();
+
+  /**
+   * Constructs a writer for the given sink.
+   *
+   * @param out The sink to write to; should be buffered
+   */
+  public IcsWriter(Writer out) {
+    this.out = out;
+    this.timestamp = DATE_TIME.format(LocalDateTime.now(ZoneOffset.UTC));
+  }
+
+  /**
+   * Writes the start of the calendar. Call once before the first task.
+   *
+   * @throws IOException if the sink cannot be written
+   */
+  public void beginCalendar() throws IOException {
+    writeLine("BEGIN:VCALENDAR");
+    writeLine("VERSION:2.0");
+    writeLine("PRODID:-//ProWork//ProWork 1.0//DE");
+  }
+
+  /**
+   * Writes one task as a VTODO.
+   *
+   * @param task The task to write
+   * @throws IOException if the sink cannot be written
+   */
+  public void writeTask(Task task) throws IOException {
+    writeLine("BEGIN:VTODO");
+    writeProperty("UID", task.getId());
+    writeLine("DTSTAMP:" + timestamp);
+    writeProperty("SUMMARY", task.getName());
+    LocalDate deadline = task.getDeadline();
+    if (deadline != null) {
+      writeLine("DUE;VALUE=DATE:" + DATE.format(deadline));
+    }
+    if (task.getRepetition() != null && task.getRepetition() != RepetitionPattern.NONE) {
+      if (deadline != null) {
+        writeLine("DTSTART;VALUE=DATE:" + DATE.format(deadline));
+      }
+      writeLine("RRULE:FREQ=" + task.getRepetition().name());
+    }
+    if (task.getType() != null) {
+      writeLine("CATEGORIES:" + task.getType().name());
+    }
+    if (task.getPriority() != null) {
+      writeLine("PRIORITY:" + priorityLevel(task.getPriority()));
+    }
+    if (task.getNotes() != null && !task.getNotes().isEmpty()) {
+      writeProperty("DESCRIPTION", task.getNotes());
+    }
+    if (task.isCompleted()) {
+      writeLine("STATUS:COMPLETED");
+      if (task.getCompletedAt() != null) {
+        writeLine("COMPLETED:" + DATE_TIME.format(
+            task.getCompletedAt().atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC)));
+      }
+    } else {
+      writeLine("STATUS:NEEDS-ACTION");
+    }
+    writeLine("END:VTODO");
+  }
+
+  /**
+   * Writes the end of the calendar. Call once after the last task.
+   *
+   * @throws IOException if the sink cannot be written
+   */
+  public void endCalendar() throws IOException {
+    writeLine("END:VCALENDAR");
+  }
+
+  private static int priorityLevel(Priority priority) {
+    switch (priority) {
+      case HIGH: return 1;
+      case LOW: return 9;
+      default: return 5;
+    }
+  }
+
+  /**
+   * Writes a property with a TEXT value, escaping backslashes, separators
+   * and line breaks.
+   */
+  private void writeProperty(String name, String value) throws IOException {
+    line.setLength(0);
+    line.append(name).append(':');
+    if (value != null) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '\\': case ';': case ',':
+            line.append('\\').append(c);
+            break;
+          case '\n':
+            line.append("\\n");
+            break;
+          case '\r':
+            break;
+          default:
+            line.append(c);
+            break;
+        }
+      }
+    }
+    writeFolded(line);
+  }
+
+  private void writeLine(String text) throws IOException {
+    line.setLength(0);
+    line.append(text);
+    writeFolded(line);
+  }
+
+  /**
+   * Writes a content line, folding it into lines of at most 75 bytes in
+   * UTF-8. Continuation lines start with a space; characters are never split.
+   */
+  private void writeFolded(CharSequence text) throws IOException {
+    int bytes = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : Character.isLowSurrogate(c) ? 0 : 3;
+      if (bytes + size > MAX_LINE_BYTES) {
+        out.write("\r\n ");
+        bytes = 1;
+      }
+      out.write(c);
+      bytes += size;
+    }
+    out.write("\r\n");
+  }
+}
@@ -0,0 +1,46 @@
+package com.prowork.model;
+
+import java.time.LocalDate;
+
+/**
+ * A single date on which a task is due.
+ *
+ * One-off tasks have exactly one occurrence on their deadline. Repeating
+ * tasks have one occurrence per repetition, starting at their deadline.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class Occurrence {
+  private final Task task;
+  private final LocalDate date;
+
+  /**
+   * Constructs an occurrence of a task.
+   *
+   * @param task The task that is due
+   * @param date The date of this occurrence
+   */
+  public Occurrence(Task task, LocalDate date) {
+    this.task = task;
+    this.date = date;
+  }
+
+  /**
+   * Gets the task that is due.
+   *
+   * @return The task
+   */
+  public Task getTask() {
+    return task;
+  }
+
+  /**
+   * Gets the date of this occurrence.
+   *
+   * @return The date
+   */
+  public LocalDate getDate() {
+    return date;
+  }
+}
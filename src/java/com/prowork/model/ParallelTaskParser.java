@@ -0,0 +1,285 @@
+package com.prowork.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a large tasks file on several cores.
+ *
+ * The file is cut into chunks at record boundaries. TaskJsonWriter puts
+ * every task of a snapshot on its own line, so a boundary is a line break
+ * after a ',' that is followed by the '{' of the next task. Strings cannot
+ * contain raw line breaks, so such a break is never inside a value. Each
+ * chunk is parsed as its own array on a fork/join pool, reading its part
+ * of the file with positional reads, and the results are joined in file
+ * order. The file is not memory-mapped, since on Windows a mapped file
+ * cannot be replaced by the next save until the mapping is collected.
+ *
+ * The result is only used if every chunk parsed without a problem. A cut in
+ * the wrong place, e.g. in a hand-edited file with nested objects on their
+ * own lines, always leaves an incomplete object at the end of a chunk or
+ * text after its closing bracket. In that case, and when the file has no
+ * boundaries at all, parse returns null and the caller reads the file
+ * sequentially. That way the tasks and the reported problems always match
+ * the sequential parser.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+final class ParallelTaskParser {
+  /** Files smaller than this are parsed by one thread. */
+  static final long THRESHOLD_BYTES = Long.getLong("prowork.parallelLoadBytes", 8L * 1024 * 1024);
+  private static final long MIN_CHUNK_BYTES = 1024 * 1024;
+  /** Chunks per thread, so a slow chunk does not keep the other threads idle. */
+  private static final int CHUNKS_PER_THREAD = 4;
+  private static final int SCAN_WINDOW = 64 * 1024;
+  /** Bytes a scan window repeats from the previous one, so "},\r\n  {" is not cut. */
+  private static final int SCAN_OVERLAP = 64;
+  private static final byte[] ARRAY_START = {'['};
+  private static final byte[] ARRAY_END = {']'};
+
+  private ParallelTaskParser() {
+  }
+
+  /**
+   * Tells whether a file is large enough to be parsed in parallel.
+   *
+   * @param size The file size in bytes
+   * @return true if parse should be tried
+   */
+  static boolean isWorthwhile(long size) {
+    return THRESHOLD_BYTES > 0 && size >= THRESHOLD_BYTES
+        && ForkJoinPool.getCommonPoolParallelism() > 1;
+  }
+
+  /**
+   * Parses a tasks file written as a JSON array with one task per line.
+   *
+   * @param file The file to parse
+   * @return The tasks in file order, or null if the file must be parsed
+   *         sequentially
+   * @throws IOException if the file cannot be read
+   */
+  static List<Task> parse(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Chunk[] chunks = split(channel);
+      if (chunks.length < 2) {
+        return null;
+      }
+      try {
+        ForkJoinPool.commonPool().invoke(new ParseChunks(chunks, 0, chunks.length));
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+
+      int count = 0;
+      for (Chunk chunk : chunks) {
+        if (chunk.failed) {
+          return null;
+        }
+        count += chunk.tasks.size();
+      }
+      List<Task> tasks = new ArrayList<>(count);
+      for (Chunk chunk : chunks) {
+        tasks.addAll(chunk.tasks);
+      }
+      return tasks;
+    }
+  }
+
+  /**
+   * Cuts the file into chunks: one starts at 0 and another, roughly every
+   * chunk size bytes, at the first record that begins on its own line.
+   */
+  private static Chunk[] split(FileChannel channel) throws IOException {
+    long size = channel.size();
+    int chunkCount = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+    long chunkSize = Math.max(MIN_CHUNK_BYTES, size / chunkCount);
+
+    List<Chunk> chunks = new ArrayList<>();
+    long start = 0;
+    long[] boundary = new long[2];
+    while (start + chunkSize < size && findBoundary(channel, start + chunkSize, boundary)) {
+      chunks.add(new Chunk(channel, start, boundary[0], start > 0, true));
+      start = boundary[1];
+    }
+    chunks.add(new Chunk(channel, start, size, start > 0, false));
+    return chunks.toArray(new Chunk[0]);
+  }
+
+  /**
+   * Finds the first record at or after a position that begins on its own
+   * line, i.e. follows ",\n" and starts with optional spaces and '{'.
+   *
+   * @param boundary Receives the position of the ',' and of the line start
+   * @return false if there is no such record
+   */
+  private static boolean findBoundary(FileChannel channel, long from, long[] boundary) throws IOException {
+    ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+    long windowStart = from - 2;
+    while (true) {
+      window.clear();
+      int length = readFully(channel, window, windowStart);
+      for (int i = 2; i < length; i++) {
+        if (window.get(i) != '\n') {
+          continue;
+        }
+        int comma = window.get(i - 1) == '\r' ? i - 2 : i - 1;
+        if (comma < 0 || window.get(comma) != ',') {
+          continue;
+        }
+        int j = i + 1;
+        while (j < length && (window.get(j) == ' ' || window.get(j) == '\t')) {
+          j++;
+        }
+        if (j < length && window.get(j) == '{') {
+          boundary[0] = windowStart + comma;
+          boundary[1] = windowStart + i + 1;
+          return true;
+        }
+      }
+      if (length < SCAN_WINDOW) {
+        return false;
+      }
+      windowStart += SCAN_WINDOW - SCAN_OVERLAP;
+    }
+  }
+
+  /**
+   * Reads into a buffer from a position until it is full or the file ends.
+   *
+   * @return The number of bytes read
+   */
+  private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    int total = 0;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  /**
+   * One part of the file and the tasks parsed from it.
+   */
+  private static final class Chunk {
+    final FileChannel channel;
+    final long start;
+    final long end;
+    final boolean needsArrayStart;
+    final boolean needsArrayEnd;
+    List<Task> tasks;
+    boolean failed;
+
+    Chunk(FileChannel channel, long start, long end, boolean needsArrayStart, boolean needsArrayEnd) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+      this.needsArrayStart = needsArrayStart;
+      this.needsArrayEnd = needsArrayEnd;
+    }
+
+    /**
+     * Parses the chunk as a JSON array, adding the brackets that only the
+     * first and the last chunk contain.
+     */
+    void parse() throws IOException {
+      InputStream in = new RegionInputStream(channel, start, end);
+      if (needsArrayStart) {
+        in = new SequenceInputStream(new ByteArrayInputStream(ARRAY_START), in);
+      }
+      if (needsArrayEnd) {
+        in = new SequenceInputStream(in, new ByteArrayInputStream(ARRAY_END));
+      }
+      try (TaskJsonReader reader = new TaskJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+        tasks = reader.readTasks();
+        // Anything after the closing ']' of a chunk but the last means it was cut wrongly
+        failed = !reader.getProblems().isEmpty() || (needsArrayEnd && !reader.isAtEnd());
+      }
+    }
+  }
+
+  /**
+   * Parses a range of chunks, splitting it in halves for other threads.
+   */
+  private static final class ParseChunks extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /** Only used by the running parse; tasks are never serialized. */
+    private final transient Chunk[] chunks;
+    private final int from;
+    private final int to;
+
+    ParseChunks(Chunk[] chunks, int from, int to) {
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        try {
+          chunks[from].parse();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new ParseChunks(chunks, from, middle), new ParseChunks(chunks, middle, to));
+    }
+  }
+
+  /**
+   * Reads a range of a file with positional reads, so several threads can
+   * read the same channel at once. Closing it leaves the channel open.
+   */
+  private static final class RegionInputStream extends InputStream {
+    private final FileChannel channel;
+    private long position;
+    private final long end;
+
+    RegionInputStream(FileChannel channel, long start, long end) {
+      this.channel = channel;
+      this.position = start;
+      this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] one = new byte[1];
+      return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (position >= end) {
+        return -1;
+      }
+      ByteBuffer target = ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position));
+      int read = channel.read(target, position);
+      if (read < 0) {
+        return -1;
+      }
+      position += read;
+      return read;
+    }
+  }
+}
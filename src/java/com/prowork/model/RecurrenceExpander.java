@@ -0,0 +1,156 @@
+package com.prowork.model;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Expands repeating tasks into their occurrences within a date window.
+ *
+ * Occurrences are generated lazily by iterators. Each series jumps directly
+ * to its first occurrence inside the window, so the cost of a window
+ * depends on the number of occurrences in it and not on how long a series
+ * has been running. Series have no end date and are never materialized as
+ * a whole.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class RecurrenceExpander {
+
+  private RecurrenceExpander() {
+  }
+
+  /**
+   * Lazily iterates the occurrences of a single task within a date window.
+   * A task that does not repeat has at most one occurrence, on its deadline.
+   *
+   * @param task The task to expand
+   * @param from The first date of the window (inclusive)
+   * @param to The last date of the window (inclusive)
+   * @return Iterator over the occurrences, ordered by date
+   */
+  public static Iterator<Occurrence> occurrences(Task task, LocalDate from, LocalDate to) {
+    return new SeriesIterator(task, from, to);
+  }
+
+  /**
+   * Merges one-off tasks and repeating tasks into a single stream of
+   * occurrences ordered by date. On the same date, one-off tasks come first,
+   * followed by the series in the order they were given.
+   *
+   * @param oneOffTasks Tasks without repetition, ordered by deadline
+   * @param series Repeating tasks
+   * @param from The first date of the window (inclusive)
+   * @param to The last date of the window (inclusive)
+   * @return Iterator over all occurrences in the window, ordered by date
+   */
+  public static Iterator<Occurrence> merge(List<Task> oneOffTasks, Collection<Task> series, LocalDate from, LocalDate to) {
+    PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, series.size() + 1));
+    int order = 0;
+
+    Cursor oneOffs = new Cursor(oneOffTasks.stream()
+        .map(task -> new Occurrence(task, task.getDeadline()))
+        .iterator(), order++);
+    if (oneOffs.head != null) {
+      cursors.add(oneOffs);
+    }
+    for (Task task : series) {
+      Cursor cursor = new Cursor(occurrences(task, from, to), order++);
+      if (cursor.head != null) {
+        cursors.add(cursor);
+      }
+    }
+
+    return new Iterator<Occurrence>() {
+      @Override
+      public boolean hasNext() {
+        return !cursors.isEmpty();
+      }
+
+      @Override
+      public Occurrence next() {
+        Cursor cursor = cursors.poll();
+        if (cursor == null) {
+          throw new NoSuchElementException();
+        }
+        Occurrence occurrence = cursor.head;
+        if (cursor.advance()) {
+          cursors.add(cursor);
+        }
+        return occurrence;
+      }
+    };
+  }
+
+  /**
+   * Head of one source of occurrences during a merge.
+   */
+  private static final class Cursor implements Comparable<Cursor> {
+    private final Iterator<Occurrence> source;
+    private final int order;
+    private Occurrence head;
+
+    Cursor(Iterator<Occurrence> source, int order) {
+      this.source = source;
+      this.order = order;
+      advance();
+    }
+
+    boolean advance() {
+      head = source.hasNext() ? source.next() : null;
+      return head != null;
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      int result = head.getDate().compareTo(other.head.getDate());
+      return result != 0 ? result : Integer.compare(order, other.order);
+    }
+  }
+
+  /**
+   * Generates the occurrences of one task on demand.
+   */
+  private static final class SeriesIterator implements Iterator<Occurrence> {
+    private final Task task;
+    private final RepetitionPattern pattern;
+    private final LocalDate start;
+    private final LocalDate to;
+    private long index;
+    private LocalDate next;
+
+    SeriesIterator(Task task, LocalDate from, LocalDate to) {
+      this.task = task;
+      this.pattern = task.getRepetition() != null ? task.getRepetition() : RepetitionPattern.NONE;
+      this.start = task.getDeadline();
+      this.to = to;
+
+      if (start == null || (pattern == RepetitionPattern.NONE && start.isBefore(from))) {
+        next = null;
+      } else {
+        index = pattern.firstOccurrenceOnOrAfter(start, from);
+        next = pattern.occurrence(start, index);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null && !next.isAfter(to);
+    }
+
+    @Override
+    public Occurrence next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      LocalDate date = next;
+      index++;
+      next = pattern == RepetitionPattern.NONE ? null : pattern.occurrence(start, index);
+      return new Occurrence(task, date);
+    }
+  }
+}
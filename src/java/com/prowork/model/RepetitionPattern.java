@@ -1,5 +1,8 @@
 package com.prowork.model;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
 public enum RepetitionPattern {
   NONE("None"),
   DAILY("Daily"),
@@ -16,4 +19,55 @@ public enum RepetitionPattern {
   public String getDisplayName() {
     return displayName;
   }
+
+  /**
+   * Computes the n-th occurrence of a series starting at the given date.
+   * 
+   * Monthly and yearly occurrences are always computed from the start date,
+   * so a series on the 31st falls on the last day of shorter months and
+   * returns to the 31st afterwards, and a series on February 29th falls on
+   * February 28th in non-leap years.
+   * 
+   * @param start The date of the first occurrence
+   * @param n The number of the occurrence, 0 being the start date
+   * @return The date of the occurrence
+   */
+  public LocalDate occurrence(LocalDate start, long n) {
+    switch (this) {
+      case DAILY: return start.plusDays(n);
+      case WEEKLY: return start.plusWeeks(n);
+      case MONTHLY: return start.plusMonths(n);
+      case YEARLY: return start.plusYears(n);
+      default: return start;
+    }
+  }
+
+  /**
+   * Finds the number of the first occurrence on or after the given date
+   * in constant time, without stepping through earlier occurrences.
+   * 
+   * @param start The date of the first occurrence
+   * @param date The earliest date of interest
+   * @return The number of the first occurrence not before the date
+   */
+  public long firstOccurrenceOnOrAfter(LocalDate start, LocalDate date) {
+    if (!date.isAfter(start)) {
+      return 0;
+    }
+
+    long n;
+    switch (this) {
+      case DAILY: n = ChronoUnit.DAYS.between(start, date); break;
+      case WEEKLY: n = ChronoUnit.WEEKS.between(start, date); break;
+      case MONTHLY: n = ChronoUnit.MONTHS.between(start.withDayOfMonth(1), date.withDayOfMonth(1)); break;
+      case YEARLY: n = date.getYear() - start.getYear(); break;
+      default: return 0;
+    }
+
+    // The estimate may be one too low, e.g. for a later day in the same month
+    while (occurrence(start, n).isBefore(date)) {
+      n++;
+    }
+    return n;
+  }
 }
@@ -0,0 +1,121 @@
+package com.prowork.model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a save action on a background thread once a burst of changes is over.
+ *
+ * Every request moves the save back by the quiet period, but never further
+ * than the maximum delay counted from the first request that is not saved yet.
+ * This way many quick modifications end up in a single write, while a steady
+ * stream of modifications is still written regularly.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class SaveScheduler {
+  private final Runnable saveAction;
+  private final long quietNanos;
+  private final long maxDelayNanos;
+  private final ScheduledExecutorService executor;
+  private ScheduledFuture<?> scheduled;
+  private long firstRequestTime;
+  private long generation;
+
+  /**
+   * Constructs a scheduler for the given save action.
+   *
+   * @param saveAction The action that writes all pending changes
+   * @param quietMillis Time without new requests after which the save runs
+   * @param maxDelayMillis Maximum time a request may wait for its save
+   */
+  SaveScheduler(Runnable saveAction, long quietMillis, long maxDelayMillis) {
+    this.saveAction = saveAction;
+    this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "prowork-save");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Requests a save. Returns immediately; the save runs later on the
+   * scheduler thread.
+   */
+  synchronized void requestSave() {
+    if (executor.isShutdown()) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    if (scheduled == null) {
+      firstRequestTime = now;
+    } else {
+      scheduled.cancel(false);
+    }
+
+    long delay = Math.min(quietNanos, firstRequestTime + maxDelayNanos - now);
+    long requestGeneration = ++generation;
+    scheduled = executor.schedule(() -> runSave(requestGeneration), Math.max(0, delay), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Schedules another save after a failed one. Waits for the maximum delay,
+   * so a store that keeps failing is not retried in a tight loop. Does
+   * nothing if a save is already scheduled or the scheduler was shut down.
+   */
+  synchronized void requestRetry() {
+    if (executor.isShutdown() || scheduled != null) {
+      return;
+    }
+    firstRequestTime = System.nanoTime();
+    long requestGeneration = ++generation;
+    scheduled = executor.schedule(() -> runSave(requestGeneration), maxDelayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Runs the save action unless a newer request replaced this one.
+   *
+   * @param requestGeneration The generation of the request that scheduled this run
+   */
+  private void runSave(long requestGeneration) {
+    synchronized (this) {
+      if (requestGeneration != generation) {
+        return;
+      }
+      scheduled = null;
+    }
+
+    try {
+      saveAction.run();
+    } catch (RuntimeException e) {
+      System.err.println("Error in scheduled save: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Stops the scheduler and waits for a running save to finish.
+   * Pending requests are dropped; the caller is expected to save them itself.
+   */
+  void shutdown() {
+    synchronized (this) {
+      if (scheduled != null) {
+        scheduled.cancel(false);
+        scheduled = null;
+      }
+      executor.shutdown();
+    }
+
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package com.prowork.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Inverted index over the words in task names and notes.
+ *
+ * Text is split into words at every character that is not a letter or a
+ * digit and lower-cased. Every word of a query must match the start of a
+ * word of the task, so "mat haus" finds "Mathe-Hausaufgaben".
+ *
+ * Each indexed task gets a document number. The words are kept in a sorted
+ * map from word to the sorted numbers of the tasks containing it, so a
+ * prefix is one range lookup. The matches of each query word are collected
+ * in a bitset and the bitsets are intersected; results come out in the order
+ * the tasks were indexed, active tasks first, without sorting. Numbers of
+ * removed tasks are reused only when the index is renumbered, which happens
+ * once more than half of the numbers are unused.
+ *
+ * The index is updated by its TaskManager under the manager's lock, but has
+ * its own lock, so searches do not wait for the manager.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class SearchIndex {
+  private final NavigableMap<String, Postings> postings = new TreeMap<>();
+  private final Map<Task, Integer> documents = new HashMap<>();
+  /** Task and sorted words by document number; null if the number is unused. */
+  private Task[] tasks = new Task[64];
+  private String[][] taskWords = new String[64][];
+  private final BitSet completed = new BitSet();
+  private int nextDocument;
+
+  /**
+   * Indexes the name and notes of a task.
+   *
+   * @param task The task to add
+   */
+  synchronized void add(Task task) {
+    if (nextDocument == tasks.length) {
+      if (documents.size() < nextDocument / 2) {
+        renumber();
+      } else {
+        tasks = Arrays.copyOf(tasks, nextDocument * 2);
+        taskWords = Arrays.copyOf(taskWords, nextDocument * 2);
+      }
+    }
+    index(nextDocument++, task);
+  }
+
+  /**
+   * Removes a task from the index.
+   *
+   * @param task The task to remove
+   */
+  synchronized void remove(Task task) {
+    Integer document = documents.remove(task);
+    if (document == null) {
+      return;
+    }
+    for (String word : taskWords[document]) {
+      Postings list = postings.get(word);
+      if (list.remove(document) && list.size == 0) {
+        postings.remove(word);
+      }
+    }
+    tasks[document] = null;
+    taskWords[document] = null;
+    completed.clear(document);
+  }
+
+  /**
+   * Replaces a task by its modified copy in one step, so a search finds
+   * either of them but never both. The copy is placed like a task that was
+   * just added, as after a modification.
+   *
+   * @param original The indexed task
+   * @param copy The task replacing it
+   */
+  synchronized void replace(Task original, Task copy) {
+    remove(original);
+    add(copy);
+  }
+
+  /**
+   * Re-indexes a task after its name, notes or completion changed.
+   * The task keeps its place in the result order.
+   *
+   * @param task The changed task
+   */
+  synchronized void update(Task task) {
+    Integer document = documents.get(task);
+    if (document == null) {
+      return;
+    }
+    String[] words = wordsOf(task);
+    if (!Arrays.equals(words, taskWords[document])) {
+      remove(task);
+      tasks[document] = task;
+      taskWords[document] = words;
+      documents.put(task, document);
+      for (String word : words) {
+        postings.computeIfAbsent(word, w -> new Postings()).insert(document);
+      }
+    }
+    completed.set(document, task.isCompleted());
+  }
+
+  /**
+   * Removes all tasks from the index.
+   */
+  synchronized void clear() {
+    postings.clear();
+    documents.clear();
+    Arrays.fill(tasks, null);
+    Arrays.fill(taskWords, null);
+    completed.clear();
+    nextDocument = 0;
+  }
+
+  /**
+   * Finds the tasks whose name or notes contain a word starting with each
+   * word of the query.
+   *
+   * @param query The words to search for
+   * @param limit Maximum number of results, or 0 for all
+   * @return The matching tasks, active ones first, each in index order
+   */
+  synchronized List<Task> search(String query, int limit) {
+    List<Task> result = new ArrayList<>();
+    Collection<String> queryWords = new TreeSet<>();
+    addWords(queryWords, query);
+    if (queryWords.isEmpty()) {
+      return result;
+    }
+
+    BitSet matches = null;
+    for (String prefix : queryWords) {
+      BitSet wordMatches = new BitSet(nextDocument);
+      for (Postings list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+        for (int i = 0; i < list.size; i++) {
+          wordMatches.set(list.documents[i]);
+        }
+      }
+      if (matches == null) {
+        matches = wordMatches;
+      } else {
+        matches.and(wordMatches);
+      }
+      if (matches.isEmpty()) {
+        return result;
+      }
+    }
+
+    int max = limit > 0 ? limit : Integer.MAX_VALUE;
+    BitSet active = (BitSet) matches.clone();
+    active.andNot(completed);
+    matches.and(completed);
+    for (BitSet part : new BitSet[] {active, matches}) {
+      for (int doc = part.nextSetBit(0); doc >= 0 && result.size() < max; doc = part.nextSetBit(doc + 1)) {
+        result.add(tasks[doc]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Stores a task under an unused document number.
+   *
+   * @param document The number
+   * @param task The task
+   */
+  private void index(int document, Task task) {
+    String[] words = wordsOf(task);
+    tasks[document] = task;
+    taskWords[document] = words;
+    documents.put(task, document);
+    completed.set(document, task.isCompleted());
+    for (String word : words) {
+      postings.computeIfAbsent(word, w -> new Postings()).append(document);
+    }
+  }
+
+  /**
+   * Numbers the indexed tasks again from 0, keeping their order.
+   */
+  private void renumber() {
+    List<Task> live = new ArrayList<>(documents.size());
+    for (int doc = 0; doc < nextDocument; doc++) {
+      if (tasks[doc] != null) {
+        live.add(tasks[doc]);
+      }
+    }
+    clear();
+    for (Task task : live) {
+      index(nextDocument++, task);
+    }
+  }
+
+  private static String[] wordsOf(Task task) {
+    Collection<String> words = new TreeSet<>();
+    addWords(words, task.getName());
+    addWords(words, task.getNotes());
+    return words.toArray(new String[0]);
+  }
+
+  /**
+   * Adds the lower-cased words of a text.
+   *
+   * @param result The collection to add to
+   * @param text The text, may be null
+   */
+  private static void addWords(Collection<String> result, String text) {
+    if (text == null) {
+      return;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        result.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+  }
+
+  /**
+   * Sorted document numbers of the tasks containing one word.
+   */
+  private static final class Postings {
+    int[] documents = new int[2];
+    int size;
+
+    /**
+     * Adds a number greater than all numbers in the list.
+     */
+    void append(int document) {
+      if (size == documents.length) {
+        documents = Arrays.copyOf(documents, size * 2);
+      }
+      documents[size++] = document;
+    }
+
+    /**
+     * Adds a number at its sorted position.
+     */
+    void insert(int document) {
+      int index = Arrays.binarySearch(documents, 0, size, document);
+      if (index >= 0) {
+        return;
+      }
+      index = -index - 1;
+      if (size == documents.length) {
+        documents = Arrays.copyOf(documents, size * 2);
+      }
+      System.arraycopy(documents, index, documents, index + 1, size - index);
+      documents[index] = document;
+      size++;
+    }
+
+    boolean remove(int document) {
+      int index = Arrays.binarySearch(documents, 0, size, document);
+      if (index < 0) {
+        return false;
+      }
+      System.arraycopy(documents, index + 1, documents, index, size - index - 1);
+      size--;
+      return true;
+    }
+  }
+}
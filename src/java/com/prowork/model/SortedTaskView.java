@@ -0,0 +1,417 @@
+package com.prowork.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The tasks of a TaskManager kept sorted by a list of sort keys.
+ *
+ * The view is a treap, a binary search tree balanced by random node
+ * priorities, whose nodes also count the tasks below them. Adding, removing
+ * and re-sorting a changed task take O(log n), and a slice of the sorted
+ * tasks starting at any offset takes O(log n + length), so callers never
+ * sort the full list. Tasks with equal keys keep the order in which they
+ * were added.
+ *
+ * A view can be limited to the tasks passing a TaskFilter; tasks enter and
+ * leave it when the filtered fields change.
+ *
+ * Each node keeps the key values the task had when it was sorted in, so a
+ * task can be found again after its fields changed. The manager that owns
+ * the view updates it; reading takes only the view's own lock.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class SortedTaskView {
+  private final TaskFilter filter;
+  private final TaskSortKey[] keys;
+  private final Map<Task, Node> nodes = new HashMap<>();
+  private final Random random = new Random();
+  private Node root;
+  private long nextSequence;
+  private volatile long lastUsed;
+
+  /**
+   * Constructs an empty view. Views are created by TaskManager.getSortedView.
+   *
+   * @param filter The tasks to include
+   * @param keys The sort keys, most significant first
+   */
+  SortedTaskView(TaskFilter filter, TaskSortKey... keys) {
+    if (keys.length == 0) {
+      throw new IllegalArgumentException("A sorted view needs at least one sort key");
+    }
+    this.filter = filter;
+    this.keys = keys.clone();
+  }
+
+  /**
+   * Returns the filter selecting the tasks of this view.
+   *
+   * @return The filter
+   */
+  public TaskFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * Returns the sort keys of this view.
+   *
+   * @return The keys, most significant first
+   */
+  public List<TaskSortKey> getKeys() {
+    return Collections.unmodifiableList(Arrays.asList(keys));
+  }
+
+  /**
+   * Returns the number of tasks in the view.
+   *
+   * @return The task count
+   */
+  public synchronized int size() {
+    return size(root);
+  }
+
+  /**
+   * Returns all tasks in sorted order.
+   *
+   * @return A new list of the tasks
+   */
+  public synchronized List<Task> getTasks() {
+    return getTasks(0, size(root));
+  }
+
+  /**
+   * Returns a slice of the sorted tasks.
+   *
+   * @param offset The position of the first task
+   * @param limit The maximum number of tasks
+   * @return A new list of at most limit tasks; empty if offset is past the end
+   */
+  public synchronized List<Task> getTasks(int offset, int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("Negative offset or limit");
+    }
+    int end = (int) Math.min((long) offset + limit, size(root));
+    List<Task> slice = new ArrayList<>(Math.max(0, end - offset));
+    collect(root, offset, end, slice);
+    return slice;
+  }
+
+  /**
+   * Returns a slice of the sorted tasks and the size of the view.
+   *
+   * @param offset The position of the first task
+   * @param limit The maximum number of tasks
+   * @return The page
+   */
+  public synchronized TaskPage getPage(int offset, int limit) {
+    return new TaskPage(offset, size(root), getTasks(offset, limit));
+  }
+
+  /**
+   * Tells whether a change of the given field can move tasks in this view
+   * or add or remove them.
+   *
+   * @param field The changed field
+   * @return true if the filter or one of the sort keys depends on the field
+   */
+  boolean dependsOn(TaskField field) {
+    if (filter.dependsOn(field)) {
+      return true;
+    }
+    for (TaskSortKey key : keys) {
+      if (key.getField() == field) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sorts a task into the view if it passes the filter.
+   *
+   * @param task The task to add
+   */
+  synchronized void add(Task task) {
+    if (!filter.test(task)) {
+      return;
+    }
+    insert(new Node(task, valuesOf(task), nextSequence++, random.nextInt()));
+  }
+
+  /**
+   * Sorts many tasks into an empty view with one sort instead of one
+   * insertion per task.
+   *
+   * @param tasks The tasks to add, in the order they were added to the manager
+   */
+  synchronized void addAll(Collection<Task> tasks) {
+    if (root != null) {
+      for (Task task : tasks) {
+        add(task);
+      }
+      return;
+    }
+
+    Node[] sorted = new Node[tasks.size()];
+    int count = 0;
+    for (Task task : tasks) {
+      if (!filter.test(task)) {
+        continue;
+      }
+      Node node = new Node(task, valuesOf(task), nextSequence++, random.nextInt());
+      nodes.put(task, node);
+      sorted[count++] = node;
+    }
+    sorted = Arrays.copyOf(sorted, count);
+    Arrays.sort(sorted, SortedTaskView::compare);
+
+    // Link the sorted nodes into a tree ordered by priority, right spine on the stack
+    Deque<Node> spine = new ArrayDeque<>();
+    for (Node node : sorted) {
+      Node last = null;
+      while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+        last = spine.pop();
+      }
+      node.left = last;
+      if (!spine.isEmpty()) {
+        spine.peek().right = node;
+      }
+      spine.push(node);
+    }
+    root = spine.peekLast();
+    updateSizes(root);
+  }
+
+  /**
+   * Removes a task from the view.
+   *
+   * @param task The task to remove
+   */
+  synchronized void remove(Task task) {
+    Node node = nodes.remove(task);
+    if (node != null) {
+      root = delete(root, node);
+    }
+  }
+
+  /**
+   * Moves a task to its new position after one of its sort keys changed,
+   * or adds or removes it if it now passes the filter or no longer does.
+   * A task that stays in the view keeps its place among tasks with equal keys.
+   *
+   * @param task The changed task, which must belong to the view's manager
+   */
+  synchronized void update(Task task) {
+    replace(task, task);
+  }
+
+  /**
+   * Replaces a task by its modified copy in one step, so readers see either
+   * the original or the copy but never both. The copy takes over the place
+   * of the original among tasks with equal keys, and is added or left out
+   * depending on whether it passes the filter.
+   *
+   * @param original The task in the view
+   * @param copy The task replacing it
+   */
+  synchronized void replace(Task original, Task copy) {
+    Node node = nodes.remove(original);
+    if (node != null) {
+      root = delete(root, node);
+    }
+    if (!filter.test(copy)) {
+      return;
+    }
+    insert(node != null
+        ? new Node(copy, valuesOf(copy), node.sequence, node.priority)
+        : new Node(copy, valuesOf(copy), nextSequence++, random.nextInt()));
+  }
+
+  /**
+   * Marks the view as used now, for the manager's choice of which views to drop.
+   *
+   * @param tick A value that grows with every use
+   */
+  void touch(long tick) {
+    lastUsed = tick;
+  }
+
+  /**
+   * Returns the value passed to the last call of touch.
+   *
+   * @return The tick of the last use
+   */
+  long getLastUsed() {
+    return lastUsed;
+  }
+
+  /**
+   * Removes all tasks from the view.
+   */
+  synchronized void clear() {
+    nodes.clear();
+    root = null;
+  }
+
+  private void insert(Node node) {
+    nodes.put(node.task, node);
+    Node[] parts = split(root, node);
+    root = merge(merge(parts[0], node), parts[1]);
+  }
+
+  /**
+   * Splits a subtree into the nodes sorted before a key and the others.
+   *
+   * @param node The root of the subtree
+   * @param key The node to split at
+   * @return The smaller and the remaining part
+   */
+  private Node[] split(Node node, Node key) {
+    if (node == null) {
+      return new Node[2];
+    }
+    Node[] parts;
+    if (compare(node, key) < 0) {
+      parts = split(node.right, key);
+      node.right = parts[0];
+      parts[0] = node;
+    } else {
+      parts = split(node.left, key);
+      node.left = parts[1];
+      parts[1] = node;
+    }
+    node.updateSize();
+    return parts;
+  }
+
+  /**
+   * Joins two subtrees where all nodes of the first sort before the second.
+   */
+  private Node merge(Node first, Node second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    if (first.priority > second.priority) {
+      first.right = merge(first.right, second);
+      first.updateSize();
+      return first;
+    }
+    second.left = merge(first, second.left);
+    second.updateSize();
+    return second;
+  }
+
+  private Node delete(Node node, Node key) {
+    if (node == null) {
+      return null;
+    }
+    int order = compare(key, node);
+    if (order == 0) {
+      return merge(node.left, node.right);
+    }
+    if (order < 0) {
+      node.left = delete(node.left, key);
+    } else {
+      node.right = delete(node.right, key);
+    }
+    node.updateSize();
+    return node;
+  }
+
+  /**
+   * Adds the tasks at the positions from (inclusive) to end (exclusive)
+   * of a subtree, in order.
+   */
+  private void collect(Node node, int from, int end, List<Task> out) {
+    if (node == null || from >= end) {
+      return;
+    }
+    int leftSize = size(node.left);
+    if (from < leftSize) {
+      collect(node.left, from, Math.min(end, leftSize), out);
+    }
+    if (from <= leftSize && leftSize < end) {
+      out.add(node.task);
+    }
+    if (end > leftSize + 1) {
+      collect(node.right, Math.max(0, from - leftSize - 1), end - leftSize - 1, out);
+    }
+  }
+
+  private static int updateSizes(Node node) {
+    if (node == null) {
+      return 0;
+    }
+    node.size = 1 + updateSizes(node.left) + updateSizes(node.right);
+    return node.size;
+  }
+
+  private Comparable<?>[] valuesOf(Task task) {
+    Comparable<?>[] values = new Comparable<?>[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      values[i] = keys[i].valueOf(task);
+    }
+    return values;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compare(Node a, Node b) {
+    for (int i = 0; i < a.values.length; i++) {
+      Comparable<Object> x = (Comparable<Object>) a.values[i];
+      Object y = b.values[i];
+      if (x == null || y == null) {
+        if (x != y) {
+          return x == null ? 1 : -1;
+        }
+        continue;
+      }
+      int order = x.compareTo(y);
+      if (order != 0) {
+        return order;
+      }
+    }
+    return Long.compare(a.sequence, b.sequence);
+  }
+
+  private static int size(Node node) {
+    return node != null ? node.size : 0;
+  }
+
+  /**
+   * A task with the key values it is sorted by.
+   */
+  private static final class Node {
+    final Task task;
+    final Comparable<?>[] values;
+    final long sequence;
+    final int priority;
+    Node left;
+    Node right;
+    int size = 1;
+
+    Node(Task task, Comparable<?>[] values, long sequence, int priority) {
+      this.task = task;
+      this.values = values;
+      this.sequence = sequence;
+      this.priority = priority;
+    }
+
+    void updateSize() {
+      size = 1 + SortedTaskView.size(left) + SortedTaskView.size(right);
+    }
+  }
+}
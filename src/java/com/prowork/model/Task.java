@@ -24,6 +24,7 @@ public class Task {
     private String notes;
     private boolean completed;
     private LocalDateTime completedAt;
+    private TaskChangeListener listener;
 
     /**
      * Constructs a new Task with the specified parameters.
@@ -35,7 +36,22 @@ public class Task {
      * @param repetition The repetition pattern (NONE, DAILY, WEEKLY, etc.)
      */
     public Task(String name, LocalDate deadline, TaskType type, Priority priority, RepetitionPattern repetition) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), name, deadline, type, priority, repetition);
+    }
+
+    /**
+     * Constructs a task with a known ID, e.g. when loading it from storage.
+     * Avoids generating a random ID that would be replaced right away.
+     * 
+     * @param id The unique identifier of the task
+     * @param name The name/title of the task
+     * @param deadline The due date for the task
+     * @param type The type of task
+     * @param priority The priority level
+     * @param repetition The repetition pattern
+     */
+    Task(String id, String name, LocalDate deadline, TaskType type, Priority priority, RepetitionPattern repetition) {
+        this.id = id;
         this.name = name;
         this.deadline = deadline;
         this.type = type;
@@ -45,6 +61,24 @@ public class Task {
         this.completed = false;
     }
 
+    /**
+     * Constructs a copy of another task, including its ID and completion state.
+     * Used to hand a stable snapshot of tasks to background writers.
+     * 
+     * @param other The task to copy
+     */
+    Task(Task other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.deadline = other.deadline;
+        this.type = other.type;
+        this.priority = other.priority;
+        this.repetition = other.repetition;
+        this.notes = other.notes;
+        this.completed = other.completed;
+        this.completedAt = other.completedAt;
+    }
+
     /**
      * Gets the unique identifier of this task.
      * 
@@ -58,7 +92,11 @@ public class Task {
      * 
      * @param id The task ID to set
      */
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) {
+        String oldId = this.id;
+        this.id = id;
+        fireChanged(TaskField.ID, oldId);
+    }
 
     /**
      * Gets the name of this task.
@@ -72,7 +110,11 @@ public class Task {
      * 
      * @param name The new task name
      */
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) {
+        String oldName = this.name;
+        this.name = name;
+        fireChanged(TaskField.NAME, oldName);
+    }
 
     /**
      * Gets the deadline for this task.
@@ -86,7 +128,11 @@ public class Task {
      * 
      * @param deadline The new deadline
      */
-    public void setDeadline(LocalDate deadline) { this.deadline = deadline; }
+    public void setDeadline(LocalDate deadline) {
+        LocalDate oldDeadline = this.deadline;
+        this.deadline = deadline;
+        fireChanged(TaskField.DEADLINE, oldDeadline);
+    }
 
     /**
      * Gets the type of this task.
@@ -100,7 +146,11 @@ public class Task {
      * 
      * @param type The new task type
      */
-    public void setType(TaskType type) { this.type = type; }
+    public void setType(TaskType type) {
+        TaskType oldType = this.type;
+        this.type = type;
+        fireChanged(TaskField.TYPE, oldType);
+    }
 
     /**
      * Gets the priority level of this task.
@@ -114,7 +164,11 @@ public class Task {
      * 
      * @param priority The new priority level
      */
-    public void setPriority(Priority priority) { this.priority = priority; }
+    public void setPriority(Priority priority) {
+        Priority oldPriority = this.priority;
+        this.priority = priority;
+        fireChanged(TaskField.PRIORITY, oldPriority);
+    }
 
     /**
      * Gets the repetition pattern of this task.
@@ -128,7 +182,11 @@ public class Task {
      * 
      * @param repetition The new repetition pattern
      */
-    public void setRepetition(RepetitionPattern repetition) { this.repetition = repetition; }
+    public void setRepetition(RepetitionPattern repetition) {
+        RepetitionPattern oldRepetition = this.repetition;
+        this.repetition = repetition;
+        fireChanged(TaskField.REPETITION, oldRepetition);
+    }
 
     /**
      * Gets the notes associated with this task.
@@ -142,7 +200,11 @@ public class Task {
      * 
      * @param notes The new notes text
      */
-    public void setNotes(String notes) { this.notes = notes; }
+    public void setNotes(String notes) {
+        String oldNotes = this.notes;
+        this.notes = notes;
+        fireChanged(TaskField.NOTES, oldNotes);
+    }
 
     /**
      * Checks if this task is completed.
@@ -158,10 +220,12 @@ public class Task {
      * @param completed The new completion status
      */
     public void setCompleted(boolean completed) { 
+      boolean wasCompleted = this.completed;
       this.completed = completed; 
       if (completed) {
           this.completedAt = LocalDateTime.now();
       }
+      fireChanged(TaskField.COMPLETED, wasCompleted);
     }
 
     /**
@@ -171,6 +235,16 @@ public class Task {
      */
     public LocalDateTime getCompletedAt() { return completedAt; }
 
+    /**
+     * Restores the completion timestamp, e.g. when loading the task from storage.
+     * Does not notify the listener.
+     * 
+     * @param completedAt The completion timestamp, or null
+     */
+    void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
     /**
      * Checks if this task type allows notes.
      * Currently only TEST type tasks can have notes.
@@ -189,4 +263,26 @@ public class Task {
     public boolean isRepeating() {
       return repetition != RepetitionPattern.NONE;
     }
+
+    /**
+     * Sets the listener that is notified about changes of this task.
+     * Used by the TaskManager that owns the task; a copy has no listener.
+     * 
+     * @param listener The listener, or null to stop notifications
+     */
+    void setListener(TaskChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Notifies the listener, if any, that a field was set.
+     * 
+     * @param field The field that was set
+     * @param oldValue The value before the change
+     */
+    private void fireChanged(TaskField field, Object oldValue) {
+        if (listener != null) {
+            listener.taskChanged(this, field, oldValue);
+        }
+    }
 }
\ No newline at end of file
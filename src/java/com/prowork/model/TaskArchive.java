@@ -0,0 +1,289 @@
+package com.prowork.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for completed tasks, split into one compressed segment per
+ * month of completion.
+ *
+ * Each segment (archive/2025-03.json.gz next to the tasks file) is a gzipped
+ * JSON array in the storage format, including the completion timestamp.
+ * Segments are only read when a query needs them; the most recently used
+ * ones stay in memory (prowork.archiveCachedSegments, default 3). Cached
+ * segments are held in a compact TaskTable, whose tasks are built when
+ * they are read; prowork.taskTable=false keeps them as Task objects.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskArchive {
+  private static final String SEGMENT_SUFFIX = ".json.gz";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path directory;
+  private final int cachedSegments = Integer.getInteger("prowork.archiveCachedSegments", 3);
+  private final boolean compact = Boolean.parseBoolean(System.getProperty("prowork.taskTable", "true"));
+  /** Recently read segments in access order. */
+  private final Map<YearMonth, List<Task>> segments = new LinkedHashMap<>(16, 0.75f, true);
+  /** IDs of all archived tasks, collected on first use; null until then. */
+  private Set<String> ids;
+
+  /**
+   * Constructs an archive that keeps its segments in the given directory.
+   * The directory is created when the first task is archived.
+   *
+   * @param directory The directory for the segments
+   */
+  public TaskArchive(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Adds completed tasks to the segments of their completion month.
+   * A task already archived under the same ID is replaced, so archiving
+   * the same task twice (e.g. after a crash) does not duplicate it.
+   *
+   * @param tasks Completed tasks with a completion timestamp
+   * @return true if all segments were written
+   */
+  public synchronized boolean archive(Collection<Task> tasks) {
+    Map<YearMonth, List<Task>> byMonth = new TreeMap<>();
+    for (Task task : tasks) {
+      if (task.getCompletedAt() == null) {
+        throw new IllegalArgumentException("Task " + task.getId() + " has no completion time");
+      }
+      byMonth.computeIfAbsent(YearMonth.from(task.getCompletedAt()), month -> new ArrayList<>()).add(task);
+    }
+
+    try {
+      Files.createDirectories(directory);
+      for (Map.Entry<YearMonth, List<Task>> entry : byMonth.entrySet()) {
+        TaskTable merged = readSegment(entry.getKey());
+        for (Task task : entry.getValue()) {
+          int row = merged.indexOfId(task.getId());
+          if (row >= 0) {
+            merged.set(row, task);
+          } else {
+            merged.add(task);
+          }
+        }
+        writeSegment(entry.getKey(), merged);
+        segments.remove(entry.getKey());
+        if (ids != null) {
+          for (Task task : entry.getValue()) {
+            ids.add(task.getId());
+          }
+        }
+      }
+      System.out.println("Archived " + tasks.size() + " tasks in " + byMonth.size() + " segments");
+      return true;
+    } catch (IOException e) {
+      System.err.println("Error archiving tasks: " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Returns the months for which archived tasks exist, without opening
+   * any segment.
+   *
+   * @return The months, oldest first
+   */
+  public synchronized List<YearMonth> getMonths() {
+    TreeSet<YearMonth> months = new TreeSet<>();
+    if (!Files.isDirectory(directory)) {
+      return new ArrayList<>();
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          months.add(YearMonth.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+        } catch (DateTimeParseException e) {
+          // Not a segment
+        }
+      }
+    } catch (IOException e) {
+      System.err.println("Error listing archive: " + e.getMessage());
+    }
+    return new ArrayList<>(months);
+  }
+
+  /**
+   * Returns the tasks completed in the given month, reading the segment
+   * if it is not in memory. The list cannot be modified.
+   *
+   * @param month The month of completion
+   * @return The archived tasks, or an empty list
+   */
+  public List<Task> getTasks(YearMonth month) {
+    return Collections.unmodifiableList(segment(month));
+  }
+
+  /**
+   * Returns the tasks completed within a date range. Only the segments
+   * of the months in the range are read.
+   *
+   * @param from The first day of the range (inclusive)
+   * @param to The last day of the range (inclusive)
+   * @return The archived tasks, ordered by month
+   */
+  public List<Task> getTasksCompletedBetween(LocalDate from, LocalDate to) {
+    List<Task> result = new ArrayList<>();
+    for (YearMonth month : getMonths()) {
+      if (month.isBefore(YearMonth.from(from)) || month.isAfter(YearMonth.from(to))) {
+        continue;
+      }
+      List<Task> tasks = segment(month);
+      for (int i = 0; i < tasks.size(); i++) {
+        // A table can check the date without building the task
+        LocalDate completed = tasks instanceof TaskTable
+            ? ((TaskTable) tasks).completedAt(i).toLocalDate()
+            : tasks.get(i).getCompletedAt().toLocalDate();
+        if (!completed.isBefore(from) && !completed.isAfter(to)) {
+          result.add(tasks.get(i));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a test telling whether a task ID is archived, e.g. to skip
+   * duplicates during an import. The IDs of all segments are collected the
+   * first time this is called and kept up to date by archive(), so only
+   * the first call reads the segments. The test also sees tasks archived
+   * after it was returned.
+   *
+   * @return The test for archived task IDs
+   */
+  public synchronized Predicate<String> archivedIds() {
+    if (ids == null) {
+      Set<String> collected = ConcurrentHashMap.newKeySet();
+      for (YearMonth month : getMonths()) {
+        List<Task> tasks = segments.get(month);
+        try {
+          if (tasks == null) {
+            tasks = readSegment(month);
+          }
+          for (int i = 0; i < tasks.size(); i++) {
+            // A table returns the ID without building the task
+            collected.add(tasks instanceof TaskTable ? ((TaskTable) tasks).idAt(i) : tasks.get(i).getId());
+          }
+        } catch (IOException e) {
+          System.err.println("Error reading archive segment " + month + ": " + e.getMessage());
+        }
+      }
+      ids = collected;
+    }
+    return ids::contains;
+  }
+
+  /**
+   * Returns the directory of the segments.
+   *
+   * @return The archive directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Returns the tasks of a segment from memory, reading it if needed.
+   *
+   * @param month The month of the segment
+   * @return The cached tasks
+   */
+  private synchronized List<Task> segment(YearMonth month) {
+    List<Task> tasks = segments.get(month);
+    if (tasks == null) {
+      try {
+        TaskTable table = readSegment(month);
+        tasks = compact ? table : new ArrayList<>(table);
+      } catch (IOException e) {
+        System.err.println("Error reading archive segment " + month + ": " + e.getMessage());
+        return new ArrayList<>();
+      }
+      segments.put(month, tasks);
+      while (segments.size() > Math.max(1, cachedSegments)) {
+        segments.remove(segments.keySet().iterator().next());
+      }
+    }
+    return tasks;
+  }
+
+  /**
+   * Reads all tasks of a segment.
+   *
+   * @param month The month of the segment
+   * @return The tasks, or an empty table if the segment does not exist
+   * @throws IOException if the segment cannot be read
+   */
+  private TaskTable readSegment(YearMonth month) throws IOException {
+    Path file = segmentPath(month);
+    TaskTable tasks = new TaskTable();
+    if (!Files.exists(file)) {
+      return tasks;
+    }
+    try (TaskJsonReader reader = new TaskJsonReader(new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8)))) {
+      reader.readTasks(tasks::add);
+      for (String problem : reader.getProblems()) {
+        System.err.println("Warning: Skipping malformed task in " + file.getFileName() + " at " + problem);
+      }
+      return tasks;
+    }
+  }
+
+  /**
+   * Replaces a segment with the given tasks.
+   *
+   * @param month The month of the segment
+   * @param tasks All tasks of the segment
+   * @throws IOException if the segment cannot be written
+   */
+  private void writeSegment(YearMonth month, List<Task> tasks) throws IOException {
+    Path file = segmentPath(month);
+    Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+        new GZIPOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      new TaskJsonWriter(writer, TaskJsonFormat.STORAGE).writeTasks(tasks);
+    }
+    try {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private Path segmentPath(YearMonth month) {
+    return directory.resolve(month + SEGMENT_SUFFIX);
+  }
+}
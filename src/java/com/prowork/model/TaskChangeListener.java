@@ -0,0 +1,34 @@
+package com.prowork.model;
+
+/**
+ * Receives a notification after a field of a task was changed through
+ * one of its setters.
+ *
+ * The TaskManager registers itself on every task it manages, so its
+ * indexes stay up to date even when a task is modified directly.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public interface TaskChangeListener {
+  /**
+   * Called after a field of the task was set.
+   *
+   * @param task The changed task, already holding the new value
+   * @param field The field that was set
+   * @param oldValue The value of the field before the change
+   */
+  void taskChanged(Task task, TaskField field, Object oldValue);
+
+  /**
+   * Called after the manager dropped a task: it was deleted or archived,
+   * replaced by a modified copy, or the tasks were reloaded. The task object
+   * is not used by the manager any more, so state kept for it can be
+   * released. Runs while the manager's lock is held and must not call back
+   * into the manager.
+   *
+   * @param task The dropped task
+   */
+  default void taskRemoved(Task task) {
+  }
+}
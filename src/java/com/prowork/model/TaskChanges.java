@@ -0,0 +1,84 @@
+package com.prowork.model;
+
+import java.util.List;
+
+/**
+ * The changes to the task list since a version a view has seen.
+ *
+ * A full resync replaces the view's state: all current tasks are reported
+ * as added and nothing as deleted. Otherwise only the tasks that were
+ * added, updated or deleted since the given version are included.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskChanges {
+  private final long version;
+  private final boolean fullResync;
+  private final List<Task> added;
+  private final List<Task> updated;
+  private final List<String> deletedIds;
+
+  /**
+   * Constructs a set of changes.
+   *
+   * @param version The version the changes lead to
+   * @param fullResync Whether the view must replace its state
+   * @param added Tasks added since the version
+   * @param updated Tasks modified since the version
+   * @param deletedIds IDs of tasks deleted since the version
+   */
+  public TaskChanges(long version, boolean fullResync, List<Task> added, List<Task> updated, List<String> deletedIds) {
+    this.version = version;
+    this.fullResync = fullResync;
+    this.added = added;
+    this.updated = updated;
+    this.deletedIds = deletedIds;
+  }
+
+  /**
+   * Gets the version to ask for changes since next time.
+   *
+   * @return The current version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Checks whether the view must discard its state and use the added
+   * tasks as the complete list.
+   *
+   * @return true for a full resync
+   */
+  public boolean isFullResync() {
+    return fullResync;
+  }
+
+  /**
+   * Gets the added tasks, in insertion order.
+   *
+   * @return The added tasks
+   */
+  public List<Task> getAdded() {
+    return added;
+  }
+
+  /**
+   * Gets the modified tasks.
+   *
+   * @return The updated tasks
+   */
+  public List<Task> getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Gets the IDs of the deleted tasks.
+   *
+   * @return The deleted task IDs
+   */
+  public List<String> getDeletedIds() {
+    return deletedIds;
+  }
+}
@@ -0,0 +1,18 @@
+package com.prowork.model;
+
+/**
+ * The modifiable fields of a task, as reported to a TaskChangeListener.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public enum TaskField {
+  ID,
+  NAME,
+  DEADLINE,
+  TYPE,
+  PRIORITY,
+  REPETITION,
+  NOTES,
+  COMPLETED
+}
@@ -0,0 +1,103 @@
+package com.prowork.model;
+
+import java.util.Objects;
+
+/**
+ * Selects the tasks shown in a SortedTaskView by completion state and type.
+ *
+ * The text form used by the bridge is a comma-separated list of "all",
+ * "active", "completed" and task type names, e.g. "active,TEST".
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class TaskFilter {
+  /** Accepts every task. */
+  public static final TaskFilter ALL = new TaskFilter(null, null);
+
+  private final Boolean completed;
+  private final TaskType type;
+
+  /**
+   * Constructs a filter.
+   *
+   * @param completed Required completion state, or null for any
+   * @param type Required task type, or null for any
+   */
+  public TaskFilter(Boolean completed, TaskType type) {
+    this.completed = completed;
+    this.type = type;
+  }
+
+  /**
+   * Parses the text form of a filter.
+   *
+   * @param text The filter, e.g. "active,TEST"; null or empty for all tasks
+   * @return The filter
+   * @throws IllegalArgumentException if a part is not known
+   */
+  public static TaskFilter parse(String text) {
+    Boolean completed = null;
+    TaskType type = null;
+    if (text != null) {
+      for (String part : text.split(",")) {
+        String name = part.trim();
+        if (name.isEmpty() || name.equalsIgnoreCase("all")) {
+          continue;
+        } else if (name.equalsIgnoreCase("active")) {
+          completed = false;
+        } else if (name.equalsIgnoreCase("completed")) {
+          completed = true;
+        } else {
+          type = TaskType.valueOf(name.toUpperCase());
+        }
+      }
+    }
+    return completed == null && type == null ? ALL : new TaskFilter(completed, type);
+  }
+
+  /**
+   * Tells whether a task passes the filter.
+   *
+   * @param task The task
+   * @return true if the task is selected
+   */
+  public boolean test(Task task) {
+    return (completed == null || task.isCompleted() == completed)
+        && (type == null || task.getType() == type);
+  }
+
+  /**
+   * Tells whether a change of the given field can change the result of test.
+   *
+   * @param field The changed field
+   * @return true if the filter depends on the field
+   */
+  boolean dependsOn(TaskField field) {
+    return (completed != null && field == TaskField.COMPLETED)
+        || (type != null && field == TaskField.TYPE);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof TaskFilter)) {
+      return false;
+    }
+    TaskFilter filter = (TaskFilter) other;
+    return Objects.equals(completed, filter.completed) && type == filter.type;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(completed, type);
+  }
+
+  @Override
+  public String toString() {
+    if (completed == null && type == null) {
+      return "all";
+    }
+    String state = completed == null ? "" : completed ? "completed" : "active";
+    return type == null ? state : state.isEmpty() ? type.name() : state + "," + type.name();
+  }
+}
@@ -0,0 +1,250 @@
+package com.prowork.model;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the serialized JSON of single tasks and of the complete task list.
+ *
+ * Each task's JSON object is kept until the task is changed through one of
+ * its setters or dropped by the manager, e.g. deleted or replaced by a
+ * modified copy; register the cache with TaskManager.addChangeListener to
+ * get those notifications. Entries are keyed by the task object itself, so
+ * tasks added to or reloaded by the manager are new entries. The least
+ * recently used entries are evicted once the cache exceeds the configured
+ * size, which counts the characters of the JSON plus ENTRY_OVERHEAD for
+ * each entry.
+ *
+ * The assembled array of all tasks is reused as long as the manager's
+ * version and the cache's own change count are the same as when it was built.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskJsonCache implements TaskChangeListener {
+  /**
+   * Memory of an entry besides its characters, counted as characters: the
+   * map entry and the String with its array header take about 90 bytes, and
+   * the mostly ASCII JSON is stored with one byte per character.
+   */
+  static final int ENTRY_OVERHEAD = 90;
+
+  private final TaskJsonFormat format;
+  private final long maxChars;
+  /** Serialized tasks in access order, for LRU eviction. */
+  private final Map<Task, String> fragments = new LinkedHashMap<>(256, 0.75f, true);
+  private long cachedChars;
+  /** Incremented whenever a cached task is invalidated. */
+  private long generation;
+
+  private String arrayJson;
+  private long arrayVersion = -1;
+  private long arrayGeneration = -1;
+
+  private long hitCount;
+  private long missCount;
+  private long arrayHitCount;
+  private long arrayMissCount;
+
+  /**
+   * Constructs a cache for the given format.
+   *
+   * @param format The field naming of the cached JSON
+   * @param maxChars Maximum size of the single tasks in characters, including
+   *        ENTRY_OVERHEAD per task
+   */
+  public TaskJsonCache(TaskJsonFormat format, long maxChars) {
+    this.format = format;
+    this.maxChars = maxChars;
+  }
+
+  /**
+   * Returns the JSON object of a task, serializing it only if it is not
+   * cached yet.
+   *
+   * @param task The task
+   * @return The task as a JSON object
+   */
+  public synchronized String getJson(Task task) {
+    String json = fragments.get(task);
+    if (json != null) {
+      hitCount++;
+      return json;
+    }
+
+    missCount++;
+    StringWriter out = new StringWriter(256);
+    try {
+      new TaskJsonWriter(out, format).writeTask(task);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    json = out.toString();
+    fragments.put(task, json);
+    cachedChars += json.length() + ENTRY_OVERHEAD;
+    evict();
+    return json;
+  }
+
+  /**
+   * Writes a JSON array of tasks from their cached objects.
+   *
+   * @param out The sink to write to
+   * @param tasks The tasks to write
+   * @throws IOException if the sink cannot be written
+   */
+  public void writeArray(Writer out, Iterable<Task> tasks) throws IOException {
+    out.write('[');
+    boolean first = true;
+    for (Task task : tasks) {
+      if (!first) {
+        out.write(',');
+      }
+      out.write(getJson(task));
+      first = false;
+    }
+    out.write(']');
+  }
+
+  /**
+   * Returns the JSON array of all tasks. The array built by the last call
+   * is returned again if no task changed since then.
+   *
+   * @param tasks All tasks, in order
+   * @param version The manager's version the list belongs to; read it
+   *        before reading the tasks
+   * @return The tasks as a JSON array
+   */
+  public String getAllTasksJson(List<Task> tasks, long version) {
+    long builtGeneration;
+    synchronized (this) {
+      if (arrayJson != null && arrayVersion == version && arrayGeneration == generation) {
+        arrayHitCount++;
+        return arrayJson;
+      }
+      arrayMissCount++;
+      builtGeneration = generation;
+    }
+    StringWriter out = new StringWriter(Math.max(16, tasks.size() * 256));
+    try {
+      writeArray(out, tasks);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    String json = out.toString();
+
+    synchronized (this) {
+      if (json.length() <= maxChars) {
+        arrayJson = json;
+        arrayVersion = version;
+        arrayGeneration = builtGeneration;
+      } else {
+        arrayJson = null;
+      }
+    }
+    return json;
+  }
+
+  /**
+   * Drops the cached JSON of a task after one of its fields was set.
+   */
+  @Override
+  public synchronized void taskChanged(Task task, TaskField field, Object oldValue) {
+    invalidate(task);
+  }
+
+  /**
+   * Drops the cached JSON of a task the manager no longer holds, so deleted
+   * and replaced tasks do not take up the cache until they are evicted.
+   */
+  @Override
+  public synchronized void taskRemoved(Task task) {
+    invalidate(task);
+  }
+
+  /**
+   * Drops the cached JSON of a task.
+   *
+   * @param task The task whose JSON is out of date
+   */
+  public synchronized void invalidate(Task task) {
+    String json = fragments.remove(task);
+    if (json != null) {
+      cachedChars -= json.length() + ENTRY_OVERHEAD;
+    }
+    generation++;
+  }
+
+  /**
+   * Drops all cached JSON.
+   */
+  public synchronized void clear() {
+    fragments.clear();
+    cachedChars = 0;
+    arrayJson = null;
+    generation++;
+  }
+
+  /**
+   * Returns how many task objects were served from the cache.
+   *
+   * @return Number of cache hits
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how many task objects had to be serialized.
+   *
+   * @return Number of cache misses
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns how many task list arrays were served from the cache.
+   *
+   * @return Number of array cache hits
+   */
+  public synchronized long getArrayHitCount() {
+    return arrayHitCount;
+  }
+
+  /**
+   * Returns how many task list arrays had to be assembled.
+   *
+   * @return Number of array cache misses
+   */
+  public synchronized long getArrayMissCount() {
+    return arrayMissCount;
+  }
+
+  /**
+   * Returns the size held for single tasks, in characters including
+   * ENTRY_OVERHEAD per task.
+   *
+   * @return Cached size
+   */
+  public synchronized long getCachedChars() {
+    return cachedChars;
+  }
+
+  /**
+   * Evicts the least recently used tasks until the size limit is met.
+   */
+  private void evict() {
+    Iterator<String> eldest = fragments.values().iterator();
+    while (cachedChars > maxChars && eldest.hasNext()) {
+      cachedChars -= eldest.next().length() + ENTRY_OVERHEAD;
+      eldest.remove();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.prowork.model;
+
+/**
+ * Field naming of the two JSON representations of a task.
+ *
+ * The storage files use 'deadline' and 'type' and keep the completion time,
+ * while the JavaScript frontend expects 'dueDate' and 'taskType' and gets
+ * the display color of the task type.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public enum TaskJsonFormat {
+  /** Format of tasks.json and the journal. */
+  STORAGE("deadline", "type", true, false),
+  /** Format exchanged with the JavaScript frontend. */
+  BRIDGE("dueDate", "taskType", false, true);
+
+  private final String deadlineKey;
+  private final String typeKey;
+  private final boolean includeCompletedAt;
+  private final boolean includeColor;
+
+  TaskJsonFormat(String deadlineKey, String typeKey, boolean includeCompletedAt, boolean includeColor) {
+    this.deadlineKey = deadlineKey;
+    this.typeKey = typeKey;
+    this.includeCompletedAt = includeCompletedAt;
+    this.includeColor = includeColor;
+  }
+
+  public String getDeadlineKey() {
+    return deadlineKey;
+  }
+
+  public String getTypeKey() {
+    return typeKey;
+  }
+
+  public boolean includesCompletedAt() {
+    return includeCompletedAt;
+  }
+
+  public boolean includesColor() {
+    return includeColor;
+  }
+}
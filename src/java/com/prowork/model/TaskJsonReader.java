@@ -0,0 +1,847 @@
+package com.prowork.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser that reads tasks from JSON in a single pass.
+ * Counterpart of TaskJsonWriter; both share the field naming of TaskJsonFormat.
+ *
+ * The reader pulls characters from an underlying Reader through a fixed
+ * buffer and fills the task fields while it walks over each object, so no
+ * intermediate String is created per object or per key. Unknown keys are
+ * skipped. Malformed records are skipped as well, but every skipped record
+ * is reported with the line and column where the problem was found.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskJsonReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int FIELD_UNKNOWN = -1;
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_DEADLINE = 2;
+    private static final int FIELD_TYPE = 3;
+    private static final int FIELD_PRIORITY = 4;
+    private static final int FIELD_REPETITION = 5;
+    private static final int FIELD_NOTES = 6;
+    private static final int FIELD_COMPLETED = 7;
+    private static final int FIELD_COMPLETED_AT = 8;
+
+    private final Reader reader;
+    private final String[] fieldNames;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int column = 1;
+    private int depth;
+    private boolean inString;
+    private final StringBuilder value = new StringBuilder();
+    private final List<String> problems = new ArrayList<>();
+    /** Text of the record being read, up to the last refill of the buffer. */
+    private final StringBuilder record = new StringBuilder();
+    /** Start of the record in the buffer, or -1 if no record is being read. */
+    private int recordStart = -1;
+    private String skippedRecord;
+
+    /**
+     * Constructs a reader for the storage format on top of the given
+     * character stream. The stream is read in chunks, so it does not need
+     * to be buffered.
+     *
+     * @param reader The source of the JSON text
+     */
+    public TaskJsonReader(Reader reader) {
+        this(reader, TaskJsonFormat.STORAGE);
+    }
+
+    /**
+     * Constructs a reader for the given format on top of the given
+     * character stream.
+     *
+     * @param reader The source of the JSON text
+     * @param format The field naming used by the JSON text
+     */
+    public TaskJsonReader(Reader reader, TaskJsonFormat format) {
+        this.reader = reader;
+        this.fieldNames = new String[] {
+            "id", "name", format.getDeadlineKey(), format.getTypeKey(), "priority", "repetition", "notes", "completed", "completedAt"
+        };
+    }
+
+    /**
+     * Reads a JSON array of tasks.
+     *
+     * @return The successfully parsed tasks, in order
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public List<Task> readTasks() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        readTasks(tasks::add);
+        return tasks;
+    }
+
+    /**
+     * Reads a JSON array of tasks and hands each parsed task to the consumer.
+     * Empty input is treated as an empty array.
+     *
+     * @param consumer Receives each successfully parsed task, in order
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public void readTasks(Consumer<Task> consumer) throws IOException {
+        readArray(consumer, false);
+    }
+
+    /**
+     * Reads a JSON array of tasks and keeps a null in place of every
+     * skipped element, so each result lines up with its element, e.g. to
+     * report per-item results of a batch.
+     *
+     * @return The tasks, or null for each element that was skipped
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public List<Task> readTaskElements() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        readArray(tasks::add, true);
+        return tasks;
+    }
+
+    /**
+     * Reads a JSON array of strings, e.g. a list of task IDs.
+     * Null elements are kept as null.
+     *
+     * @return The strings, or null if the input is not an array of strings;
+     *         the problem is reported in getProblems
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public List<String> readStrings() throws IOException {
+        List<String> strings = new ArrayList<>();
+        try {
+            skipWhitespace();
+            expect('[');
+            skipWhitespace();
+            if (peek() == ']') {
+                next();
+                return strings;
+            }
+            int c;
+            do {
+                skipWhitespace();
+                strings.add(readNullableString());
+                skipWhitespace();
+                c = nextSeparator(']');
+            } while (c == ',');
+            return strings;
+        } catch (SyntaxException e) {
+            report(e.line, e.column, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a JSON array of tasks.
+     *
+     * @param consumer Receives each parsed task, in order
+     * @param keepSkipped Whether the consumer receives null for skipped elements
+     * @throws IOException if the underlying stream cannot be read
+     */
+    private void readArray(Consumer<Task> consumer, boolean keepSkipped) throws IOException {
+        skipWhitespace();
+        if (peek() == -1) {
+            return;
+        }
+        if (peek() != '[') {
+            report(line, column, "expected '[' at start of task list");
+            return;
+        }
+        next();
+        depth++;
+
+        skipWhitespace();
+        if (peek() == ']') {
+            next();
+            depth--;
+            return;
+        }
+
+        while (true) {
+            skipWhitespace();
+            int startLine = line;
+            int startColumn = column;
+            try {
+                Task task = parseTask(startLine, startColumn);
+                if (task != null || keepSkipped) {
+                    consumer.accept(task);
+                }
+            } catch (SyntaxException e) {
+                report(e.line, e.column, e.getMessage());
+                skipToNextElement();
+                if (keepSkipped) {
+                    consumer.accept(null);
+                }
+            }
+
+            skipWhitespace();
+            int c = peek();
+            if (c == ',') {
+                next();
+                continue;
+            }
+            if (c == ']') {
+                next();
+                depth--;
+                return;
+            }
+            if (c == -1) {
+                report(line, column, "unexpected end of input, expected ']'");
+            } else {
+                report(line, column, "expected ',' or ']' but found '" + (char) c + "'");
+            }
+            return;
+        }
+    }
+
+    /**
+     * Reads a single task object, e.g. one journal record.
+     * If the object is malformed, the rest of the current line is skipped.
+     *
+     * @return The parsed task, or null if the record was malformed
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public Task readTask() throws IOException {
+        skippedRecord = null;
+        skipWhitespace();
+        beginRecord();
+        try {
+            Task task = parseTask(line, column);
+            recordStart = -1;
+            return task;
+        } catch (SyntaxException e) {
+            report(e.line, e.column, e.getMessage());
+            skipLine();
+            skippedRecord = endRecord();
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next run of non-whitespace characters, e.g. a journal
+     * operation or an ID that is not quoted.
+     *
+     * @return The word, or null at the end of the input
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public String readWord() throws IOException {
+        skipWhitespace();
+        value.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && !isWhitespace(c)) {
+            value.append((char) next());
+        }
+        return value.length() > 0 ? value.toString() : null;
+    }
+
+    /**
+     * Reads a task ID written as a JSON string, e.g. in a journal record.
+     * A bare word is accepted as well, as written by older journals.
+     * If the string is malformed or not followed by whitespace, the rest of
+     * the current line is skipped.
+     *
+     * @return The ID, or null at the end of the input or if it was malformed
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public String readId() throws IOException {
+        skippedRecord = null;
+        skipWhitespace();
+        if (peek() != '"') {
+            return readWord();
+        }
+        beginRecord();
+        try {
+            readString();
+            int c = peek();
+            if (c != -1 && !isWhitespace(c)) {
+                throw unexpected(c, "end of record");
+            }
+            recordStart = -1;
+            return value.toString();
+        } catch (SyntaxException e) {
+            report(e.line, e.column, e.getMessage());
+            skipLine();
+            skippedRecord = endRecord();
+            return null;
+        }
+    }
+
+    /**
+     * Skips everything up to and including the next line break.
+     *
+     * @throws IOException if the underlying stream cannot be read
+     */
+    public void skipLine() throws IOException {
+        int c;
+        do {
+            c = next();
+        } while (c != -1 && c != '\n');
+        depth = 0;
+        inString = false;
+    }
+
+    /**
+     * Returns the text of the last record that readTask or readId had to
+     * skip, from its start up to and including the end of its line. A
+     * journal record that was cut off may have been continued by the next
+     * one on the same line, so the caller can look for it in this text.
+     *
+     * @return The skipped text, or null if the last record was read
+     */
+    public String getSkippedRecord() {
+        return skippedRecord;
+    }
+
+    /**
+     * Tells whether only whitespace is left in the input.
+     *
+     * @return true at the end of the input
+     * @throws IOException if the underlying stream cannot be read
+     */
+    boolean isAtEnd() throws IOException {
+        skipWhitespace();
+        return peek() == -1;
+    }
+
+    /**
+     * Returns a description of every skipped record, including its location.
+     *
+     * @return The problems found so far
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses one task object starting at the current position.
+     *
+     * @param startLine Line where the object starts, used for reports
+     * @param startColumn Column where the object starts, used for reports
+     * @return The task, or null if it is syntactically valid but incomplete
+     * @throws IOException if the underlying stream cannot be read
+     * @throws SyntaxException if the object is malformed
+     */
+    private Task parseTask(int startLine, int startColumn) throws IOException, SyntaxException {
+        String id = null;
+        String name = null;
+        LocalDate deadline = null;
+        TaskType type = TaskType.WORK;
+        Priority priority = Priority.MEDIUM;
+        RepetitionPattern repetition = RepetitionPattern.NONE;
+        String notes = null;
+        boolean completed = false;
+        LocalDateTime completedAt = null;
+
+        expect('{');
+        depth++;
+        skipWhitespace();
+        if (peek() == '}') {
+            next();
+            depth--;
+        } else {
+            int c;
+            do {
+                skipWhitespace();
+                readString();
+                int field = fieldIndex(value);
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+
+                int valueLine = line;
+                int valueColumn = column;
+                switch (field) {
+                    case FIELD_ID:
+                        id = readNullableString();
+                        break;
+                    case FIELD_NAME:
+                        name = readNullableString();
+                        break;
+                    case FIELD_NOTES:
+                        notes = readNullableString();
+                        break;
+                    case FIELD_DEADLINE:
+                        if (readNullableValue()) {
+                            deadline = parseDate(value, valueLine, valueColumn);
+                        }
+                        break;
+                    case FIELD_TYPE:
+                        if (readNullableValue()) {
+                            type = parseEnum(TaskType.values(), TaskType.WORK, valueLine, valueColumn);
+                        }
+                        break;
+                    case FIELD_PRIORITY:
+                        if (readNullableValue()) {
+                            priority = parseEnum(Priority.values(), Priority.MEDIUM, valueLine, valueColumn);
+                        }
+                        break;
+                    case FIELD_REPETITION:
+                        if (readNullableValue()) {
+                            repetition = parseEnum(RepetitionPattern.values(), RepetitionPattern.NONE, valueLine, valueColumn);
+                        }
+                        break;
+                    case FIELD_COMPLETED:
+                        completed = readBoolean();
+                        break;
+                    case FIELD_COMPLETED_AT:
+                        if (readNullableValue()) {
+                            completedAt = parseDateTime(value, valueLine, valueColumn);
+                        }
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+
+                skipWhitespace();
+                c = nextSeparator('}');
+            } while (c == ',');
+            depth--;
+        }
+
+        // Validate required fields
+        if (name == null || name.isEmpty()) {
+            report(startLine, startColumn, "task has no name");
+            return null;
+        }
+        if (deadline == null) {
+            report(startLine, startColumn, "task has no deadline");
+            return null;
+        }
+
+        Task task = id != null && !id.isEmpty()
+            ? new Task(id, name, deadline, type, priority, repetition)
+            : new Task(name, deadline, type, priority, repetition);
+        if (notes != null && !notes.isEmpty()) {
+            task.setNotes(notes);
+        }
+        if (completed) {
+            task.setCompleted(true);
+        }
+        // Keep the stored timestamp instead of the one setCompleted stamps;
+        // older files without one keep the time of their first load
+        if (completedAt != null || !completed) {
+            task.setCompletedAt(completedAt);
+        }
+        return task;
+    }
+
+    /**
+     * Reads a string value or the literal null.
+     *
+     * @return The string, or null for the null literal
+     */
+    private String readNullableString() throws IOException, SyntaxException {
+        return readNullableValue() ? value.toString() : null;
+    }
+
+    /**
+     * Reads a string value into the value buffer, or consumes the literal null.
+     *
+     * @return true if a string was read, false for null
+     */
+    private boolean readNullableValue() throws IOException, SyntaxException {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return false;
+        }
+        readString();
+        return true;
+    }
+
+    /**
+     * Reads the literal true or false.
+     *
+     * @return The boolean value
+     */
+    private boolean readBoolean() throws IOException, SyntaxException {
+        if (peek() == 't') {
+            expectLiteral("true");
+            return true;
+        }
+        if (peek() == 'f') {
+            expectLiteral("false");
+            return false;
+        }
+        throw unexpected(peek(), "true or false");
+    }
+
+    /**
+     * Reads a quoted string into the value buffer, resolving all escapes.
+     * Runs of plain characters are copied from the input buffer in one step.
+     */
+    private void readString() throws IOException, SyntaxException {
+        expect('"');
+        value.setLength(0);
+        inString = true;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("unterminated string");
+            }
+
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\' || c < 0x20) {
+                    break;
+                }
+                position++;
+            }
+            value.append(buffer, start, position - start);
+            column += position - start;
+            if (position == limit) {
+                continue;
+            }
+
+            char c = buffer[position];
+            if (c == '"') {
+                next();
+                inString = false;
+                return;
+            }
+            if (c == '\\') {
+                next();
+                readEscape();
+                continue;
+            }
+            throw error("unescaped control character in string");
+        }
+    }
+
+    /**
+     * Reads the escape sequence following a backslash.
+     */
+    private void readEscape() throws IOException, SyntaxException {
+        int c = next();
+        switch (c) {
+            case '"': value.append('"'); break;
+            case '\\': value.append('\\'); break;
+            case '/': value.append('/'); break;
+            case 'b': value.append('\b'); break;
+            case 'f': value.append('\f'); break;
+            case 'n': value.append('\n'); break;
+            case 'r': value.append('\r'); break;
+            case 't': value.append('\t'); break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw error("invalid unicode escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                value.append((char) code);
+                break;
+            case -1:
+                throw error("unterminated string");
+            default:
+                throw error("invalid escape '\\" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Skips any JSON value, including nested objects and arrays.
+     */
+    private void skipValue() throws IOException, SyntaxException {
+        int c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            char close = c == '{' ? '}' : ']';
+            next();
+            depth++;
+            skipWhitespace();
+            if (peek() == close) {
+                next();
+                depth--;
+                return;
+            }
+            do {
+                skipWhitespace();
+                if (close == '}') {
+                    readString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                }
+                skipValue();
+                skipWhitespace();
+                c = nextSeparator(close);
+            } while (c == ',');
+            depth--;
+        } else {
+            // Number or literal
+            int length = 0;
+            while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+                next();
+                length++;
+            }
+            if (length == 0) {
+                throw unexpected(c, "a value");
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of a malformed array element, so parsing can continue
+     * at the following ',' or ']'. Strings and nesting are respected.
+     */
+    private void skipToNextElement() throws IOException {
+        int baseDepth = 1;
+        boolean escaped = false;
+        int c;
+        while ((c = peek()) != -1) {
+            if (inString) {
+                next();
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"' || c == '\n') {
+                    inString = false;
+                }
+                continue;
+            }
+            if (depth <= baseDepth && (c == ',' || c == ']')) {
+                depth = baseDepth;
+                return;
+            }
+            next();
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Parses an ISO date (yyyy-MM-dd) from the value buffer.
+     */
+    private LocalDate parseDate(CharSequence text, int valueLine, int valueColumn) throws SyntaxException {
+        if (text.length() == 0) {
+            return null;
+        }
+        try {
+            if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+                int year = digits(text, 0, 4);
+                int month = digits(text, 5, 7);
+                int day = digits(text, 8, 10);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    return LocalDate.of(year, month, day);
+                }
+            }
+            return LocalDate.parse(text);
+        } catch (DateTimeException e) {
+            throw new SyntaxException("invalid date '" + text + "'", valueLine, valueColumn);
+        }
+    }
+
+    /**
+     * Parses an ISO date-time such as a completion timestamp.
+     * An empty value yields null.
+     */
+    private LocalDateTime parseDateTime(CharSequence text, int valueLine, int valueColumn) throws SyntaxException {
+        if (text.length() == 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeException e) {
+            throw new SyntaxException("invalid date-time '" + text + "'", valueLine, valueColumn);
+        }
+    }
+
+    /**
+     * Parses the decimal digits in the given range.
+     *
+     * @return The number, or -1 if a character is not a digit
+     */
+    private static int digits(CharSequence text, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Finds the enum constant whose name matches the value buffer.
+     * An empty value yields the default.
+     */
+    private <E extends Enum<E>> E parseEnum(E[] constants, E defaultValue, int valueLine, int valueColumn)
+            throws SyntaxException {
+        if (value.length() == 0) {
+            return defaultValue;
+        }
+        for (E constant : constants) {
+            if (constant.name().contentEquals(value)) {
+                return constant;
+            }
+        }
+        throw new SyntaxException("unknown value '" + value + "'", valueLine, valueColumn);
+    }
+
+    /**
+     * Maps a key to one of the known task fields.
+     */
+    private int fieldIndex(CharSequence key) {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].contentEquals(key)) {
+                return i;
+            }
+        }
+        return FIELD_UNKNOWN;
+    }
+
+    /**
+     * Consumes a ',' or the given closing character. Anything else is left
+     * in the input, so recovery starts at the offending character.
+     *
+     * @return The consumed character
+     */
+    private int nextSeparator(char close) throws IOException, SyntaxException {
+        int c = peek();
+        if (c != ',' && c != close) {
+            throw unexpected(c, "',' or '" + close + "'");
+        }
+        return next();
+    }
+
+    private void expect(char expected) throws IOException, SyntaxException {
+        int c = peek();
+        if (c != expected) {
+            throw unexpected(c, "'" + expected + "'");
+        }
+        next();
+    }
+
+    private void expectLiteral(String literal) throws IOException, SyntaxException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (peek() != literal.charAt(i)) {
+                throw unexpected(peek(), literal);
+            }
+            next();
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && isWhitespace(c)) {
+            next();
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        return c;
+    }
+
+    private void beginRecord() {
+        record.setLength(0);
+        recordStart = position;
+    }
+
+    private String endRecord() {
+        record.append(buffer, recordStart, position - recordStart);
+        recordStart = -1;
+        return record.toString();
+    }
+
+    private boolean fill() throws IOException {
+        if (recordStart >= 0) {
+            record.append(buffer, recordStart, limit - recordStart);
+            recordStart = 0;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    private void report(int problemLine, int problemColumn, String message) {
+        problems.add("line " + problemLine + ", column " + problemColumn + ": " + message);
+    }
+
+    private SyntaxException error(String message) {
+        return new SyntaxException(message, line, column);
+    }
+
+    private SyntaxException unexpected(int c, String expected) {
+        if (c == -1) {
+            return error("unexpected end of input, expected " + expected);
+        }
+        return error("expected " + expected + " but found '" + (char) c + "'");
+    }
+
+    /**
+     * Signals a malformed record at a specific location.
+     */
+    private static class SyntaxException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int line;
+        private final int column;
+
+        SyntaxException(String message, int line, int column) {
+            super(message);
+            this.line = line;
+            this.column = column;
+        }
+    }
+}
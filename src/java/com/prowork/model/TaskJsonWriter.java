@@ -0,0 +1,221 @@
+package com.prowork.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Streaming writer that serializes tasks as JSON directly into a Writer.
+ *
+ * Used for both representations of a task: the storage files (written
+ * through a buffered file channel) and the JSON handed to the JavaScript
+ * frontend (written into a reused buffer). Keys and constant values are
+ * written as literals, strings are escaped in runs straight from the field
+ * value and dates are written digit by digit, so no temporary String is
+ * created per field.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskJsonWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final TaskJsonFormat format;
+    private final String deadlineKey;
+    private final String typeKey;
+    private final boolean pretty;
+    private boolean firstElement = true;
+
+    /**
+     * Constructs a writer for the given sink and format.
+     * Storage arrays are written with one task per line.
+     *
+     * @param out The sink to write to; should be buffered
+     * @param format The field naming to use
+     */
+    public TaskJsonWriter(Writer out, TaskJsonFormat format) {
+        this.out = out;
+        this.format = format;
+        this.deadlineKey = ",\"" + format.getDeadlineKey() + "\":\"";
+        this.typeKey = "\",\"" + format.getTypeKey() + "\":\"";
+        this.pretty = format == TaskJsonFormat.STORAGE;
+    }
+
+    /**
+     * Writes a complete JSON array of tasks. Null entries are skipped.
+     *
+     * @param tasks The tasks to write
+     * @throws IOException if the sink cannot be written
+     */
+    public void writeTasks(Iterable<Task> tasks) throws IOException {
+        beginArray();
+        for (Task task : tasks) {
+            if (task != null) {
+                writeElement(task);
+            }
+        }
+        endArray();
+    }
+
+    /**
+     * Starts a JSON array.
+     *
+     * @throws IOException if the sink cannot be written
+     */
+    public void beginArray() throws IOException {
+        out.write('[');
+        firstElement = true;
+    }
+
+    /**
+     * Writes a task as the next element of the current array.
+     *
+     * @param task The task to write
+     * @throws IOException if the sink cannot be written
+     */
+    public void writeElement(Task task) throws IOException {
+        if (!firstElement) {
+            out.write(',');
+        }
+        if (pretty) {
+            out.write("\n  ");
+        }
+        firstElement = false;
+        writeTask(task);
+    }
+
+    /**
+     * Ends the current JSON array.
+     *
+     * @throws IOException if the sink cannot be written
+     */
+    public void endArray() throws IOException {
+        if (pretty && !firstElement) {
+            out.write('\n');
+        }
+        out.write(']');
+    }
+
+    /**
+     * Writes a single task as a JSON object.
+     * Missing fields are written with the same defaults the reader applies.
+     *
+     * @param task The task to write
+     * @throws IOException if the sink cannot be written
+     */
+    public void writeTask(Task task) throws IOException {
+        TaskType type = task.getType() != null ? task.getType() : TaskType.WORK;
+        Priority priority = task.getPriority() != null ? task.getPriority() : Priority.MEDIUM;
+        RepetitionPattern repetition = task.getRepetition() != null ? task.getRepetition() : RepetitionPattern.NONE;
+
+        out.write("{\"id\":\"");
+        writeEscaped(task.getId());
+        out.write("\",\"name\":\"");
+        writeEscaped(task.getName());
+        out.write('"');
+        out.write(deadlineKey);
+        writeDate(task.getDeadline());
+        out.write(typeKey);
+        out.write(type.name());
+        out.write("\",\"priority\":\"");
+        out.write(priority.name());
+        out.write("\",\"repetition\":\"");
+        out.write(repetition.name());
+        out.write("\",\"notes\":\"");
+        writeEscaped(task.getNotes());
+        out.write(task.isCompleted() ? "\",\"completed\":true" : "\",\"completed\":false");
+
+        if (format.includesCompletedAt()) {
+            if (task.getCompletedAt() != null) {
+                out.write(",\"completedAt\":\"");
+                out.write(task.getCompletedAt().toString());
+                out.write('"');
+            } else {
+                out.write(",\"completedAt\":null");
+            }
+        }
+        if (format.includesColor()) {
+            out.write(",\"color\":\"");
+            out.write(type.getColor());
+            out.write('"');
+        }
+        out.write('}');
+    }
+
+    /**
+     * Writes a string with JSON escapes, without the surrounding quotes.
+     * Runs of characters that need no escaping are written in one call.
+     *
+     * @param str The string to write; null is written as empty string
+     * @throws IOException if the sink cannot be written
+     */
+    public void writeEscaped(String str) throws IOException {
+        if (str == null) {
+            return;
+        }
+
+        int runStart = 0;
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+
+            if (i > runStart) {
+                out.write(str, runStart, i - runStart);
+            }
+            runStart = i + 1;
+
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                case '\b': out.write("\\b"); break;
+                case '\f': out.write("\\f"); break;
+                default:
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+                    break;
+            }
+        }
+        if (runStart < length) {
+            out.write(str, runStart, length - runStart);
+        }
+    }
+
+    /**
+     * Writes a date in ISO format (yyyy-MM-dd).
+     *
+     * @param date The date to write; null is written as empty string
+     * @throws IOException if the sink cannot be written
+     */
+    private void writeDate(LocalDate date) throws IOException {
+        if (date == null) {
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            out.write(date.toString());
+            return;
+        }
+        writeDigits(year, 4);
+        out.write('-');
+        writeDigits(date.getMonthValue(), 2);
+        out.write('-');
+        writeDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void writeDigits(int number, int width) throws IOException {
+        if (width == 4) {
+            out.write('0' + number / 1000);
+            out.write('0' + number / 100 % 10);
+        }
+        out.write('0' + number / 10 % 10);
+        out.write('0' + number % 10);
+    }
+}
@@ -3,42 +3,152 @@ package com.prowork.model;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Manages the collection of tasks and provides operations for task manipulation.
  * 
- * This class handles all CRUD operations for tasks and automatically persists
- * changes to disk using the TaskPersistence class. Tasks are loaded from disk
- * on initialization and saved after every modification.
+ * Tasks are loaded from a TaskStore, by default the JSON TaskPersistence,
+ * and every modification is saved in the background. Writers are
+ * serialized on the manager's lock, which is never held while a file is
+ * written; readers do not take it and are served from an immutable snapshot
+ * and from indexes by ID, deadline, words and sort order. Call close() on
+ * shutdown to write anything still pending.
  * 
  * @author Chris
  * @version 1.0
  */
 public class TaskManager {
-  private List<Task> tasks;
-  private TaskPersistence persistence;
+  /**
+   * All tasks keyed by ID, in insertion order, so lookups and deletions take
+   * constant time while getAllTasks keeps the order. Guarded by this.
+   */
+  private Map<String, Task> tasks;
+  /** The same tasks for lock-free lookups by ID. */
+  private final Map<String, Task> tasksById = new ConcurrentHashMap<>();
+  /**
+   * Immutable view for readers; null after a change until the next read.
+   * It is built on the first read after a change with a single array copy
+   * and shared by all reads until the next one. Modifications made through
+   * modifyTask are copy-on-write, so a task seen by a reader never changes
+   * underneath it; only callers that use the setters of a managed task
+   * directly can observe a task mid-update.
+   */
+  private volatile Snapshot snapshot;
+  /** Answers date and range queries; has a short lock of its own. */
+  private final DeadlineIndex deadlineIndex = new DeadlineIndex();
+  /** Tasks with a repetition pattern, expanded lazily by the RecurrenceExpander. */
+  private final Set<Task> repeatingTasks = new LinkedHashSet<>();
+  /** Names and notes by word, so searchTasks finds word prefixes without a scan. */
+  private final SearchIndex searchIndex = new SearchIndex();
+  /**
+   * Sorted views by their filter and sort keys, built on first use and then
+   * kept in order as tasks change. At most prowork.maxSortedViews (default 8)
+   * are kept. Changed while holding the lock on this.
+   */
+  private final Map<List<Object>, SortedTaskView> sortedViews = new ConcurrentHashMap<>();
+  private final int maxSortedViews = Math.max(1, Integer.getInteger("prowork.maxSortedViews", 8));
+  private final AtomicLong sortedViewUses = new AtomicLong();
+  private final TaskSortKey[] defaultSortKeys = parseSortKeys(
+      System.getProperty("prowork.sortKeys", "PRIORITY,DEADLINE,NAME"));
+  /** Registered with every managed task, so the indexes follow changes made through its setters. */
+  private final TaskChangeListener changeListener = this::onTaskChanged;
+  /** Listeners notified after a managed task was changed through a setter. */
+  private final List<TaskChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+  /**
+   * The latest additions, updates and deletions by version
+   * (prowork.changeLogSize, default 1024), so views can fetch deltas
+   * through getChangesSince instead of reloading every task.
+   */
+  private final ChangeLog changeLog = new ChangeLog(Integer.getInteger("prowork.changeLogSize", 1024));
+  private final TaskStore persistence;
+  /**
+   * Compressed monthly segments of completed tasks older than
+   * prowork.archiveAfterDays (default 30; 0 keeps them), moved there on
+   * startup and by archiveCompletedTasks.
+   */
+  private final TaskArchive archive;
+  /**
+   * Whether modifications are appended to the store's journal, so their cost
+   * depends on the changed tasks only. False with prowork.journal=false or a
+   * store without a journal; the full file is rewritten then.
+   */
+  private final boolean journaling;
+  /**
+   * Writes pending changes after a quiet period (prowork.saveDelayMs,
+   * default 250) or at the latest after prowork.saveMaxDelayMs (default
+   * 2000); null if the delay is 0 and saves are synchronous.
+   */
+  private final SaveScheduler saveScheduler;
+  private final Object flushLock = new Object();
+  /** Tasks changed since the last save, keyed by ID; null marks a deletion. */
+  private final Map<String, Task> pendingChanges = new LinkedHashMap<>();
+  private long pendingSaveRequests;
+  private long saveRequestCount;
+  private long performedSaveCount;
+  private long mergedSaveCount;
+  /** Set by close; modifications are rejected afterwards. Guarded by this. */
+  private boolean closed;
 
   /**
    * Constructs a new TaskManager and loads existing tasks from disk.
    * If no tasks file exists, starts with an empty list.
+   * The store is selected by the system property prowork.store.
    */
   public TaskManager() {
-    this.persistence = new TaskPersistence();
-    this.tasks = persistence.loadTasks();
+    this(TaskStore.open());
+  }
+
+  /**
+   * Constructs a TaskManager that loads and saves its tasks in the given store.
+   * 
+   * @param store The store to use
+   */
+  public TaskManager(TaskStore store) {
+    this.persistence = store;
+    this.journaling = store.supportsJournal()
+        && Boolean.parseBoolean(System.getProperty("prowork.journal", "true"));
+    this.tasks = indexTasks(persistence.loadTasks());
+    this.archive = new TaskArchive(store.getTasksFilePath().resolveSibling("archive"));
+
+    long saveDelay = Long.getLong("prowork.saveDelayMs", 250);
+    long saveMaxDelay = Long.getLong("prowork.saveMaxDelayMs", 2000);
+    this.saveScheduler = saveDelay > 0 ? new SaveScheduler(this::flush, saveDelay, saveMaxDelay) : null;
     System.out.println("TaskManager initialized with " + tasks.size() + " tasks");
+
+    int archiveAfterDays = Integer.getInteger("prowork.archiveAfterDays", 30);
+    if (archiveAfterDays > 0) {
+      archiveCompletedTasks(archiveAfterDays);
+    }
   }
 
   /**
    * Adds a new task to the manager and persists to disk.
+   * A task with the same ID, e.g. from an earlier import, is replaced.
    * 
    * @param task The task to add
    */
   public void addTask(Task task) {
-    tasks.add(task);
-    save();
+    synchronized (this) {
+      ensureOpen();
+      put(task);
+      pendingChanges.put(task.getId(), task);
+      snapshot = null;
+    }
+    requestSave();
   }
 
   /**
@@ -48,13 +158,203 @@ public class TaskManager {
    * @return true if task was found and deleted, false otherwise
    */
   public boolean deleteTask(String id) {
-    boolean removed = tasks.removeIf(task -> task.getId().equals(id));
+    boolean removed;
+    synchronized (this) {
+      ensureOpen();
+      Task task = tasks.remove(id);
+      removed = task != null;
+      if (removed) {
+        detach(task);
+        changeLog.record(id, ChangeLog.Kind.DELETED);
+        pendingChanges.put(id, null);
+        snapshot = null;
+      }
+    }
     if (removed) {
-      save();
+      requestSave();
     }
     return removed;
   }
 
+  /**
+   * Persists modifications made to a task that is already managed.
+   * Call this after changing a task through its setters. Readers may see
+   * such a task while it is being changed; prefer modifyTask.
+   * 
+   * @param task The modified task
+   */
+  public void updateTask(Task task) {
+    synchronized (this) {
+      ensureOpen();
+      if (tasks.get(task.getId()) == task) {
+        changeLog.record(task.getId(), ChangeLog.Kind.UPDATED);
+      }
+      pendingChanges.put(task.getId(), task);
+    }
+    requestSave();
+  }
+
+  /**
+   * Modifies a task and persists the change to disk.
+   * 
+   * The modification is applied to a copy of the task, which then replaces
+   * the original under the manager's lock. Readers keep seeing the old task
+   * until the change is complete and never see a half-updated one. The
+   * modification must not change the task's ID.
+   * 
+   * @param id The ID of the task
+   * @param modification Changes the fields of the copy through its setters
+   * @return true if the task was found, false otherwise
+   */
+  public boolean modifyTask(String id, Consumer<Task> modification) {
+    synchronized (this) {
+      ensureOpen();
+      Task current = tasks.get(id);
+      if (current == null) {
+        return false;
+      }
+      Task updated = new Task(current);
+      modification.accept(updated);
+      if (!id.equals(updated.getId())) {
+        throw new IllegalArgumentException("modifyTask must not change the task ID");
+      }
+
+      tasks.put(id, updated);
+      replace(current, updated);
+      changeLog.record(id, ChangeLog.Kind.UPDATED);
+      pendingChanges.put(id, updated);
+      snapshot = null;
+    }
+    requestSave();
+    return true;
+  }
+
+  /**
+   * Changes the deadline of a task and persists the change to disk.
+   * 
+   * @param id The ID of the task
+   * @param deadline The new deadline
+   * @return true if the task was found, false otherwise
+   */
+  public boolean rescheduleTask(String id, LocalDate deadline) {
+    return modifyTask(id, task -> task.setDeadline(deadline));
+  }
+
+  /**
+   * Adds several tasks at once. All tasks are added under one lock and
+   * persisted with a single save request, instead of one per task.
+   * Tasks with an ID that is already used replace the earlier task, as in
+   * addTask.
+   *
+   * @param newTasks The tasks to add
+   */
+  public void addTasks(Collection<Task> newTasks) {
+    if (newTasks.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      ensureOpen();
+      for (Task task : newTasks) {
+        put(task);
+        pendingChanges.put(task.getId(), task);
+      }
+      snapshot = null;
+    }
+    requestSave();
+  }
+
+  /**
+   * Deletes several tasks at once with a single save request.
+   *
+   * @param ids The IDs of the tasks to delete
+   * @return For each ID, whether the task was found and deleted
+   */
+  public boolean[] deleteTasks(List<String> ids) {
+    boolean[] removed = new boolean[ids.size()];
+    boolean any = false;
+    synchronized (this) {
+      ensureOpen();
+      for (int i = 0; i < ids.size(); i++) {
+        String id = ids.get(i);
+        Task task = id != null ? tasks.remove(id) : null;
+        if (task != null) {
+          detach(task);
+          changeLog.record(id, ChangeLog.Kind.DELETED);
+          pendingChanges.put(id, null);
+          removed[i] = true;
+          any = true;
+        }
+      }
+      if (any) {
+        snapshot = null;
+      }
+    }
+    if (any) {
+      requestSave();
+    }
+    return removed;
+  }
+
+  /**
+   * Modifies several tasks at once with a single save request.
+   *
+   * Each modification is applied to a copy of its task like in modifyTask,
+   * and all copies replace their originals under one lock. If a modification
+   * throws, the tasks modified before it keep their changes and are saved.
+   *
+   * @param ids The IDs of the tasks
+   * @param modifications One modification per ID, in the same order
+   * @return For each ID, whether the task was found and modified
+   */
+  public boolean[] modifyTasks(List<String> ids, List<? extends Consumer<Task>> modifications) {
+    if (ids.size() != modifications.size()) {
+      throw new IllegalArgumentException("Need one modification per task ID");
+    }
+    boolean[] modified = new boolean[ids.size()];
+    boolean any = false;
+    try {
+      synchronized (this) {
+        ensureOpen();
+        for (int i = 0; i < ids.size(); i++) {
+          String id = ids.get(i);
+          Task current = id != null ? tasks.get(id) : null;
+          if (current == null) {
+            continue;
+          }
+          Task updated = new Task(current);
+          modifications.get(i).accept(updated);
+          if (!id.equals(updated.getId())) {
+            throw new IllegalArgumentException("modifyTasks must not change the task ID");
+          }
+
+          tasks.put(id, updated);
+          replace(current, updated);
+          changeLog.record(id, ChangeLog.Kind.UPDATED);
+          pendingChanges.put(id, updated);
+          snapshot = null;
+          modified[i] = true;
+          any = true;
+        }
+      }
+    } finally {
+      if (any) {
+        requestSave();
+      }
+    }
+    return modified;
+  }
+
+  /**
+   * Marks several tasks as completed with a single save request.
+   *
+   * @param ids The IDs of the tasks
+   * @return For each ID, whether the task was found
+   */
+  public boolean[] completeTasks(List<String> ids) {
+    Consumer<Task> complete = task -> task.setCompleted(true);
+    return modifyTasks(ids, Collections.nCopies(ids.size(), complete));
+  }
+
   /**
    * Retrieves a task by its ID.
    * 
@@ -62,19 +362,16 @@ public class TaskManager {
    * @return The task with the given ID, or null if not found
    */
   public Task getTask(String id) {
-    return tasks.stream()
-        .filter(task -> task.getId().equals(id))
-        .findFirst()
-        .orElse(null);
+    return tasksById.get(id);
   }
 
   /**
-   * Returns a copy of all tasks.
+   * Returns all tasks in insertion order.
    * 
-   * @return A new ArrayList containing all tasks
+   * @return An unmodifiable snapshot of all tasks
    */
   public List<Task> getAllTasks() {
-    return new ArrayList<>(tasks);
+    return snapshot().tasks;
   }
 
   /**
@@ -84,9 +381,149 @@ public class TaskManager {
    * @return List of tasks with the given deadline
    */
   public List<Task> getTasksForDate(LocalDate date) {
-    return tasks.stream()
-        .filter(task -> task.getDeadline().equals(date))
-        .collect(Collectors.toList());
+    return deadlineIndex.tasksOn(date);
+  }
+
+  /**
+   * Returns all tasks with a deadline in the given range, ordered by deadline.
+   * Uses the deadline index, so the cost depends on the size of the result.
+   * 
+   * @param from The first date of the range (inclusive)
+   * @param to The last date of the range (inclusive)
+   * @return List of tasks due in the range
+   */
+  public List<Task> getTasksInRange(LocalDate from, LocalDate to) {
+    return deadlineIndex.tasksInRange(from, to);
+  }
+
+  /**
+   * Counts the tasks due on each day of the given range.
+   * Days without tasks are not included.
+   * 
+   * @param from The first date of the range (inclusive)
+   * @param to The last date of the range (inclusive)
+   * @return Number of tasks per day, ordered by date
+   */
+  public Map<LocalDate, Integer> countTasksPerDay(LocalDate from, LocalDate to) {
+    return deadlineIndex.countPerDay(from, to);
+  }
+
+  /**
+   * Returns every occurrence of a task within a date window, ordered by date.
+   * Repeating tasks appear once per repetition in the window.
+   * 
+   * @param from The first date of the window (inclusive)
+   * @param to The last date of the window (inclusive)
+   * @return List of occurrences in the window
+   */
+  public List<Occurrence> getOccurrencesInRange(LocalDate from, LocalDate to) {
+    List<Occurrence> occurrences = new ArrayList<>();
+    iterateOccurrences(from, to).forEachRemaining(occurrences::add);
+    return occurrences;
+  }
+
+  /**
+   * Lazily iterates every occurrence of a task within a date window.
+   * One-off tasks come from the deadline index; repeating tasks are
+   * expanded on demand and merged in date order.
+   * 
+   * @param from The first date of the window (inclusive)
+   * @param to The last date of the window (inclusive)
+   * @return Iterator over the occurrences, ordered by date
+   */
+  public Iterator<Occurrence> iterateOccurrences(LocalDate from, LocalDate to) {
+    Snapshot current = snapshot();
+    List<Task> oneOffTasks = new ArrayList<>();
+    for (Task task : deadlineIndex.tasksInRange(from, to)) {
+      if (!task.isRepeating()) {
+        oneOffTasks.add(task);
+      }
+    }
+
+    List<Task> series = new ArrayList<>();
+    for (Task task : current.repeatingTasks) {
+      if (task.getDeadline() != null && !task.getDeadline().isAfter(to)) {
+        series.add(task);
+      }
+    }
+    return RecurrenceExpander.merge(oneOffTasks, series, from, to);
+  }
+
+  /**
+   * Registers a listener that is notified after any managed task was
+   * changed through one of its setters, once the indexes are up to date,
+   * and after a task was dropped by the manager.
+   * 
+   * @param listener The listener to add
+   */
+  public void addChangeListener(TaskChangeListener listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener registered with addChangeListener.
+   * 
+   * @param listener The listener to remove
+   */
+  public void removeChangeListener(TaskChangeListener listener) {
+    changeListeners.remove(listener);
+  }
+
+  /**
+   * Returns the current version of the task list.
+   * 
+   * @return The version of the last change
+   */
+  public synchronized long getVersion() {
+    return changeLog.getVersion();
+  }
+
+  /**
+   * Returns the tasks added, updated and deleted since the given version.
+   * If those changes are no longer known, for example because the caller
+   * is too far behind or passed a negative version, a full resync with all
+   * tasks is returned instead.
+   * 
+   * @param version The version the caller has seen
+   * @return The changes since that version
+   */
+  public TaskChanges getChangesSince(long version) {
+    return getChangesSince(version, -1);
+  }
+
+  /**
+   * Returns the tasks added, updated and deleted since the given version,
+   * for a view that reloads on its own what it shows, like a page of a
+   * sorted view. If the changes are no longer known or more than limit
+   * tasks changed, a full resync without any tasks is returned, so the
+   * result never holds more than limit tasks.
+   * 
+   * @param version The version the caller has seen
+   * @param limit The maximum number of changed tasks to return; negative
+   *        for a full resync with all tasks, as in getChangesSince(long)
+   * @return The changes since that version
+   */
+  public synchronized TaskChanges getChangesSince(long version, int limit) {
+    Map<String, ChangeLog.Kind> changes = changeLog.changesSince(version);
+    if (changes == null || (limit >= 0 && changes.size() > limit)) {
+      List<Task> all = limit < 0 ? getAllTasks() : new ArrayList<>();
+      return new TaskChanges(changeLog.getVersion(), true, all, new ArrayList<>(), new ArrayList<>());
+    }
+
+    List<Task> added = new ArrayList<>();
+    List<Task> updated = new ArrayList<>();
+    List<String> deletedIds = new ArrayList<>();
+    for (Map.Entry<String, ChangeLog.Kind> change : changes.entrySet()) {
+      Task task = tasks.get(change.getKey());
+      if (change.getValue() == ChangeLog.Kind.DELETED || task == null) {
+        deletedIds.add(change.getKey());
+      } else if (change.getValue() == ChangeLog.Kind.ADDED) {
+        added.add(task);
+      } else {
+        updated.add(task);
+      }
+    }
+    return new TaskChanges(changeLog.getVersion(), false, added, updated, deletedIds);
   }
 
   /**
@@ -96,23 +533,101 @@ public class TaskManager {
    * @return List of tasks matching the given type
    */
   public List<Task> getTasksByType(TaskType type) {
-    return tasks.stream()
+    return snapshot().tasks.stream()
         .filter(task -> task.getType() == type)
         .collect(Collectors.toList());
   }
 
   /**
    * Returns tasks sorted by priority, then deadline, then name.
+   * The keys can be changed with the system property prowork.sortKeys,
+   * e.g. "DEADLINE,PRIORITY".
    * 
    * @return Sorted list of tasks
    */
   public List<Task> getSortedTasks() {
-    return tasks.stream()
-        .sorted(Comparator
-            .comparing(Task::getPriority)
-            .thenComparing(Task::getDeadline)
-            .thenComparing(Task::getName))
-        .collect(Collectors.toList());
+    return getSortedView(defaultSortKeys).getTasks();
+  }
+
+  /**
+   * Returns a view of all tasks sorted by the given keys.
+   * 
+   * @param keys The sort keys, most significant first; none for the
+   *        order of getSortedTasks
+   * @return The sorted view
+   * @see #getSortedView(TaskFilter, TaskSortKey...)
+   */
+  public SortedTaskView getSortedView(TaskSortKey... keys) {
+    return getSortedView(TaskFilter.ALL, keys);
+  }
+
+  /**
+   * Returns a view of the tasks passing a filter, sorted by the given keys.
+   * The first call for a filter and keys sorts the tasks once; the view is
+   * then kept sorted as tasks change, and the same view is returned for the
+   * same filter and keys while it is cached. If more views than
+   * prowork.maxSortedViews exist, the one used least recently is dropped and
+   * no longer kept up to date, so callers should get the view again instead
+   * of holding on to it.
+   * 
+   * @param filter The tasks to include
+   * @param keys The sort keys, most significant first; none for the
+   *        order of getSortedTasks
+   * @return The sorted view
+   */
+  public SortedTaskView getSortedView(TaskFilter filter, TaskSortKey... keys) {
+    TaskSortKey[] sortKeys = keys.length > 0 ? keys.clone() : defaultSortKeys;
+    List<Object> viewKey = new ArrayList<>(sortKeys.length + 1);
+    viewKey.add(filter);
+    viewKey.addAll(Arrays.asList(sortKeys));
+    SortedTaskView view = sortedViews.get(viewKey);
+    if (view != null) {
+      view.touch(sortedViewUses.incrementAndGet());
+      return view;
+    }
+    synchronized (this) {
+      view = sortedViews.get(viewKey);
+      if (view == null) {
+        while (sortedViews.size() >= maxSortedViews) {
+          dropLeastUsedView();
+        }
+        view = new SortedTaskView(filter, sortKeys);
+        view.addAll(tasks.values());
+        sortedViews.put(viewKey, view);
+      }
+      view.touch(sortedViewUses.incrementAndGet());
+      return view;
+    }
+  }
+
+  /**
+   * Drops the sorted view that was used least recently.
+   * Must be called while holding the lock on this manager.
+   */
+  private void dropLeastUsedView() {
+    Map.Entry<List<Object>, SortedTaskView> eldest = null;
+    for (Map.Entry<List<Object>, SortedTaskView> entry : sortedViews.entrySet()) {
+      if (eldest == null || entry.getValue().getLastUsed() < eldest.getValue().getLastUsed()) {
+        eldest = entry;
+      }
+    }
+    if (eldest != null) {
+      sortedViews.remove(eldest.getKey());
+    }
+  }
+
+  /**
+   * Finds tasks by the words in their name and notes. Every word of the
+   * query must match the start of a word in the task, ignoring case.
+   * Archived tasks are not searched.
+   * 
+   * @param query The words to search for
+   * @param limit Maximum number of results, or 0 for all
+   * @return Matching tasks, active ones first, in the order they were added
+   *         or last modified
+   */
+  public List<Task> searchTasks(String query, int limit) {
+    return searchIndex.search(query, limit);
   }
 
   /**
@@ -121,7 +636,7 @@ public class TaskManager {
    * @return List of active (incomplete) tasks
    */
   public List<Task> getActiveTasks() {
-    return tasks.stream()
+    return snapshot().tasks.stream()
         .filter(task -> !task.isCompleted())
         .collect(Collectors.toList());
   }
@@ -134,32 +649,561 @@ public class TaskManager {
    * @param daysOld The age threshold in days
    */
   public void cleanupCompletedTasks(int daysOld) {
-    boolean removed = tasks.removeIf(task ->
-        task.isCompleted() &&
-        !task.isRepeating() &&
-        task.getCompletedAt() != null &&
-        task.getCompletedAt().isBefore(LocalDateTime.now().minusDays(daysOld))
-    );
-    
-    if (removed) {
-      save();
+    LocalDateTime threshold = LocalDateTime.now().minusDays(daysOld);
+    synchronized (this) {
+      ensureOpen();
+      boolean removed = tasks.values().removeIf(task -> {
+        boolean expired = isExpired(task, threshold);
+        if (expired) {
+          detach(task);
+          pendingChanges.put(task.getId(), null);
+          changeLog.record(task.getId(), ChangeLog.Kind.DELETED);
+        }
+        return expired;
+      });
+      if (!removed) {
+        return;
+      }
+      snapshot = null;
     }
+    requestSave();
+  }
+
+  /**
+   * Moves completed tasks that are older than the specified number of days
+   * into the archive. Repeating tasks are kept, as in cleanupCompletedTasks.
+   * The archive is written before the tasks are removed, so a failure keeps
+   * them in the manager.
+   * 
+   * @param daysOld The age threshold in days
+   * @return The number of archived tasks
+   */
+  public int archiveCompletedTasks(int daysOld) {
+    LocalDateTime threshold = LocalDateTime.now().minusDays(daysOld);
+    List<Task> expired = new ArrayList<>();
+    synchronized (this) {
+      ensureOpen();
+      for (Task task : tasks.values()) {
+        if (isExpired(task, threshold)) {
+          expired.add(task);
+        }
+      }
+    }
+    if (expired.isEmpty()) {
+      return 0;
+    }
+
+    List<Task> copies = new ArrayList<>(expired.size());
+    for (Task task : expired) {
+      copies.add(new Task(task));
+    }
+    if (!archive.archive(copies)) {
+      return 0;
+    }
+
+    int removed = 0;
+    synchronized (this) {
+      ensureOpen();
+      for (Task task : expired) {
+        // Skip tasks replaced or reopened while the archive was written
+        if (tasks.get(task.getId()) != task || !isExpired(task, threshold)) {
+          continue;
+        }
+        tasks.remove(task.getId());
+        detach(task);
+        pendingChanges.put(task.getId(), null);
+        changeLog.record(task.getId(), ChangeLog.Kind.DELETED);
+        removed++;
+      }
+      if (removed == 0) {
+        return 0;
+      }
+      snapshot = null;
+    }
+    requestSave();
+    return removed;
+  }
+
+  /**
+   * Returns the archive that holds the completed tasks moved out of this
+   * manager.
+   * 
+   * @return The task archive
+   */
+  public TaskArchive getArchive() {
+    return archive;
   }
 
   /**
    * Saves all tasks to disk using the persistence layer.
-   * Called automatically after any modification.
+   * Writes a full snapshot immediately, which also clears the journal
+   * and any pending changes.
    */
   public void save() {
-    persistence.saveTasks(tasks);
+    synchronized (flushLock) {
+      List<Task> snapshot;
+      Map<String, Task> taken;
+      long requests;
+      synchronized (this) {
+        snapshot = copyTasks();
+        taken = new LinkedHashMap<>(pendingChanges);
+        requests = pendingSaveRequests;
+        pendingChanges.clear();
+        pendingSaveRequests = 0;
+      }
+      if (!persistence.saveTasks(snapshot)) {
+        restorePendingChanges(taken, requests);
+      }
+    }
+  }
+
+  /**
+   * Writes all pending changes to disk now.
+   * Runs on the save scheduler thread, but may be called from any thread.
+   * 
+   * The changes are only dropped once the store reports them as written.
+   * If the write fails they are pending again, except where a newer change
+   * of the same task arrived meanwhile, and another save is scheduled.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      Map<String, Task> taken;
+      Map<String, Task> changes = new LinkedHashMap<>();
+      List<Task> snapshot = null;
+      long requests;
+
+      synchronized (this) {
+        if (pendingChanges.isEmpty()) {
+          return;
+        }
+        taken = new LinkedHashMap<>(pendingChanges);
+        // Copy the tasks so the write does not race with further modifications
+        for (Map.Entry<String, Task> change : taken.entrySet()) {
+          Task task = change.getValue();
+          changes.put(change.getKey(), task != null ? new Task(task) : null);
+        }
+        if (!journaling) {
+          snapshot = copyTasks();
+        }
+        requests = pendingSaveRequests;
+        pendingSaveRequests = 0;
+        pendingChanges.clear();
+      }
+
+      boolean saved = false;
+      try {
+        if (snapshot != null) {
+          saved = persistence.saveTasks(snapshot);
+        } else {
+          saved = persistence.appendChanges(changes);
+          if (saved && persistence.needsCompaction()) {
+            synchronized (this) {
+              persistence.compactAsync(tasks.values());
+            }
+          }
+        }
+      } finally {
+        if (!saved) {
+          restorePendingChanges(taken, requests);
+        }
+      }
+      if (!saved) {
+        return;
+      }
+
+      long merged = Math.max(0, requests - 1);
+      synchronized (this) {
+        mergedSaveCount += merged;
+        performedSaveCount++;
+      }
+      if (merged > 0) {
+        System.out.println("Saved " + changes.size() + " changes, merged " + merged + " save requests");
+      }
+    }
+  }
+
+  /**
+   * Makes changes pending again after their write failed and schedules
+   * another attempt. A change that was replaced by a newer one of the
+   * same task in the meantime is dropped.
+   * 
+   * @param taken The changes that could not be written
+   * @param requests The save requests they belonged to
+   */
+  private void restorePendingChanges(Map<String, Task> taken, long requests) {
+    synchronized (this) {
+      for (Map.Entry<String, Task> change : taken.entrySet()) {
+        if (!pendingChanges.containsKey(change.getKey())) {
+          pendingChanges.put(change.getKey(), change.getValue());
+        }
+      }
+      pendingSaveRequests += requests;
+    }
+    System.err.println("Could not save " + taken.size() + " changes, keeping them for the next save");
+    if (saveScheduler != null) {
+      saveScheduler.requestRetry();
+    }
+  }
+
+  /**
+   * Writes all pending changes and stops the background threads.
+   * Call this once when the application shuts down or the workspace is
+   * unloaded. Afterwards every modification throws IllegalStateException,
+   * since it could no longer be saved.
+   */
+  public void close() {
+    synchronized (this) {
+      // Modifications already made are pending and written by the flush below
+      closed = true;
+    }
+    if (saveScheduler != null) {
+      saveScheduler.shutdown();
+    }
+    flush();
+    persistence.close();
+  }
+
+  /**
+   * Returns how many saves were requested by modifications.
+   * 
+   * @return Number of save requests since startup
+   */
+  public synchronized long getSaveRequestCount() {
+    return saveRequestCount;
+  }
+
+  /**
+   * Returns how many writes were actually performed for the save requests.
+   * 
+   * @return Number of performed saves since startup
+   */
+  public synchronized long getPerformedSaveCount() {
+    return performedSaveCount;
+  }
+
+  /**
+   * Returns how many save requests were merged into another request's write.
+   * 
+   * @return Number of merged save requests since startup
+   */
+  public synchronized long getMergedSaveCount() {
+    return mergedSaveCount;
+  }
+
+  /**
+   * Rejects a modification after close, which could no longer be saved.
+   * Must be called while holding the lock on this manager.
+   * 
+   * @throws IllegalStateException if the manager is closed
+   */
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("TaskManager for " + getStoragePath() + " is closed");
+    }
+  }
+
+  /**
+   * Requests a save of the pending changes, either from the scheduler or
+   * immediately when write-behind is disabled.
+   */
+  private void requestSave() {
+    synchronized (this) {
+      saveRequestCount++;
+      pendingSaveRequests++;
+    }
+    if (saveScheduler != null) {
+      saveScheduler.requestSave();
+    } else {
+      flush();
+    }
+  }
+
+  /**
+   * Parses a comma-separated list of sort key names.
+   * 
+   * @param names The key names, e.g. "PRIORITY,DEADLINE,NAME"
+   * @return The keys, or priority, deadline and name if the list is invalid
+   */
+  private static TaskSortKey[] parseSortKeys(String names) {
+    try {
+      return TaskSortKey.parse(names);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Invalid sort keys '" + names + "', using PRIORITY,DEADLINE,NAME");
+      return new TaskSortKey[] {TaskSortKey.PRIORITY, TaskSortKey.DEADLINE, TaskSortKey.NAME};
+    }
+  }
+
+  /**
+   * Tells whether a task was completed before the threshold and may be
+   * removed or archived.
+   * 
+   * @param task The task to check
+   * @param threshold The latest completion time to expire
+   * @return true for completed, non-repeating tasks older than the threshold
+   */
+  private static boolean isExpired(Task task, LocalDateTime threshold) {
+    return task.isCompleted() &&
+        !task.isRepeating() &&
+        task.getCompletedAt() != null &&
+        task.getCompletedAt().isBefore(threshold);
+  }
+
+  /**
+   * Copies all tasks, so they can be written while the originals change.
+   * Must be called while holding the lock on this manager.
+   * 
+   * @return Copies of all tasks, in order
+   */
+  private List<Task> copyTasks() {
+    List<Task> copies = new ArrayList<>(tasks.size());
+    for (Task task : tasks.values()) {
+      copies.add(new Task(task));
+    }
+    return copies;
+  }
+
+  /**
+   * Builds the ID index for a list of tasks, keeping their order, and
+   * rebuilds the deadline index.
+   * 
+   * @param loaded The tasks in their stored order
+   * @return The tasks keyed by ID
+   */
+  private Map<String, Task> indexTasks(List<Task> loaded) {
+    Map<String, Task> index = new LinkedHashMap<>(Math.max(16, loaded.size() * 4 / 3 + 1));
+    deadlineIndex.clear();
+    repeatingTasks.clear();
+    searchIndex.clear();
+    for (SortedTaskView view : sortedViews.values()) {
+      view.clear();
+    }
+    tasksById.clear();
+    snapshot = null;
+    for (Task task : loaded) {
+      index.put(task.getId(), task);
+      attach(task);
+    }
+    return index;
+  }
+
+  /**
+   * Registers a task with the secondary indexes and starts listening
+   * for changes of its fields.
+   * Must be called while holding the lock on this manager.
+   * 
+   * @param task The task that was added
+   */
+  private void attach(Task task) {
+    task.setListener(changeListener);
+    tasksById.put(task.getId(), task);
+    deadlineIndex.add(task);
+    searchIndex.add(task);
+    for (SortedTaskView view : sortedViews.values()) {
+      view.add(task);
+    }
+    if (task.isRepeating()) {
+      repeatingTasks.add(task);
+    }
+  }
+
+  /**
+   * Removes a task from the secondary indexes and stops listening
+   * for changes of its fields.
+   * Must be called while holding the lock on this manager.
+   * 
+   * @param task The task that was removed
+   */
+  private void detach(Task task) {
+    task.setListener(null);
+    notifyRemoved(task);
+    tasksById.remove(task.getId(), task);
+    deadlineIndex.remove(task, task.getDeadline());
+    searchIndex.remove(task);
+    for (SortedTaskView view : sortedViews.values()) {
+      view.remove(task);
+    }
+    repeatingTasks.remove(task);
+  }
+
+  /**
+   * Stores an added task under its ID. If another task has the same ID,
+   * it is replaced in all indexes, so it does not stay listed next to the
+   * new one. Must be called while holding the lock on this manager.
+   * 
+   * @param task The task to add
+   */
+  private void put(Task task) {
+    Task previous = tasks.put(task.getId(), task);
+    if (previous == null) {
+      attach(task);
+      changeLog.record(task.getId(), ChangeLog.Kind.ADDED);
+    } else if (previous != task) {
+      replace(previous, task);
+      changeLog.record(task.getId(), ChangeLog.Kind.UPDATED);
+    }
+  }
+
+  /**
+   * Replaces a task by its modified copy in the secondary indexes.
+   * Each index swaps the two under its own lock, so a reader of an index
+   * sees either the original or the copy but never both. The copy takes
+   * over the place of the original in the sorted views.
+   * Must be called while holding the lock on this manager.
+   * 
+   * @param current The task that is replaced
+   * @param updated The copy replacing it, with the same ID
+   */
+  private void replace(Task current, Task updated) {
+    current.setListener(null);
+    notifyRemoved(current);
+    updated.setListener(changeListener);
+    // Put first, so lookups by ID never miss the task in between
+    tasksById.put(updated.getId(), updated);
+    deadlineIndex.replace(current, updated);
+    searchIndex.replace(current, updated);
+    for (SortedTaskView view : sortedViews.values()) {
+      view.replace(current, updated);
+    }
+    repeatingTasks.remove(current);
+    if (updated.isRepeating()) {
+      repeatingTasks.add(updated);
+    }
+  }
+
+  /**
+   * Tells the change listeners that a task is no longer managed.
+   * Must be called while holding the lock on this manager.
+   * 
+   * @param task The dropped task
+   */
+  private void notifyRemoved(Task task) {
+    for (TaskChangeListener listener : changeListeners) {
+      listener.taskRemoved(task);
+    }
+  }
+
+  /**
+   * Keeps the indexes in sync when a managed task is changed through
+   * one of its setters.
+   * 
+   * @param task The changed task
+   * @param field The field that was set
+   * @param oldValue The value of the field before the change
+   */
+  private void onTaskChanged(Task task, TaskField field, Object oldValue) {
+    switch (field) {
+      case DEADLINE:
+        synchronized (this) {
+          deadlineIndex.move(task, (LocalDate) oldValue);
+          snapshot = null;
+        }
+        break;
+      case NAME:
+      case NOTES:
+      case COMPLETED:
+        synchronized (this) {
+          searchIndex.update(task);
+        }
+        break;
+      case REPETITION:
+        synchronized (this) {
+          if (task.isRepeating()) {
+            repeatingTasks.add(task);
+          } else {
+            repeatingTasks.remove(task);
+          }
+          snapshot = null;
+        }
+        break;
+      case ID:
+        // Re-key the task; the old ID must also disappear from storage
+        synchronized (this) {
+          if (tasks.get((String) oldValue) != task) {
+            break;
+          }
+          tasks.remove((String) oldValue);
+          tasks.put(task.getId(), task);
+          tasksById.remove((String) oldValue, task);
+          tasksById.put(task.getId(), task);
+          snapshot = null;
+          pendingChanges.put((String) oldValue, null);
+          pendingChanges.put(task.getId(), task);
+          changeLog.record((String) oldValue, ChangeLog.Kind.DELETED);
+          changeLog.record(task.getId(), ChangeLog.Kind.ADDED);
+        }
+        requestSave();
+        break;
+      default:
+        break;
+    }
+
+    if (!sortedViews.isEmpty()) {
+      synchronized (this) {
+        for (SortedTaskView view : sortedViews.values()) {
+          if (view.dependsOn(field)) {
+            view.update(task);
+          }
+        }
+      }
+    }
+
+    for (TaskChangeListener listener : changeListeners) {
+      listener.taskChanged(task, field, oldValue);
+    }
+  }
+
+  /**
+   * Returns the current snapshot, building it if the tasks changed since
+   * the last read. Only that first read takes the manager's lock.
+   * 
+   * @return The immutable view of the tasks
+   */
+  private Snapshot snapshot() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null) {
+          current = new Snapshot(tasks.values(), repeatingTasks);
+          snapshot = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Immutable list of the tasks at one point in time. The indexes are not
+   * part of it: they have locks of their own and are queried directly.
+   */
+  private static final class Snapshot {
+    private final List<Task> tasks;
+    private final List<Task> repeatingTasks;
+
+    Snapshot(Collection<Task> tasks, Collection<Task> repeatingTasks) {
+      this.tasks = Collections.unmodifiableList(Arrays.asList(tasks.toArray(new Task[0])));
+      this.repeatingTasks = Collections.unmodifiableList(Arrays.asList(repeatingTasks.toArray(new Task[0])));
+    }
   }
 
   /**
    * Reloads tasks from disk, discarding any unsaved changes.
    */
   public void reload() {
-    this.tasks = persistence.loadTasks();
-    System.out.println("Reloaded " + tasks.size() + " tasks from disk");
+    synchronized (flushLock) {
+      synchronized (this) {
+        ensureOpen();
+        pendingChanges.clear();
+        pendingSaveRequests = 0;
+        for (Task task : tasks.values()) {
+          task.setListener(null);
+          notifyRemoved(task);
+        }
+        this.tasks = indexTasks(persistence.loadTasks());
+        changeLog.reset();
+        System.out.println("Reloaded " + tasks.size() + " tasks from disk");
+      }
+    }
   }
 
   /**
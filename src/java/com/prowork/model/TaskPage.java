@@ -0,0 +1,56 @@
+package com.prowork.model;
+
+import java.util.List;
+
+/**
+ * A slice of a sorted task list together with the size of the whole list,
+ * both read at the same time.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskPage {
+  private final int offset;
+  private final int total;
+  private final List<Task> tasks;
+
+  /**
+   * Constructs a page.
+   *
+   * @param offset The position of the first task in the list
+   * @param total The number of tasks in the whole list
+   * @param tasks The tasks of the page
+   */
+  public TaskPage(int offset, int total, List<Task> tasks) {
+    this.offset = offset;
+    this.total = total;
+    this.tasks = tasks;
+  }
+
+  /**
+   * Gets the position of the first task in the list.
+   *
+   * @return The offset
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * Gets the number of tasks in the whole list.
+   *
+   * @return The total count
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * Gets the tasks of the page.
+   *
+   * @return The tasks, in order
+   */
+  public List<Task> getTasks() {
+    return tasks;
+  }
+}
@@ -1,10 +1,23 @@
 package com.prowork.model;
 
+import com.prowork.metrics.StoreOperation;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles persistence of tasks to and from JSON files.
@@ -12,46 +25,79 @@ import java.util.List;
  * This class provides methods to save and load tasks from a JSON file
  * stored in the user's home directory under .prowork/tasks.json
  * 
+ * Besides full snapshots, single changes can be appended to a journal
+ * (.prowork/tasks.journal) so that a mutation only writes the changed task.
+ * Once the journal grows large compared to the snapshot, it is folded into
+ * a new snapshot on a background thread. Loading replays the snapshot
+ * followed by the journal.
+ * 
+ * This is the default TaskStore. See BinaryTaskStore for a compact
+ * alternative.
+ * 
  * @author Chris
  * @version 1.0
  */
-public class TaskPersistence {
-    private static final String APP_DIR = ".prowork";
+public class TaskPersistence implements TaskStore {
+    private static final String STORE_NAME = "json";
     private static final String TASKS_FILE = "tasks.json";
+    private static final String JOURNAL_FILE = "tasks.journal";
+    private static final String COMPACTING_JOURNAL_FILE = "tasks.journal.compacting";
+    private static final String PUT_RECORD = "PUT";
+    private static final String DELETE_RECORD = "DEL";
+    /** The journal is compacted once it is larger than this and half the snapshot. */
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
     private final Path tasksFilePath;
+    private final Path journalFilePath;
+    private final Path compactingJournalPath;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "prowork-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final Object snapshotLock = new Object();
+    private long journalBytes;
+    private volatile long snapshotBytes;
+    /** Records skipped by the load in progress. */
+    private int skippedRecords;
+    private long requestedGeneration;
+    private long writtenGeneration;
 
     /**
      * Constructs a new TaskPersistence instance and ensures the storage directory exists.
      * The tasks are stored in: USER_HOME/.prowork/tasks.json
      */
     public TaskPersistence() {
-        String userHome = System.getProperty("user.home");
-        Path appDir = Paths.get(userHome, APP_DIR);
-        
-        // Create directory if it doesn't exist
-        try {
-            if (!Files.exists(appDir)) {
-                Files.createDirectories(appDir);
-                System.out.println("Created ProWork directory: " + appDir);
-            }
-        } catch (IOException e) {
-            System.err.println("Error creating ProWork directory: " + e.getMessage());
-        }
-        
+        this(TaskStore.defaultDirectory());
+    }
+
+    /**
+     * Constructs a TaskPersistence that stores its files in the given directory.
+     * The directory is created if it does not exist.
+     * 
+     * @param appDir The directory for the tasks file and journal
+     */
+    public TaskPersistence(Path appDir) {
+        createDirectory(appDir);
         this.tasksFilePath = appDir.resolve(TASKS_FILE);
+        this.journalFilePath = appDir.resolve(JOURNAL_FILE);
+        this.compactingJournalPath = appDir.resolve(COMPACTING_JOURNAL_FILE);
         System.out.println("Tasks will be stored at: " + tasksFilePath);
     }
 
     /**
      * Saves a list of tasks to the JSON file.
+     * The full snapshot supersedes the journal, which is cleared afterwards.
      * 
      * @param tasks The list of tasks to save
      * @return true if save was successful, false otherwise
      */
+    @Override
     public boolean saveTasks(List<Task> tasks) {
         try {
-            String json = tasksToJson(tasks);
-            Files.write(tasksFilePath, json.getBytes("UTF-8"));
+            writeSnapshot(tasks, nextGeneration());
+            deleteJournals();
             System.out.println("Successfully saved " + tasks.size() + " tasks to file");
             return true;
         } catch (IOException e) {
@@ -62,291 +108,430 @@ public class TaskPersistence {
     }
 
     /**
-     * Loads tasks from the JSON file.
+     * Loads tasks from the JSON file and replays the journal on top of it.
+     * Files of at least prowork.parallelLoadBytes (default 8 MB) are parsed
+     * on several cores by ParallelTaskParser; 0 turns this off.
      * 
      * @return List of loaded tasks, or empty list if file doesn't exist or error occurs
      */
+    @Override
     public List<Task> loadTasks() {
+        StoreOperation operation = StoreOperation.begin(STORE_NAME, "load");
+        Map<String, Task> tasksById = new LinkedHashMap<>();
+        skippedRecords = 0;
+
         if (!Files.exists(tasksFilePath)) {
             System.out.println("No tasks file found, starting with empty task list");
-            return new ArrayList<>();
+            snapshotBytes = 0;
+        } else {
+            try {
+                long size = Files.size(tasksFilePath);
+                List<Task> parsed = ParallelTaskParser.isWorthwhile(size)
+                    ? ParallelTaskParser.parse(tasksFilePath)
+                    : null;
+                if (parsed != null) {
+                    for (Task task : parsed) {
+                        tasksById.put(task.getId(), task);
+                    }
+                } else {
+                    try (TaskJsonReader reader = openReader(tasksFilePath)) {
+                        reader.readTasks(task -> tasksById.put(task.getId(), task));
+                        reportProblems(reader, tasksFilePath);
+                    }
+                }
+                snapshotBytes = size;
+                System.out.println("Successfully loaded " + tasksById.size() + " tasks from file"
+                    + (parsed != null ? " in parallel" : ""));
+            } catch (IOException e) {
+                System.err.println("Error loading tasks: " + e.getMessage());
+                e.printStackTrace();
+                operation.failed();
+                return new ArrayList<>();
+            }
         }
 
-        try {
-            String json = new String(Files.readAllBytes(tasksFilePath), "UTF-8");
-            List<Task> tasks = jsonToTasks(json);
-            System.out.println("Successfully loaded " + tasks.size() + " tasks from file");
-            return tasks;
-        } catch (IOException e) {
-            System.err.println("Error loading tasks: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
-        }
+        // A leftover compacting journal means the last compaction did not finish
+        journalBytes = 0;
+        journalBytes += replayJournal(compactingJournalPath, tasksById);
+        journalBytes += replayJournal(journalFilePath, tasksById);
+        operation.succeeded(tasksById.size(), skippedRecords, snapshotBytes + journalBytes);
+        return new ArrayList<>(tasksById.values());
     }
 
     /**
-     * Converts a list of tasks to JSON format.
+     * Appends the current state of a single task to the journal.
+     * Used for added and modified tasks; replaying the record overwrites
+     * any earlier state of the task with the same ID.
      * 
-     * @param tasks The tasks to convert
-     * @return JSON string representation
+     * @param task The task that was added or changed
+     * @return true if the record was written, false otherwise
      */
-    private String tasksToJson(List<Task> tasks) {
-        if (tasks == null) {
-            return "[]";
-        }
-        
-        StringBuilder json = new StringBuilder("[\n");
-        boolean first = true;
-        
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            
-            // Skip null tasks
-            if (task == null) {
-                System.err.println("Warning: Skipping null task at index " + i);
-                continue;
+    public boolean appendTask(Task task) {
+        return appendChanges(Collections.singletonMap(task.getId(), task));
+    }
+
+    /**
+     * Appends the deletion of a task to the journal.
+     * 
+     * @param id The ID of the deleted task
+     * @return true if the record was written, false otherwise
+     */
+    public boolean appendDeletion(String id) {
+        return appendChanges(Collections.singletonMap(id, null));
+    }
+
+    /**
+     * Appends several changes to the journal with a single write.
+     * If the journal does not end with a line break, e.g. because a crash
+     * interrupted the last append, one is written first so the new records
+     * do not run into the incomplete one.
+     * 
+     * @param changes Changed tasks keyed by ID, in order; a null value marks a deletion
+     * @return true if the records were written, false otherwise
+     */
+    @Override
+    public boolean appendChanges(Map<String, Task> changes) {
+        StoreOperation operation = StoreOperation.begin(STORE_NAME, "append");
+        try (FileChannel channel = FileChannel.open(journalFilePath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             Writer writer = openWriter(channel)) {
+            long sizeBefore = channel.size();
+            channel.position(sizeBefore);
+            if (!endsWithLineBreak(channel, sizeBefore)) {
+                writer.write('\n');
             }
-            
-            // Add comma before task (except for first task)
-            if (!first) {
-                json.append(",\n");
+            TaskJsonWriter json = new TaskJsonWriter(writer, TaskJsonFormat.STORAGE);
+            for (Map.Entry<String, Task> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    // Quoted, so IDs from imported files may contain spaces
+                    writer.write(DELETE_RECORD);
+                    writer.write(" \"");
+                    json.writeEscaped(change.getKey());
+                    writer.write('"');
+                } else {
+                    writer.write(PUT_RECORD);
+                    writer.write(' ');
+                    json.writeTask(change.getValue());
+                }
+                writer.write('\n');
             }
-            first = false;
-            
-            json.append("  ").append(taskToJson(task));
+            writer.flush();
+            long written = channel.size() - sizeBefore;
+            journalBytes += written;
+            operation.succeeded(changes.size(), 0, written);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+            operation.failed();
+            return false;
         }
-        
-        json.append("\n]");
-        return json.toString();
     }
 
     /**
-     * Converts a single task to JSON format.
+     * Checks whether a file ends with a line break. An empty file counts as
+     * ending with one.
      * 
-     * @param task The task to convert
-     * @return JSON string representation of the task
+     * @param channel The channel to check
+     * @param size The size of the file
+     * @return true if the last byte is a line break or the file is empty
+     * @throws IOException if the last byte cannot be read
      */
-    private String taskToJson(Task task) {
-        // Null check to prevent NullPointerException
-        if (task == null) {
-            System.err.println("Warning: Attempted to convert null task to JSON");
-            return "{}";
+    private static boolean endsWithLineBreak(FileChannel channel, long size) throws IOException {
+        if (size == 0) {
+            return true;
         }
-        
-        // Additional null checks for task fields
-        String id = task.getId() != null ? task.getId() : "";
-        String name = task.getName() != null ? task.getName() : "";
-        String deadline = task.getDeadline() != null ? task.getDeadline().toString() : "";
-        String type = task.getType() != null ? task.getType().name() : "WORK";
-        String priority = task.getPriority() != null ? task.getPriority().name() : "MEDIUM";
-        String repetition = task.getRepetition() != null ? task.getRepetition().name() : "NONE";
-        String notes = task.getNotes() != null ? task.getNotes() : "";
-        String completedAt = task.getCompletedAt() != null ? "\"" + task.getCompletedAt().toString() + "\"" : "null";
-        
-        return String.format(
-            "{\"id\":\"%s\",\"name\":\"%s\",\"deadline\":\"%s\",\"type\":\"%s\",\"priority\":\"%s\",\"repetition\":\"%s\",\"notes\":\"%s\",\"completed\":%b,\"completedAt\":%s}",
-            id,
-            escapeJson(name),
-            deadline,
-            type,
-            priority,
-            repetition,
-            escapeJson(notes),
-            task.isCompleted(),
-            completedAt
-        );
+        ByteBuffer last = ByteBuffer.allocate(1);
+        return channel.read(last, size - 1) == 1 && last.get(0) == '\n';
     }
 
     /**
-     * Parses JSON string to a list of tasks.
+     * Checks whether the journal has grown large enough to be folded into
+     * a new snapshot. Always false while a compaction is running.
      * 
-     * @param json The JSON string to parse
-     * @return List of parsed tasks
+     * @return true if compactAsync should be called
      */
-    private List<Task> jsonToTasks(String json) {
-        List<Task> tasks = new ArrayList<>();
-        
-        if (json == null || json.trim().isEmpty()) {
-            return tasks;
+    @Override
+    public boolean needsCompaction() {
+        return !compacting.get()
+            && journalBytes > Math.max(MIN_COMPACTION_BYTES, snapshotBytes / 2);
+    }
+
+    /**
+     * Folds the journal into a new snapshot on a background thread.
+     * 
+     * The journal is rotated immediately, so records appended while the
+     * snapshot is written go to a fresh journal. The tasks are copied on
+     * the calling thread, which makes later modifications invisible to the
+     * background writer.
+     * 
+     * @param tasks All current tasks, in order
+     */
+    @Override
+    public void compactAsync(Collection<Task> tasks) {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
         }
-        
-        // Remove whitespace and outer brackets
-        json = json.trim();
-        if (json.startsWith("[")) {
-            json = json.substring(1);
+
+        try {
+            rotateJournal();
+        } catch (IOException e) {
+            System.err.println("Error rotating journal: " + e.getMessage());
+            compacting.set(false);
+            return;
         }
-        if (json.endsWith("]")) {
-            json = json.substring(0, json.length() - 1);
+
+        List<Task> snapshot = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            snapshot.add(new Task(task));
         }
-        
-        // Split by objects (simple approach - assumes well-formed JSON)
-        int braceCount = 0;
-        int lastStart = 0;
-        
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-            
-            if (c == '{') {
-                if (braceCount == 0) {
-                    lastStart = i;
-                }
-                braceCount++;
-            } else if (c == '}') {
-                braceCount--;
-                if (braceCount == 0) {
-                    String taskJson = json.substring(lastStart, i + 1);
-                    Task task = jsonToTask(taskJson);
-                    if (task != null) {
-                        tasks.add(task);
-                    }
-                }
+        long generation = nextGeneration();
+
+        compactor.execute(() -> {
+            try {
+                writeSnapshot(snapshot, generation);
+                Files.deleteIfExists(compactingJournalPath);
+                System.out.println("Compacted journal into snapshot of " + snapshot.size() + " tasks");
+            } catch (IOException e) {
+                System.err.println("Error compacting journal: " + e.getMessage());
+            } finally {
+                compacting.set(false);
             }
+        });
+    }
+
+    /**
+     * Waits for a running compaction to finish and stops the compactor thread.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        
-        return tasks;
     }
 
     /**
-     * Parses a single task from JSON string.
+     * Creates the storage directory if it does not exist yet.
      * 
-     * @param json The JSON string representing a task
-     * @return Parsed Task object, or null if parsing fails
+     * @param appDir The directory to create
      */
-    private Task jsonToTask(String json) {
+    static void createDirectory(Path appDir) {
         try {
-            String id = extractJsonValue(json, "id");
-            String name = extractJsonValue(json, "name");
-            String deadlineStr = extractJsonValue(json, "deadline");
-            String typeStr = extractJsonValue(json, "type");
-            String priorityStr = extractJsonValue(json, "priority");
-            String repetitionStr = extractJsonValue(json, "repetition");
-            String notes = extractJsonValue(json, "notes");
-            String completedStr = extractJsonValue(json, "completed");
-            
-            // Validate required fields
-            if (name == null || name.isEmpty()) {
-                System.err.println("Warning: Task has no name, skipping");
-                return null;
-            }
-            if (deadlineStr == null || deadlineStr.isEmpty()) {
-                System.err.println("Warning: Task has no deadline, skipping");
-                return null;
+            if (!Files.exists(appDir)) {
+                Files.createDirectories(appDir);
+                System.out.println("Created ProWork directory: " + appDir);
             }
-            
-            // Create task
-            Task task = new Task(
-                name,
-                LocalDate.parse(deadlineStr),
-                typeStr != null && !typeStr.isEmpty() ? TaskType.valueOf(typeStr) : TaskType.WORK,
-                priorityStr != null && !priorityStr.isEmpty() ? Priority.valueOf(priorityStr) : Priority.MEDIUM,
-                repetitionStr != null && !repetitionStr.isEmpty() ? RepetitionPattern.valueOf(repetitionStr) : RepetitionPattern.NONE
-            );
-            
-            // Set ID (preserve original)
-            if (id != null && !id.isEmpty()) {
-                task.setId(id);
+        } catch (IOException e) {
+            System.err.println("Error creating ProWork directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies all records of a journal file to the given tasks.
+     * An incomplete record (e.g. after a crash) is skipped.
+     * 
+     * @param journal The journal file to replay
+     * @param tasksById The tasks to update, keyed by ID
+     * @return The size of the journal file in bytes
+     */
+    private long replayJournal(Path journal, Map<String, Task> tasksById) {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+
+        try (TaskJsonReader reader = openReader(journal)) {
+            int records = replayRecords(reader, journal, tasksById);
+            System.out.println("Replayed " + records + " journal records from " + journal.getFileName());
+            return Files.size(journal);
+        } catch (IOException e) {
+            System.err.println("Error replaying journal: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Applies the records of a reader to the given tasks. Older versions
+     * appended to a journal without checking for a record cut off by a
+     * crash, so the next record may follow it on the same line. Replay
+     * resumes at that record instead of dropping the whole line.
+     * 
+     * @param reader The reader positioned at the start of a record
+     * @param journal The journal file, used in warnings
+     * @param tasksById The tasks to update, keyed by ID
+     * @return The number of records applied
+     * @throws IOException if the journal cannot be read
+     */
+    private int replayRecords(TaskJsonReader reader, Path journal, Map<String, Task> tasksById) throws IOException {
+        int records = 0;
+        String operation;
+        while ((operation = reader.readWord()) != null) {
+            // A cut-off operation runs into the next one, e.g. "PUPUT"
+            if (operation.endsWith(PUT_RECORD)) {
+                Task task = reader.readTask();
+                if (task != null) {
+                    tasksById.put(task.getId(), task);
+                    records++;
+                }
+            } else if (operation.endsWith(DELETE_RECORD)) {
+                String id = reader.readId();
+                if (id != null) {
+                    tasksById.remove(id);
+                    records++;
+                }
+            } else {
+                System.err.println("Warning: Skipping invalid journal record in " + journal.getFileName());
+                reader.skipLine();
+                skippedRecords++;
+                continue;
             }
-            
-            // Set notes
-            if (notes != null && !notes.isEmpty()) {
-                task.setNotes(notes);
+            if (!operation.equals(PUT_RECORD) && !operation.equals(DELETE_RECORD)) {
+                System.err.println("Warning: Skipping incomplete journal record in " + journal.getFileName());
+                skippedRecords++;
             }
-            
-            // Set completed status
-            if ("true".equals(completedStr)) {
-                task.setCompleted(true);
+
+            String skipped = reader.getSkippedRecord();
+            int next = skipped == null ? -1 : nextRecordStart(skipped);
+            if (next >= 0) {
+                TaskJsonReader rest = new TaskJsonReader(new StringReader(skipped.substring(next)));
+                records += replayRecords(rest, journal, tasksById);
             }
-            
-            return task;
-        } catch (Exception e) {
-            System.err.println("Error parsing task from JSON: " + e.getMessage());
-            e.printStackTrace();
-            return null;
         }
+        reportProblems(reader, journal);
+        return records;
     }
 
     /**
-     * Extracts a value for a given key from a JSON string.
-     * This is a simple implementation that works for our use case.
+     * Finds the start of a record inside the text of a skipped one.
      * 
-     * @param json The JSON string
-     * @param key The key to extract
-     * @return The extracted value, or empty string if not found
+     * @param text The skipped text
+     * @return The index of the first record start, or -1 if there is none
      */
-    private String extractJsonValue(String json, String key) {
-        String searchFor = "\"" + key + "\":";
-        int startIndex = json.indexOf(searchFor);
-        
-        if (startIndex == -1) {
-            return "";
+    private static int nextRecordStart(String text) {
+        int put = text.indexOf(PUT_RECORD + " {");
+        int delete = text.indexOf(DELETE_RECORD + " \"");
+        if (put < 0 || delete < 0) {
+            return Math.max(put, delete);
         }
-        
-        startIndex += searchFor.length();
-        
-        // Skip whitespace
-        while (startIndex < json.length() && Character.isWhitespace(json.charAt(startIndex))) {
-            startIndex++;
-        }
-        
-        // Check bounds
-        if (startIndex >= json.length()) {
-            return "";
+        return Math.min(put, delete);
+    }
+
+    /**
+     * Opens a streaming task reader for a UTF-8 file.
+     * 
+     * @param file The file to read
+     * @return A reader positioned at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    private TaskJsonReader openReader(Path file) throws IOException {
+        return new TaskJsonReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens a buffered UTF-8 writer on a file channel.
+     * Closing the writer also closes the channel.
+     * 
+     * @param channel The channel to write to
+     * @return A buffered writer for the channel
+     */
+    private Writer openWriter(FileChannel channel) {
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Prints a warning for every record the reader had to skip and counts
+     * them for the load metrics.
+     * 
+     * @param reader The reader that parsed the file
+     * @param file The parsed file, used in the warning
+     */
+    private void reportProblems(TaskJsonReader reader, Path file) {
+        for (String problem : reader.getProblems()) {
+            System.err.println("Warning: Skipping malformed task in " + file.getFileName() + " at " + problem);
         }
-        
-        // Check if value is a string (starts with ")
-        if (json.charAt(startIndex) == '"') {
-            startIndex++; // Skip opening quote
-            int endIndex = startIndex;
-            
-            // Find closing quote (handle escaped quotes)
-            while (endIndex < json.length()) {
-                if (json.charAt(endIndex) == '"' && (endIndex == 0 || json.charAt(endIndex - 1) != '\\')) {
-                    return unescapeJson(json.substring(startIndex, endIndex));
-                }
-                endIndex++;
-            }
-        } else {
-            // Value is not a string (boolean, number, null)
-            int endIndex = startIndex;
-            while (endIndex < json.length() && 
-                   json.charAt(endIndex) != ',' && 
-                   json.charAt(endIndex) != '}') {
-                endIndex++;
+        skippedRecords += reader.getProblems().size();
+    }
+
+    /**
+     * Moves the active journal aside so a compaction can fold it into the
+     * snapshot. If an older compacting journal is still present, the active
+     * journal is appended to it instead so no record is lost.
+     * 
+     * @throws IOException if the journal cannot be moved
+     */
+    private void rotateJournal() throws IOException {
+        if (Files.exists(journalFilePath)) {
+            if (Files.exists(compactingJournalPath)) {
+                Files.write(compactingJournalPath, Files.readAllBytes(journalFilePath), StandardOpenOption.APPEND);
+                Files.delete(journalFilePath);
+            } else {
+                Files.move(journalFilePath, compactingJournalPath);
             }
-            return json.substring(startIndex, endIndex).trim();
         }
-        
-        return "";
+        journalBytes = 0;
     }
 
     /**
-     * Escapes special characters for JSON format.
+     * Deletes both journal files after a full snapshot has been written.
      * 
-     * @param str The string to escape
-     * @return Escaped string
+     * @throws IOException if a journal file cannot be deleted
      */
-    private String escapeJson(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    private void deleteJournals() throws IOException {
+        Files.deleteIfExists(journalFilePath);
+        Files.deleteIfExists(compactingJournalPath);
+        journalBytes = 0;
     }
 
     /**
-     * Unescapes special characters from JSON format.
+     * Reserves a generation number for a snapshot about to be written.
      * 
-     * @param str The string to unescape
-     * @return Unescaped string
+     * @return The new generation number
      */
-    private String unescapeJson(String str) {
-        if (str == null) return "";
-        return str.replace("\\\"", "\"")
-                  .replace("\\\\", "\\")
-                  .replace("\\n", "\n")
-                  .replace("\\r", "\r")
-                  .replace("\\t", "\t");
+    private long nextGeneration() {
+        synchronized (snapshotLock) {
+            return ++requestedGeneration;
+        }
+    }
+
+    /**
+     * Writes a snapshot via a temporary file that replaces the tasks file
+     * atomically. A snapshot older than the last written one is dropped, so a
+     * slow compaction never overwrites a newer full save.
+     * 
+     * @param tasks The tasks to write
+     * @param generation The generation reserved for this snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(List<Task> tasks, long generation) throws IOException {
+        synchronized (snapshotLock) {
+            if (generation < writtenGeneration) {
+                return;
+            }
+            StoreOperation operation = StoreOperation.begin(STORE_NAME, "save");
+            Path tempFile = tasksFilePath.resolveSibling(TASKS_FILE + ".tmp");
+            long size;
+            try {
+                try (FileChannel channel = FileChannel.open(tempFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                     Writer writer = openWriter(channel)) {
+                    new TaskJsonWriter(writer, TaskJsonFormat.STORAGE).writeTasks(tasks);
+                    writer.flush();
+                    size = channel.size();
+                }
+                try {
+                    Files.move(tempFile, tasksFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, tasksFilePath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                operation.failed();
+                throw e;
+            }
+            operation.succeeded(tasks.size(), 0, size);
+            writtenGeneration = generation;
+            snapshotBytes = size;
+        }
     }
 
     /**
@@ -354,7 +539,27 @@ public class TaskPersistence {
      * 
      * @return Path to the tasks file
      */
+    @Override
     public Path getTasksFilePath() {
         return tasksFilePath;
     }
+
+    /**
+     * Appends to the journal, so single changes do not rewrite the file.
+     * 
+     * @return true
+     */
+    @Override
+    public boolean supportsJournal() {
+        return true;
+    }
+
+    /**
+     * Returns the path of the change journal.
+     * 
+     * @return Path to the journal file
+     */
+    public Path getJournalFilePath() {
+        return journalFilePath;
+    }
 }
\ No newline at end of file
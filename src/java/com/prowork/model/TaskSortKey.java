@@ -0,0 +1,72 @@
+package com.prowork.model;
+
+import java.util.EnumSet;
+import java.util.function.Function;
+
+/**
+ * A field tasks can be sorted by in a SortedTaskView.
+ * Values are compared in their natural order; tasks without a value come last.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public enum TaskSortKey {
+  PRIORITY(TaskField.PRIORITY, Task::getPriority),
+  DEADLINE(TaskField.DEADLINE, Task::getDeadline),
+  NAME(TaskField.NAME, Task::getName),
+  TYPE(TaskField.TYPE, Task::getType),
+  COMPLETED_AT(TaskField.COMPLETED, Task::getCompletedAt);
+
+  private static final TaskSortKey[] KEYS = values();
+
+  private final TaskField field;
+  private final Function<Task, Comparable<?>> extractor;
+
+  TaskSortKey(TaskField field, Function<Task, Comparable<?>> extractor) {
+    this.field = field;
+    this.extractor = extractor;
+  }
+
+  /**
+   * Parses a comma-separated list of sort key names.
+   *
+   * @param names The key names, e.g. "PRIORITY,DEADLINE,NAME"
+   * @return The keys, most significant first
+   * @throws IllegalArgumentException if a name is not a sort key, a key is
+   *         repeated or the list has more names than there are keys
+   */
+  public static TaskSortKey[] parse(String names) {
+    String[] parts = names.split(",", KEYS.length + 1);
+    if (parts.length > KEYS.length) {
+      throw new IllegalArgumentException("Too many sort keys: " + names);
+    }
+    TaskSortKey[] keys = new TaskSortKey[parts.length];
+    EnumSet<TaskSortKey> seen = EnumSet.noneOf(TaskSortKey.class);
+    for (int i = 0; i < parts.length; i++) {
+      keys[i] = valueOf(parts[i].trim().toUpperCase());
+      if (!seen.add(keys[i])) {
+        throw new IllegalArgumentException("Repeated sort key: " + keys[i]);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the task field whose changes change this key.
+   *
+   * @return The field
+   */
+  public TaskField getField() {
+    return field;
+  }
+
+  /**
+   * Reads the value of this key from a task.
+   *
+   * @param task The task
+   * @return The current value, or null
+   */
+  Comparable<?> valueOf(Task task) {
+    return extractor.apply(task);
+  }
+}
@@ -0,0 +1,133 @@
+package com.prowork.model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage backend for the tasks of a TaskManager.
+ *
+ * Every store can load all tasks and save a full snapshot. Stores that
+ * support a journal can also append single changes, which the TaskManager
+ * then prefers over rewriting the snapshot.
+ *
+ * The store used by default is selected with the system property
+ * prowork.store: "json" (default) for the TaskPersistence JSON file, or
+ * "binary" for the compact BinaryTaskStore.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public interface TaskStore {
+
+  /**
+   * Loads all stored tasks.
+   *
+   * @return The tasks in their stored order; empty if nothing is stored
+   */
+  List<Task> loadTasks();
+
+  /**
+   * Replaces the stored tasks with the given ones.
+   *
+   * @param tasks All tasks, in order
+   * @return true if the tasks were saved
+   */
+  boolean saveTasks(List<Task> tasks);
+
+  /**
+   * Returns the file the tasks are stored in.
+   *
+   * @return Path to the tasks file
+   */
+  Path getTasksFilePath();
+
+  /**
+   * Tells whether single changes can be appended with appendChanges.
+   *
+   * @return true if the store keeps a journal
+   */
+  default boolean supportsJournal() {
+    return false;
+  }
+
+  /**
+   * Appends changed and deleted tasks to the journal.
+   *
+   * @param changes Changed tasks keyed by ID; null marks a deletion
+   * @return true if the changes were written
+   */
+  default boolean appendChanges(Map<String, Task> changes) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " has no journal");
+  }
+
+  /**
+   * Tells whether the journal should be folded into a new snapshot.
+   *
+   * @return true if compactAsync should be called
+   */
+  default boolean needsCompaction() {
+    return false;
+  }
+
+  /**
+   * Folds the journal into a new snapshot of the given tasks in the background.
+   *
+   * @param tasks All current tasks; copied before this method returns
+   */
+  default void compactAsync(Collection<Task> tasks) {
+  }
+
+  /**
+   * Finishes background work. Called once when the manager is closed.
+   */
+  default void close() {
+  }
+
+  /**
+   * Opens the store selected by the system property prowork.store in the
+   * default directory. When the binary store is used for the first time,
+   * the tasks of an existing JSON file are converted.
+   *
+   * @return The configured store
+   */
+  static TaskStore open() {
+    return open(defaultDirectory());
+  }
+
+  /**
+   * Opens the store selected by the system property prowork.store in the
+   * given directory, converting an existing JSON file like open().
+   *
+   * @param directory The directory for the store's files
+   * @return The configured store
+   */
+  static TaskStore open(Path directory) {
+    String kind = System.getProperty("prowork.store", "json");
+    if (!"binary".equalsIgnoreCase(kind)) {
+      return new TaskPersistence(directory);
+    }
+
+    BinaryTaskStore store = new BinaryTaskStore(directory);
+    if (!Files.exists(store.getTasksFilePath())) {
+      TaskPersistence json = new TaskPersistence(directory);
+      if (Files.exists(json.getTasksFilePath()) || Files.exists(json.getJournalFilePath())) {
+        TaskStoreConverter.convert(json, store);
+      }
+      json.close();
+    }
+    return store;
+  }
+
+  /**
+   * Returns the directory the stores use by default: USER_HOME/.prowork
+   *
+   * @return The default storage directory
+   */
+  static Path defaultDirectory() {
+    return Paths.get(System.getProperty("user.home"), ".prowork");
+  }
+}
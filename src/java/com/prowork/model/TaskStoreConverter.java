@@ -0,0 +1,59 @@
+package com.prowork.model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Converts the stored tasks between the JSON and the binary format.
+ *
+ * Usage: java com.prowork.model.TaskStoreConverter (json|binary) [directory]
+ *
+ * The argument names the target format; the tasks are read from the other
+ * format in the same directory (default USER_HOME/.prowork). The source
+ * file is left in place.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public final class TaskStoreConverter {
+
+  private TaskStoreConverter() {
+  }
+
+  /**
+   * Copies all tasks from one store into another, replacing its content.
+   *
+   * @param from The store to read
+   * @param to The store to write
+   * @return The number of converted tasks, or -1 if saving failed
+   */
+  public static int convert(TaskStore from, TaskStore to) {
+    List<Task> tasks = from.loadTasks();
+    if (!to.saveTasks(tasks)) {
+      return -1;
+    }
+    System.out.println("Converted " + tasks.size() + " tasks from "
+        + from.getTasksFilePath() + " to " + to.getTasksFilePath());
+    return tasks.size();
+  }
+
+  /**
+   * Converts the tasks in the default or given directory.
+   *
+   * @param args The target format and optionally the directory
+   */
+  public static void main(String[] args) {
+    if (args.length < 1 || !(args[0].equals("json") || args[0].equals("binary"))) {
+      System.err.println("Usage: TaskStoreConverter (json|binary) [directory]");
+      System.exit(2);
+    }
+    Path directory = args.length > 1 ? Paths.get(args[1]) : TaskStore.defaultDirectory();
+
+    TaskPersistence json = new TaskPersistence(directory);
+    BinaryTaskStore binary = new BinaryTaskStore(directory);
+    int converted = args[0].equals("binary") ? convert(json, binary) : convert(binary, json);
+    json.close();
+    System.exit(converted < 0 ? 1 : 0);
+  }
+}
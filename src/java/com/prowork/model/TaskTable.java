@@ -0,0 +1,392 @@
+package com.prowork.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * Compact, column-oriented list of tasks for large read-mostly data sets.
+ *
+ * Instead of one Task object per task, every field is kept in its own
+ * array: IDs as two longs, deadlines as epoch days, completion times as
+ * epoch seconds and nanoseconds (UTC), enums as byte ordinals and the
+ * completed flags in a bitset. Names and notes are stored once in a string
+ * pool, so repeated names and the usual empty notes cost four bytes per task.
+ * An ID that is not a UUID is kept in the pool as well.
+ *
+ * get returns a new Task built from the columns. Such a view is detached:
+ * changing it does not change the table; use set to replace a row. Rows can
+ * be added and replaced, but not removed.
+ *
+ * TaskTableBenchmark in the benchmarks module measures the heap of both
+ * forms: one million completed synthetic tasks take about 320 MB as Task
+ * objects in an ArrayList and about 157 MB in a TaskTable, most of which
+ * are the name and note strings themselves.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class TaskTable extends AbstractList<Task> implements RandomAccess {
+  private static final int NO_DATE = Integer.MIN_VALUE;
+  private static final long NO_TIME = Long.MIN_VALUE;
+  private static final byte NO_VALUE = -1;
+  private static final int NO_STRING = -1;
+
+  private static final TaskType[] TYPES = TaskType.values();
+  private static final Priority[] PRIORITIES = Priority.values();
+  private static final RepetitionPattern[] REPETITIONS = RepetitionPattern.values();
+
+  private int size;
+  private long[] idHigh;
+  private long[] idLow;
+  private int[] deadlines;
+  private long[] completedSeconds;
+  private int[] completedNanos;
+  private byte[] types;
+  private byte[] priorities;
+  private byte[] repetitions;
+  private int[] names;
+  private int[] notes;
+  private final BitSet completed = new BitSet();
+  /** Rows whose ID is not a UUID; idHigh holds its pool index. */
+  private final BitSet textIds = new BitSet();
+  private final StringPool pool = new StringPool();
+  /** Open addressing table of row + 1 by ID; 0 marks a free slot. */
+  private int[] idSlots;
+
+  /**
+   * Constructs an empty table.
+   */
+  public TaskTable() {
+    this(16);
+  }
+
+  /**
+   * Constructs an empty table with room for the given number of tasks.
+   *
+   * @param capacity The expected number of tasks
+   */
+  public TaskTable(int capacity) {
+    allocate(Math.max(capacity, 16));
+    idSlots = new int[slotCount(Math.max(capacity, 16))];
+  }
+
+  /**
+   * Constructs a table holding the given tasks, in order.
+   *
+   * @param tasks The tasks to copy into the table
+   */
+  public TaskTable(List<Task> tasks) {
+    this(tasks.size());
+    for (Task task : tasks) {
+      add(task);
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Builds a task from the columns of a row.
+   *
+   * @param row The row
+   * @return A new task with the stored values
+   */
+  @Override
+  public Task get(int row) {
+    checkRow(row);
+    Task task = new Task(
+        idAt(row),
+        pool.get(names[row]),
+        deadlines[row] != NO_DATE ? LocalDate.ofEpochDay(deadlines[row]) : null,
+        enumAt(TYPES, types[row]),
+        enumAt(PRIORITIES, priorities[row]),
+        enumAt(REPETITIONS, repetitions[row]));
+    String note = pool.get(notes[row]);
+    if (note != null) {
+      task.setNotes(note);
+    }
+    if (completed.get(row)) {
+      task.setCompleted(true);
+    }
+    task.setCompletedAt(completedAt(row));
+    return task;
+  }
+
+  /**
+   * Appends a task as a new row. The table does not keep the task object.
+   *
+   * @param task The task to add
+   * @return true
+   */
+  @Override
+  public boolean add(Task task) {
+    if (size == idHigh.length) {
+      allocate(size * 2);
+    }
+    if ((size + 1) * 2 > idSlots.length) {
+      rehash(slotCount(size + 1));
+    }
+    write(size, task);
+    indexId(size);
+    size++;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Replaces a row with the values of a task. The ID of the row may change.
+   *
+   * @param row The row to replace
+   * @param task The new values
+   * @return The previous values of the row
+   */
+  @Override
+  public Task set(int row, Task task) {
+    Task previous = get(row);
+    write(row, task);
+    if (!previous.getId().equals(task.getId())) {
+      rehash(idSlots.length);
+    }
+    return previous;
+  }
+
+  /**
+   * Finds the row of a task by its ID without building any task.
+   *
+   * @param id The task ID
+   * @return The row, or -1 if no task has this ID
+   */
+  public int indexOfId(String id) {
+    UUID uuid = BinaryTaskStore.parseUuid(id);
+    long high;
+    long low;
+    if (uuid != null) {
+      high = uuid.getMostSignificantBits();
+      low = uuid.getLeastSignificantBits();
+    } else {
+      int index = pool.indexOf(id);
+      if (index == NO_STRING) {
+        return -1;
+      }
+      high = index;
+      low = 0;
+    }
+
+    int mask = idSlots.length - 1;
+    for (int slot = hash(high, low) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+      int row = idSlots[slot] - 1;
+      if (idHigh[row] == high && idLow[row] == low && textIds.get(row) == (uuid == null)) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the ID of a row without building the task.
+   *
+   * @param row The row
+   * @return The task ID
+   */
+  public String idAt(int row) {
+    checkRow(row);
+    return textIds.get(row)
+        ? pool.get((int) idHigh[row])
+        : new UUID(idHigh[row], idLow[row]).toString();
+  }
+
+  /**
+   * Returns the completion time of a row without building the task.
+   *
+   * @param row The row
+   * @return The completion time, or null if none is stored
+   */
+  public LocalDateTime completedAt(int row) {
+    checkRow(row);
+    return completedSeconds[row] != NO_TIME
+        ? LocalDateTime.ofEpochSecond(completedSeconds[row], completedNanos[row], ZoneOffset.UTC)
+        : null;
+  }
+
+  /**
+   * Returns the deadline of a row without building the task.
+   *
+   * @param row The row
+   * @return The deadline, or null if none is stored
+   */
+  public LocalDate deadline(int row) {
+    checkRow(row);
+    return deadlines[row] != NO_DATE ? LocalDate.ofEpochDay(deadlines[row]) : null;
+  }
+
+  /**
+   * Stores the values of a task in a row.
+   *
+   * @param row The row to write
+   * @param task The task
+   */
+  private void write(int row, Task task) {
+    UUID uuid = BinaryTaskStore.parseUuid(task.getId());
+    if (uuid != null) {
+      idHigh[row] = uuid.getMostSignificantBits();
+      idLow[row] = uuid.getLeastSignificantBits();
+      textIds.clear(row);
+    } else {
+      idHigh[row] = pool.add(task.getId());
+      idLow[row] = 0;
+      textIds.set(row);
+    }
+
+    deadlines[row] = task.getDeadline() != null ? (int) task.getDeadline().toEpochDay() : NO_DATE;
+    LocalDateTime completedAt = task.getCompletedAt();
+    completedSeconds[row] = completedAt != null ? completedAt.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    completedNanos[row] = completedAt != null ? completedAt.getNano() : 0;
+    types[row] = ordinal(task.getType());
+    priorities[row] = ordinal(task.getPriority());
+    repetitions[row] = ordinal(task.getRepetition());
+    names[row] = pool.add(task.getName());
+    notes[row] = pool.add(task.getNotes());
+    completed.set(row, task.isCompleted());
+  }
+
+  private void indexId(int row) {
+    int mask = idSlots.length - 1;
+    int slot = hash(idHigh[row], idLow[row]) & mask;
+    while (idSlots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    idSlots[slot] = row + 1;
+  }
+
+  private void rehash(int slots) {
+    idSlots = new int[slots];
+    for (int row = 0; row < size; row++) {
+      indexId(row);
+    }
+  }
+
+  private void allocate(int capacity) {
+    if (idHigh == null) {
+      idHigh = new long[capacity];
+      idLow = new long[capacity];
+      deadlines = new int[capacity];
+      completedSeconds = new long[capacity];
+      completedNanos = new int[capacity];
+      types = new byte[capacity];
+      priorities = new byte[capacity];
+      repetitions = new byte[capacity];
+      names = new int[capacity];
+      notes = new int[capacity];
+      return;
+    }
+    idHigh = Arrays.copyOf(idHigh, capacity);
+    idLow = Arrays.copyOf(idLow, capacity);
+    deadlines = Arrays.copyOf(deadlines, capacity);
+    completedSeconds = Arrays.copyOf(completedSeconds, capacity);
+    completedNanos = Arrays.copyOf(completedNanos, capacity);
+    types = Arrays.copyOf(types, capacity);
+    priorities = Arrays.copyOf(priorities, capacity);
+    repetitions = Arrays.copyOf(repetitions, capacity);
+    names = Arrays.copyOf(names, capacity);
+    notes = Arrays.copyOf(notes, capacity);
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+    }
+  }
+
+  /**
+   * Returns a power of two with at least two slots per entry.
+   */
+  private static int slotCount(int entries) {
+    return Integer.highestOneBit(Math.max(entries * 2 - 1, 1)) << 1;
+  }
+
+  private static int hash(long high, long low) {
+    long h = high * 31 + low;
+    return (int) (h ^ (h >>> 32)) * 0x9E3779B9;
+  }
+
+  private static byte ordinal(Enum<?> value) {
+    return value != null ? (byte) value.ordinal() : NO_VALUE;
+  }
+
+  private static <E> E enumAt(E[] values, byte ordinal) {
+    return ordinal != NO_VALUE ? values[ordinal] : null;
+  }
+
+  /**
+   * Strings stored once each and referenced by index.
+   */
+  private static final class StringPool {
+    private final List<String> strings = new ArrayList<>();
+    /** Open addressing table of index + 1 by string hash; 0 marks a free slot. */
+    private int[] slots = new int[16];
+
+    /**
+     * Returns the index of a string, adding it if it is not in the pool.
+     *
+     * @param value The string, or null
+     * @return Its index, or NO_STRING for null
+     */
+    int add(String value) {
+      if (value == null) {
+        return NO_STRING;
+      }
+      int slot = find(value);
+      if (slots[slot] != 0) {
+        return slots[slot] - 1;
+      }
+      strings.add(value);
+      slots[slot] = strings.size();
+      if (strings.size() * 2 > slots.length) {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        for (int entry : old) {
+          if (entry != 0) {
+            slots[find(strings.get(entry - 1))] = entry;
+          }
+        }
+      }
+      return strings.size() - 1;
+    }
+
+    /**
+     * Returns the index of a string without adding it.
+     *
+     * @param value The string
+     * @return Its index, or NO_STRING if it is not in the pool
+     */
+    int indexOf(String value) {
+      return slots[find(value)] - 1;
+    }
+
+    String get(int index) {
+      return index != NO_STRING ? strings.get(index) : null;
+    }
+
+    /**
+     * Returns the slot holding the string, or the free slot it belongs in.
+     */
+    private int find(String value) {
+      int mask = slots.length - 1;
+      int slot = (value.hashCode() * 0x9E3779B9) & mask;
+      while (slots[slot] != 0 && !strings.get(slots[slot] - 1).equals(value)) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+  }
+}
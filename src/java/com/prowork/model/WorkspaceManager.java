@@ -0,0 +1,204 @@
+package com.prowork.model;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Named workspaces, each a separate list of tasks with its own store.
+ *
+ * The default workspace keeps its files directly in the storage directory
+ * (USER_HOME/.prowork), so existing task files stay where they are. Every
+ * other workspace lives in a subdirectory of its own under workspaces/.
+ *
+ * Only the active workspace and the ones used last stay loaded. At most
+ * prowork.loadedWorkspaces (default 3) TaskManagers are kept in a map in
+ * order of use; once the caller has switched to a newly activated
+ * workspace, closeIdle closes the ones unused for the longest time, which
+ * writes their pending changes, and drops them. The active workspace is
+ * never closed. Memory therefore depends on the few loaded workspaces only,
+ * however many exist on disk.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+public class WorkspaceManager {
+  /** Name of the workspace stored directly in the storage directory. */
+  public static final String DEFAULT_WORKSPACE = "Standard";
+
+  private static final String WORKSPACES_DIRECTORY = "workspaces";
+  private static final Pattern VALID_NAME = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N} _.-]{0,63}");
+
+  private final Path baseDirectory;
+  private final int maxLoaded;
+  /** Loaded managers by workspace name, least recently used first. */
+  private final Map<String, TaskManager> loaded = new LinkedHashMap<>(16, 0.75f, true);
+  private volatile String activeName;
+
+  /**
+   * Constructs a workspace manager for the default storage directory with
+   * the number of loaded workspaces set by prowork.loadedWorkspaces.
+   */
+  public WorkspaceManager() {
+    this(TaskStore.defaultDirectory(), Integer.getInteger("prowork.loadedWorkspaces", 3));
+  }
+
+  /**
+   * Constructs a workspace manager. No workspace is loaded until one is activated.
+   *
+   * @param baseDirectory The storage directory of the default workspace
+   * @param maxLoaded The number of workspaces kept loaded, at least 1
+   */
+  public WorkspaceManager(Path baseDirectory, int maxLoaded) {
+    if (maxLoaded < 1) {
+      throw new IllegalArgumentException("At least one workspace must stay loaded");
+    }
+    this.baseDirectory = baseDirectory;
+    this.maxLoaded = maxLoaded;
+  }
+
+  /**
+   * Tells whether a name can be used for a workspace: letters, digits,
+   * spaces and "_.-", starting with a letter or digit, at most 64 characters.
+   *
+   * @param name The name to check
+   * @return true if the name is valid
+   */
+  public static boolean isValidName(String name) {
+    return name != null && VALID_NAME.matcher(name).matches();
+  }
+
+  /**
+   * Lists the existing workspaces, the default one first and the others
+   * sorted by name.
+   *
+   * @return The workspace names
+   */
+  public List<String> getWorkspaceNames() {
+    List<String> names = new ArrayList<>();
+    Path directory = baseDirectory.resolve(WORKSPACES_DIRECTORY);
+    if (Files.isDirectory(directory)) {
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isDirectory)) {
+        for (Path entry : entries) {
+          String name = entry.getFileName().toString();
+          if (isValidName(name) && !name.equalsIgnoreCase(DEFAULT_WORKSPACE)) {
+            names.add(name);
+          }
+        }
+      } catch (IOException e) {
+        System.err.println("Error listing workspaces: " + e.getMessage());
+      }
+    }
+    Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+    names.add(0, DEFAULT_WORKSPACE);
+    return names;
+  }
+
+  /**
+   * Tells whether a workspace exists.
+   *
+   * @param name The workspace name
+   * @return true for the default workspace and every created one
+   */
+  public boolean exists(String name) {
+    return DEFAULT_WORKSPACE.equals(name) || (isValidName(name) && Files.isDirectory(directoryOf(name)));
+  }
+
+  /**
+   * Creates an empty workspace. It is not activated.
+   *
+   * @param name The workspace name
+   * @throws IllegalArgumentException if the name is invalid or already used
+   */
+  public void createWorkspace(String name) {
+    if (!isValidName(name)) {
+      throw new IllegalArgumentException("Invalid workspace name: " + name);
+    }
+    if (exists(name) || name.equalsIgnoreCase(DEFAULT_WORKSPACE)) {
+      throw new IllegalArgumentException("Workspace already exists: " + name);
+    }
+    TaskPersistence.createDirectory(directoryOf(name));
+  }
+
+  /**
+   * Makes a workspace the active one, loading its tasks unless they are
+   * still loaded. No workspace is closed here, so the manager the caller
+   * still uses stays open until it has switched; call closeIdle then.
+   *
+   * @param name The workspace name
+   * @return The manager of the workspace
+   * @throws IllegalArgumentException if the workspace does not exist
+   */
+  public synchronized TaskManager activate(String name) {
+    if (!exists(name)) {
+      throw new IllegalArgumentException("Unknown workspace: " + name);
+    }
+    TaskManager manager = loaded.get(name);
+    if (manager == null) {
+      System.out.println("Loading workspace: " + name);
+      manager = new TaskManager(TaskStore.open(directoryOf(name)));
+      loaded.put(name, manager);
+    }
+    activeName = name;
+    return manager;
+  }
+
+  /**
+   * Returns the name of the active workspace.
+   *
+   * @return The name, or null before the first activation
+   */
+  public String getActiveName() {
+    return activeName;
+  }
+
+  /**
+   * Returns the names of the loaded workspaces.
+   *
+   * @return The names, least recently used first
+   */
+  public synchronized List<String> getLoadedNames() {
+    return new ArrayList<>(loaded.keySet());
+  }
+
+  /**
+   * Closes all loaded workspaces, writing their pending changes.
+   */
+  public synchronized void close() {
+    for (TaskManager manager : loaded.values()) {
+      manager.close();
+    }
+    loaded.clear();
+  }
+
+  /**
+   * Closes the least recently used workspaces until at most maxLoaded are
+   * loaded. The active workspace is never closed. Call this only after
+   * switching to the manager returned by activate, so no manager that is
+   * still in use gets closed.
+   */
+  public synchronized void closeIdle() {
+    Iterator<Map.Entry<String, TaskManager>> entries = loaded.entrySet().iterator();
+    while (loaded.size() > maxLoaded && entries.hasNext()) {
+      Map.Entry<String, TaskManager> eldest = entries.next();
+      if (eldest.getKey().equals(activeName)) {
+        continue;
+      }
+      entries.remove();
+      System.out.println("Closing idle workspace: " + eldest.getKey());
+      eldest.getValue().close();
+    }
+  }
+
+  private Path directoryOf(String name) {
+    return DEFAULT_WORKSPACE.equals(name) ? baseDirectory : baseDirectory.resolve(WORKSPACES_DIRECTORY).resolve(name);
+  }
+}
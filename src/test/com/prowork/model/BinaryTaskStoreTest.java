@@ -0,0 +1,74 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.assertSameTasks;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Saves and loads tasks with BinaryTaskStore.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class BinaryTaskStoreTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void roundTrip() {
+    List<Task> tasks = new ArrayList<>(TaskPersistenceTest.sampleTasks());
+    // Unlike the JSON files, the binary file keeps tasks without a deadline
+    Task unicode = new Task("Übung für die Präsentation 🚀", null, TaskType.HOMEWORK, Priority.NOT_USED,
+        RepetitionPattern.MONTHLY);
+    tasks.add(unicode);
+
+    BinaryTaskStore store = new BinaryTaskStore(directory);
+    assertTrue(store.saveTasks(tasks));
+    assertSameTasks(tasks, new BinaryTaskStore(directory).loadTasks());
+  }
+
+  @Test
+  void saveReplacesPreviousFile() {
+    BinaryTaskStore store = new BinaryTaskStore(directory);
+    assertTrue(store.saveTasks(TaskPersistenceTest.sampleTasks()));
+    List<Task> fewer = TaskPersistenceTest.sampleTasks().subList(0, 1);
+    assertTrue(store.saveTasks(fewer));
+    assertSameTasks(fewer, store.loadTasks());
+  }
+
+  @Test
+  void emptyAndMissingFile() {
+    BinaryTaskStore store = new BinaryTaskStore(directory);
+    assertTrue(store.loadTasks().isEmpty());
+    assertTrue(store.saveTasks(new ArrayList<>()));
+    assertTrue(store.loadTasks().isEmpty());
+  }
+
+  @Test
+  void truncatedFileLoadsNothing() throws Exception {
+    BinaryTaskStore store = new BinaryTaskStore(directory);
+    assertTrue(store.saveTasks(TaskPersistenceTest.sampleTasks()));
+    byte[] bytes = Files.readAllBytes(store.getTasksFilePath());
+    Files.write(store.getTasksFilePath(), Arrays.copyOf(bytes, bytes.length - 10));
+    assertTrue(store.loadTasks().isEmpty());
+  }
+
+  @Test
+  void onlyCanonicalUuidsAreStoredAsNumbers() {
+    UUID id = UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+    assertEquals(id, BinaryTaskStore.parseUuid(id.toString()));
+    assertNull(BinaryTaskStore.parseUuid(id.toString().toUpperCase()));
+    assertNull(BinaryTaskStore.parseUuid("weekly"));
+  }
+}
@@ -0,0 +1,136 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Batch operations of a TaskManager and the single write each one causes.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class BulkOperationsTest {
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+  @TempDir
+  Path directory;
+
+  private CountingStore store;
+  private TaskManager manager;
+
+  @BeforeEach
+  void setUp() {
+    store = new CountingStore(new TaskPersistence(directory));
+    manager = new TaskManager(store);
+    manager.addTasks(Arrays.asList(
+        task("a", "Alpha", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE),
+        task("b", "Bravo", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE),
+        task("c", "Charlie", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE)));
+    manager.flush();
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void batchIsWrittenWithOneAppend() {
+    assertEquals(1, store.appends.size());
+    assertEquals(3, store.appends.get(0).intValue());
+
+    assertArrayEquals(new boolean[] {true, false, true}, manager.completeTasks(Arrays.asList("a", "x", "c")));
+    manager.flush();
+    assertArrayEquals(new boolean[] {true, false, true}, manager.deleteTasks(Arrays.asList("b", "b", "c")));
+    manager.flush();
+    assertEquals(Arrays.asList(3, 2, 2), store.appends);
+
+    List<Task> loaded = new TaskPersistence(directory).loadTasks();
+    assertEquals(1, loaded.size());
+    assertTrue(loaded.get(0).isCompleted());
+  }
+
+  @Test
+  void failedModificationKeepsEarlierChanges() {
+    List<Consumer<Task>> modifications = Arrays.asList(
+        task -> task.setPriority(Priority.HIGH),
+        task -> {
+          throw new IllegalStateException("abgebrochen");
+        },
+        task -> task.setPriority(Priority.HIGH));
+    assertThrows(IllegalStateException.class, () -> manager.modifyTasks(Arrays.asList("a", "b", "c"), modifications));
+    assertEquals(Priority.HIGH, manager.getTask("a").getPriority());
+    assertEquals(Priority.LOW, manager.getTask("b").getPriority());
+    assertEquals(Priority.LOW, manager.getTask("c").getPriority());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> manager.modifyTasks(Arrays.asList("a"), Arrays.asList(task -> task.setId("z"))));
+    assertNull(manager.getTask("z"));
+  }
+
+  /**
+   * Records the number of changes of every append.
+   */
+  private static final class CountingStore implements TaskStore {
+    final TaskStore store;
+    final List<Integer> appends = new ArrayList<>();
+
+    CountingStore(TaskStore store) {
+      this.store = store;
+    }
+
+    @Override
+    public List<Task> loadTasks() {
+      return store.loadTasks();
+    }
+
+    @Override
+    public boolean saveTasks(List<Task> tasks) {
+      return store.saveTasks(tasks);
+    }
+
+    @Override
+    public Path getTasksFilePath() {
+      return store.getTasksFilePath();
+    }
+
+    @Override
+    public boolean supportsJournal() {
+      return true;
+    }
+
+    @Override
+    public synchronized boolean appendChanges(Map<String, Task> changes) {
+      appends.add(changes.size());
+      return store.appendChanges(changes);
+    }
+
+    @Override
+    public void compactAsync(Collection<Task> tasks) {
+      store.compactAsync(tasks);
+    }
+
+    @Override
+    public void close() {
+      store.close();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The versioned change feed of a TaskManager and its ChangeLog.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class ChangeFeedTest {
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+  @TempDir
+  Path directory;
+
+  private TaskManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager = new TaskManager(new TaskPersistence(directory));
+    manager.addTask(task("a", "Alpha", DAY, TaskType.WORK, Priority.HIGH, RepetitionPattern.NONE));
+    manager.addTask(task("b", "Bravo", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void netChangesSinceAVersion() {
+    long seen = manager.getVersion();
+    manager.modifyTask("a", task -> task.setName("Alpha 2"));
+    manager.addTask(task("c", "Charlie", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.addTask(task("d", "Delta", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.deleteTask("d");
+    manager.deleteTask("b");
+
+    TaskChanges changes = manager.getChangesSince(seen);
+    assertFalse(changes.isFullResync());
+    assertEquals(manager.getVersion(), changes.getVersion());
+    assertEquals(Arrays.asList("a"), ids(changes.getUpdated()));
+    assertEquals("Alpha 2", changes.getUpdated().get(0).getName());
+    assertEquals(Arrays.asList("c"), ids(changes.getAdded()));
+    assertEquals(Arrays.asList("b"), changes.getDeletedIds());
+
+    TaskChanges none = manager.getChangesSince(changes.getVersion());
+    assertFalse(none.isFullResync());
+    assertTrue(none.getAdded().isEmpty() && none.getUpdated().isEmpty() && none.getDeletedIds().isEmpty());
+  }
+
+  @Test
+  void unknownVersionIsAFullResync() {
+    TaskChanges changes = manager.getChangesSince(-1);
+    assertTrue(changes.isFullResync());
+    assertEquals(Arrays.asList("a", "b"), ids(changes.getAdded()));
+
+    TaskChanges future = manager.getChangesSince(manager.getVersion() + 1);
+    assertTrue(future.isFullResync());
+  }
+
+  @Test
+  void limitedResyncCarriesNoTasks() {
+    long seen = manager.getVersion();
+    manager.modifyTask("a", task -> task.setNotes("x"));
+    manager.modifyTask("b", task -> task.setNotes("y"));
+
+    TaskChanges within = manager.getChangesSince(seen, 2);
+    assertFalse(within.isFullResync());
+    assertEquals(Arrays.asList("a", "b"), ids(within.getUpdated()));
+
+    TaskChanges over = manager.getChangesSince(seen, 1);
+    assertTrue(over.isFullResync());
+    assertTrue(over.getAdded().isEmpty());
+    assertTrue(manager.getChangesSince(-1, 10).getAdded().isEmpty());
+  }
+
+  @Test
+  void logForgetsTheOldestChanges() {
+    ChangeLog log = new ChangeLog(2);
+    long start = log.getVersion();
+    log.record("a", ChangeLog.Kind.ADDED);
+    long afterFirst = log.getVersion();
+    log.record("b", ChangeLog.Kind.ADDED);
+    log.record("a", ChangeLog.Kind.UPDATED);
+
+    assertNull(log.changesSince(start));
+    Map<String, ChangeLog.Kind> changes = log.changesSince(afterFirst);
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<>(changes.keySet()));
+    assertEquals(ChangeLog.Kind.ADDED, changes.get("b"));
+    assertEquals(ChangeLog.Kind.UPDATED, changes.get("a"));
+
+    log.reset();
+    assertNull(log.changesSince(afterFirst));
+    assertTrue(log.changesSince(log.getVersion()).isEmpty());
+  }
+
+  private static List<String> ids(List<Task> tasks) {
+    List<String> ids = new ArrayList<>(tasks.size());
+    for (Task task : tasks) {
+      ids.add(task.getId());
+    }
+    return ids;
+  }
+}
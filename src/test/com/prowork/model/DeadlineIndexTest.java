@@ -0,0 +1,84 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Range queries of a TaskManager's deadline index while tasks change.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class DeadlineIndexTest {
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+  @TempDir
+  Path directory;
+
+  private TaskManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager = new TaskManager(new TaskPersistence(directory));
+    manager.addTask(task("late", "Spät", DAY.plusDays(9), TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.addTask(task("first", "Erste", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.addTask(task("second", "Zweite", DAY, TaskType.TEST, Priority.HIGH, RepetitionPattern.NONE));
+    manager.addTask(task("mid", "Mitte", DAY.plusDays(4), TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.addTask(task("none", "Ohne Datum", null, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void rangesAreOrderedByDeadline() {
+    assertEquals(Arrays.asList("first", "second", "mid", "late"),
+        ids(manager.getTasksInRange(DAY.minusDays(1), DAY.plusDays(30))));
+    // Both ends are inclusive
+    assertEquals(Arrays.asList("mid", "late"), ids(manager.getTasksInRange(DAY.plusDays(4), DAY.plusDays(9))));
+    assertTrue(manager.getTasksInRange(DAY.plusDays(10), DAY.plusDays(20)).isEmpty());
+    assertEquals(Arrays.asList("first", "second"), ids(manager.getTasksForDate(DAY)));
+  }
+
+  @Test
+  void countsPerDaySkipEmptyDays() {
+    Map<LocalDate, Integer> expected = new LinkedHashMap<>();
+    expected.put(DAY, 2);
+    expected.put(DAY.plusDays(4), 1);
+    assertEquals(expected, manager.countTasksPerDay(DAY, DAY.plusDays(5)));
+  }
+
+  @Test
+  void indexFollowsChanges() {
+    assertTrue(manager.rescheduleTask("first", DAY.plusDays(4)));
+    manager.modifyTask("none", task -> task.setDeadline(DAY.plusDays(9)));
+    manager.deleteTask("late");
+    assertEquals(Arrays.asList("second"), ids(manager.getTasksForDate(DAY)));
+    assertEquals(Arrays.asList("second", "mid", "first", "none"),
+        ids(manager.getTasksInRange(DAY, DAY.plusDays(9))));
+  }
+
+  private static List<String> ids(List<Task> tasks) {
+    List<String> ids = new ArrayList<>(tasks.size());
+    for (Task task : tasks) {
+      ids.add(task.getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,97 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.assertSameTasks;
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes tasks with IcsWriter and reads them back with IcsReader.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class IcsTest {
+
+  @Test
+  void roundTrip() throws IOException {
+    Task test = task("uid-1@prowork", "Physik; Test, Kapitel 3", LocalDate.of(2026, 2, 10),
+        TaskType.TEST, Priority.HIGH, RepetitionPattern.NONE);
+    test.setNotes("Zeile 1\nZeile 2 \\ Ende");
+    Task daily = task("uid-2", "Vokabeln", LocalDate.of(2026, 1, 5), TaskType.HOMEWORK,
+        Priority.MEDIUM, RepetitionPattern.DAILY);
+    Task meeting = task("uid-3", "Team", LocalDate.of(2026, 3, 1), TaskType.MEETING,
+        Priority.LOW, RepetitionPattern.YEARLY);
+    Task done = task("uid-4", "Bericht", LocalDate.of(2025, 12, 1), TaskType.WORK,
+        Priority.MEDIUM, RepetitionPattern.NONE);
+    done.setCompleted(true);
+    // The file keeps whole seconds only
+    done.setCompletedAt(LocalDateTime.of(2025, 12, 1, 17, 30, 5));
+    List<Task> tasks = Arrays.asList(test, daily, meeting, done);
+
+    IcsReader reader = new IcsReader(new StringReader(write(tasks)));
+    List<Task> read = new ArrayList<>();
+    reader.readTasks(read::add);
+    assertEquals(Arrays.asList(), reader.getProblems());
+    assertSameTasks(tasks, read);
+  }
+
+  @Test
+  void longLinesAreFoldedWithoutSplittingCharacters() throws IOException {
+    StringBuilder name = new StringBuilder();
+    for (int i = 0; i < 40; i++) {
+      name.append("Übung ");
+    }
+    Task task = task("uid-long", name.toString().trim(), LocalDate.of(2026, 6, 1), TaskType.WORK,
+        Priority.MEDIUM, RepetitionPattern.NONE);
+    String ics = write(Arrays.asList(task));
+    for (String line : ics.split("\r?\n")) {
+      assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+    }
+
+    List<Task> read = new ArrayList<>();
+    new IcsReader(new StringReader(ics)).readTasks(read::add);
+    assertSameTasks(Arrays.asList(task), read);
+  }
+
+  @Test
+  void componentsWithoutDateOrSummaryAreSkipped() throws IOException {
+    String ics = "BEGIN:VCALENDAR\r\n"
+        + "BEGIN:VTODO\r\nUID:a\r\nSUMMARY:Ohne Datum\r\nEND:VTODO\r\n"
+        + "BEGIN:VEVENT\r\nUID:b\r\nDTSTART:20260301T100000Z\r\nEND:VEVENT\r\n"
+        + "BEGIN:VEVENT\r\nUID:c\r\nSUMMARY:Termin\r\nDTSTART;VALUE=DATE:20260302\r\n"
+        + "BEGIN:VALARM\r\nTRIGGER:-PT15M\r\nEND:VALARM\r\nEND:VEVENT\r\n"
+        + "END:VCALENDAR\r\n";
+    IcsReader reader = new IcsReader(new StringReader(ics));
+    List<Task> read = new ArrayList<>();
+    reader.readTasks(read::add);
+    assertEquals(2, reader.getSkippedCount());
+    assertEquals(1, read.size());
+    assertEquals("c", read.get(0).getId());
+    assertEquals(TaskType.MEETING, read.get(0).getType());
+    assertEquals(LocalDate.of(2026, 3, 2), read.get(0).getDeadline());
+  }
+
+  private static String write(List<Task> tasks) throws IOException {
+    StringWriter out = new StringWriter();
+    IcsWriter writer = new IcsWriter(out);
+    writer.beginCalendar();
+    for (Task task : tasks) {
+      writer.writeTask(task);
+    }
+    writer.endCalendar();
+    return out.toString();
+  }
+}
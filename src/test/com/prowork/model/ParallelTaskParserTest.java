@@ -0,0 +1,103 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.assertSameTasks;
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares ParallelTaskParser with the sequential reader and checks that
+ * it gives up on files it cannot split safely.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class ParallelTaskParserTest {
+  /** Enough tasks for a file of several chunks of at least 1 MB. */
+  private static final int TASK_COUNT = 20_000;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void parsesLikeTheSequentialReader() throws IOException {
+    List<Task> tasks = tasks(TASK_COUNT);
+    Path file = write(json(tasks));
+    assertSameTasks(tasks, ParallelTaskParser.parse(file));
+  }
+
+  @Test
+  void smallFileIsLeftToTheSequentialReader() throws IOException {
+    assertNull(ParallelTaskParser.parse(write(json(tasks(10)))));
+    assertFalse(ParallelTaskParser.isWorthwhile(0));
+  }
+
+  @Test
+  void malformedTaskFallsBack() throws IOException {
+    String json = json(tasks(TASK_COUNT));
+    int middle = json.indexOf("\"deadline\":\"", json.length() / 2);
+    json = json.substring(0, middle) + "\"deadline\":\"2026-13" + json.substring(middle + 19);
+    Path file = write(json);
+    assertNull(ParallelTaskParser.parse(file));
+
+    TaskJsonReader reader = new TaskJsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    assertEquals(TASK_COUNT - 1, reader.readTasks().size());
+    assertEquals(1, reader.getProblems().size());
+  }
+
+  @Test
+  void cutInsideANestedObjectFallsBack() throws IOException {
+    // An unknown field with objects on their own lines, spanning the first
+    // chunk boundary, so the first cut lands inside the task
+    StringBuilder nested = new StringBuilder("[0");
+    while (nested.length() < 2 * 1024 * 1024) {
+      nested.append(",\n  {\"a\":1}");
+    }
+    nested.append(']');
+    List<Task> tasks = tasks(100);
+    String json = json(tasks);
+    int last = json.lastIndexOf("{\"id\"");
+    json = json.substring(0, last) + "{\"extra\":" + nested + "," + json.substring(last + 1);
+    Path file = write(json);
+    assertNull(ParallelTaskParser.parse(file));
+
+    TaskJsonReader reader = new TaskJsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    assertSameTasks(tasks, reader.readTasks());
+  }
+
+  private static List<Task> tasks(int count) {
+    List<Task> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Task task = task("task-" + i, "Aufgabe " + i + " üben", LocalDate.of(2026, 1, 1).plusDays(i % 365),
+          TaskType.values()[i % TaskType.values().length], Priority.MEDIUM, RepetitionPattern.NONE);
+      task.setNotes("Notiz " + i);
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  private static String json(List<Task> tasks) throws IOException {
+    StringWriter out = new StringWriter();
+    new TaskJsonWriter(out, TaskJsonFormat.STORAGE).writeTasks(tasks);
+    return out.toString();
+  }
+
+  private Path write(String json) throws IOException {
+    Path file = directory.resolve("tasks.json");
+    Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+}
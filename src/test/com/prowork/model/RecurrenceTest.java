@@ -0,0 +1,73 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Expands repeating tasks into occurrences within a date window.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class RecurrenceTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void monthlySeriesKeepsTheDayOfTheStart() {
+    Task rent = task("rent", "Miete", LocalDate.of(2026, 1, 31), TaskType.WORK, Priority.HIGH,
+        RepetitionPattern.MONTHLY);
+    assertEquals(Arrays.asList(LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31), LocalDate.of(2026, 4, 30)),
+        dates(RecurrenceExpander.occurrences(rent, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 4, 30))));
+  }
+
+  @Test
+  void seriesStartsAtItsFirstDeadline() {
+    Task weekly = task("weekly", "Training", LocalDate.of(2026, 3, 4), TaskType.TRAINING, Priority.MEDIUM,
+        RepetitionPattern.WEEKLY);
+    assertEquals(Arrays.asList(LocalDate.of(2026, 3, 4), LocalDate.of(2026, 3, 11)),
+        dates(RecurrenceExpander.occurrences(weekly, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 3, 17))));
+    Task once = task("once", "Einmal", LocalDate.of(2026, 3, 4), TaskType.WORK, Priority.MEDIUM,
+        RepetitionPattern.NONE);
+    assertEquals(Arrays.asList(), dates(RecurrenceExpander.occurrences(once, LocalDate.of(2026, 3, 5),
+        LocalDate.of(2026, 3, 31))));
+  }
+
+  @Test
+  void managerMergesOneOffTasksAndSeriesByDate() {
+    TaskManager manager = new TaskManager(new TaskPersistence(directory));
+    try {
+      manager.addTask(task("daily", "Vokabeln", LocalDate.of(2026, 3, 1), TaskType.HOMEWORK, Priority.LOW,
+          RepetitionPattern.DAILY));
+      manager.addTask(task("test", "Test", LocalDate.of(2026, 3, 2), TaskType.TEST, Priority.HIGH,
+          RepetitionPattern.NONE));
+      manager.addTask(task("later", "Später", LocalDate.of(2026, 4, 1), TaskType.HOMEWORK, Priority.LOW,
+          RepetitionPattern.DAILY));
+
+      List<String> occurrences = new ArrayList<>();
+      for (Occurrence occurrence : manager.getOccurrencesInRange(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 3))) {
+        occurrences.add(occurrence.getTask().getId() + "@" + occurrence.getDate().getDayOfMonth());
+      }
+      // On the same date, one-off tasks come first
+      assertEquals(Arrays.asList("test@2", "daily@2", "daily@3"), occurrences);
+    } finally {
+      manager.close();
+    }
+  }
+
+  private static List<LocalDate> dates(Iterator<Occurrence> occurrences) {
+    List<LocalDate> dates = new ArrayList<>();
+    occurrences.forEachRemaining(occurrence -> dates.add(occurrence.getDate()));
+    return dates;
+  }
+}
@@ -0,0 +1,54 @@
+package com.prowork.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Coalescing of save requests by SaveScheduler. The delays are generous,
+ * so the test does not depend on a fast machine.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class SaveSchedulerTest {
+
+  @Test
+  void burstIsSavedOnce() throws InterruptedException {
+    AtomicInteger saves = new AtomicInteger();
+    SaveScheduler scheduler = new SaveScheduler(saves::incrementAndGet, 100, 10_000);
+    for (int i = 0; i < 100; i++) {
+      scheduler.requestSave();
+    }
+    Thread.sleep(600);
+    scheduler.shutdown();
+    assertEquals(1, saves.get());
+  }
+
+  @Test
+  void steadyRequestsAreSavedAfterTheMaximumDelay() throws InterruptedException {
+    AtomicInteger saves = new AtomicInteger();
+    // The quiet period never passes, so only the maximum delay triggers saves
+    SaveScheduler scheduler = new SaveScheduler(saves::incrementAndGet, 10_000, 100);
+    long end = System.nanoTime() + 700_000_000L;
+    while (System.nanoTime() < end) {
+      scheduler.requestSave();
+      Thread.sleep(10);
+    }
+    scheduler.shutdown();
+    assertTrue(saves.get() >= 2, "saves: " + saves.get());
+  }
+
+  @Test
+  void shutdownDropsPendingRequests() {
+    AtomicInteger saves = new AtomicInteger();
+    SaveScheduler scheduler = new SaveScheduler(saves::incrementAndGet, 10_000, 10_000);
+    scheduler.requestSave();
+    scheduler.shutdown();
+    scheduler.requestSave();
+    assertEquals(0, saves.get());
+  }
+}
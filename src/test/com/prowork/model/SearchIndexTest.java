@@ -0,0 +1,78 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Full-text search of a TaskManager while its tasks change.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class SearchIndexTest {
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+  @TempDir
+  Path directory;
+
+  private TaskManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager = new TaskManager(new TaskPersistence(directory));
+    manager.addTask(task("math", "Mathe-Hausaufgaben", DAY, TaskType.HOMEWORK, Priority.HIGH, RepetitionPattern.NONE));
+    Task physics = task("physics", "Physik Test", DAY, TaskType.TEST, Priority.HIGH, RepetitionPattern.NONE);
+    physics.setNotes("Formeln für Mathematik wiederholen");
+    manager.addTask(physics);
+    manager.addTask(task("house", "Haus putzen", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void everyWordMustMatchTheStartOfAWord() {
+    assertEquals(Arrays.asList("math"), ids(manager.searchTasks("mat haus", 0)));
+    assertEquals(Arrays.asList("math", "physics"), ids(manager.searchTasks("MATHE", 0)));
+    assertEquals(Arrays.asList("math", "house"), ids(manager.searchTasks("haus", 0)));
+    assertTrue(manager.searchTasks("ause", 0).isEmpty());
+    assertTrue(manager.searchTasks(" - ", 0).isEmpty());
+    assertEquals(Arrays.asList("math"), ids(manager.searchTasks("haus", 1)));
+  }
+
+  @Test
+  void indexFollowsChanges() {
+    manager.modifyTask("house", task -> task.setName("Garten gießen"));
+    manager.completeTasks(Arrays.asList("math"));
+    manager.deleteTask("physics");
+    assertEquals(Arrays.asList("house"), ids(manager.searchTasks("gieß", 0)));
+    assertTrue(manager.searchTasks("putzen", 0).isEmpty());
+    assertTrue(manager.searchTasks("formeln", 0).isEmpty());
+
+    manager.addTask(task("later", "Mathe lernen", DAY, TaskType.HOMEWORK, Priority.LOW, RepetitionPattern.NONE));
+    // Completed tasks come after the active ones
+    assertEquals(Arrays.asList("later", "math"), ids(manager.searchTasks("mathe", 0)));
+  }
+
+  private static List<String> ids(List<Task> tasks) {
+    List<String> ids = new ArrayList<>(tasks.size());
+    for (Task task : tasks) {
+      ids.add(task.getId());
+    }
+    return ids;
+  }
+}
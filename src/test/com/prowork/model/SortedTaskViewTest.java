@@ -0,0 +1,151 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Order, positions and pages of the sorted views of a TaskManager while
+ * its tasks change.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class SortedTaskViewTest {
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+  @TempDir
+  Path directory;
+
+  private TaskManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager = new TaskManager(new TaskPersistence(directory));
+    manager.addTask(task("h1", "Alpha", DAY.plusDays(3), TaskType.TEST, Priority.HIGH, RepetitionPattern.NONE));
+    manager.addTask(task("m1", "Bravo", DAY.plusDays(1), TaskType.WORK, Priority.MEDIUM, RepetitionPattern.NONE));
+    manager.addTask(task("l1", "Charlie", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.addTask(task("m2", "Delta", DAY.plusDays(1), TaskType.MEETING, Priority.MEDIUM, RepetitionPattern.NONE));
+    manager.addTask(task("h2", "Echo", null, TaskType.WORK, Priority.HIGH, RepetitionPattern.NONE));
+    manager.addTask(task("m3", "Foxtrot", DAY.plusDays(2), TaskType.TEST, Priority.MEDIUM, RepetitionPattern.NONE));
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void equalKeysKeepTheOrderTheTasksWereAdded() {
+    assertEquals(Arrays.asList("h1", "h2", "m1", "m2", "m3", "l1"), ids(view(TaskSortKey.PRIORITY).getTasks()));
+  }
+
+  @Test
+  void tasksWithoutValueSortLast() {
+    assertEquals(Arrays.asList("l1", "m1", "m2", "m3", "h1", "h2"), ids(view(TaskSortKey.DEADLINE).getTasks()));
+  }
+
+  @Test
+  void laterKeysBreakTies() {
+    SortedTaskView view = view(TaskSortKey.DEADLINE, TaskSortKey.NAME);
+    manager.modifyTask("m1", task -> task.setName("Zulu"));
+    assertEquals(Arrays.asList("l1", "m2", "m1", "m3", "h1", "h2"), ids(view.getTasks()));
+  }
+
+  @Test
+  void pagesAreSlicesOfTheSortedTasks() {
+    SortedTaskView view = view(TaskSortKey.PRIORITY);
+    List<Task> all = view.getTasks();
+    for (int offset = 0; offset <= all.size() + 1; offset++) {
+      for (int limit = 0; limit <= all.size() + 1; limit++) {
+        TaskPage page = view.getPage(offset, limit);
+        List<Task> expected = all.subList(Math.min(offset, all.size()), Math.min(offset + limit, all.size()));
+        assertEquals(expected, page.getTasks(), "offset " + offset + ", limit " + limit);
+        assertEquals(all.size(), page.getTotal());
+        assertEquals(offset, page.getOffset());
+      }
+    }
+    assertEquals(1, view.getTasks(5, Integer.MAX_VALUE).size());
+    assertThrows(IllegalArgumentException.class, () -> view.getTasks(-1, 1));
+  }
+
+  @Test
+  void modifiedTaskKeepsItsPlaceAmongEqualKeys() {
+    SortedTaskView view = view(TaskSortKey.PRIORITY);
+    manager.modifyTask("m1", task -> task.setName("Bravo 2"));
+    manager.modifyTask("m2", task -> task.setNotes("geändert"));
+    List<Task> tasks = view.getTasks();
+    assertEquals(Arrays.asList("h1", "h2", "m1", "m2", "m3", "l1"), ids(tasks));
+    assertSame(manager.getTask("m1"), tasks.get(2));
+    assertEquals("Bravo 2", tasks.get(2).getName());
+  }
+
+  @Test
+  void changedKeyMovesTheTask() {
+    SortedTaskView view = view(TaskSortKey.PRIORITY);
+    manager.modifyTask("l1", task -> task.setPriority(Priority.HIGH));
+    manager.modifyTask("h1", task -> task.setPriority(Priority.LOW));
+    // Among equal keys the task keeps the position it got when it was added
+    assertEquals(Arrays.asList("l1", "h2", "m1", "m2", "m3", "h1"), ids(view.getTasks()));
+    manager.modifyTask("h2", task -> task.setPriority(Priority.MEDIUM));
+    assertEquals(Arrays.asList("l1", "m1", "m2", "h2", "m3", "h1"), ids(view.getTasks()));
+  }
+
+  @Test
+  void filteredViewFollowsTheFilteredFields() {
+    SortedTaskView view = manager.getSortedView(new TaskFilter(false, null), TaskSortKey.PRIORITY);
+    manager.completeTasks(Arrays.asList("h1", "m2"));
+    assertEquals(Arrays.asList("h2", "m1", "m3", "l1"), ids(view.getTasks()));
+    // A task entering the view is placed like a new one among equal keys
+    manager.modifyTask("h1", task -> task.setCompleted(false));
+    assertEquals(Arrays.asList("h2", "h1", "m1", "m3", "l1"), ids(view.getTasks()));
+
+    SortedTaskView tests = manager.getSortedView(new TaskFilter(null, TaskType.TEST), TaskSortKey.NAME);
+    manager.modifyTask("m1", task -> task.setType(TaskType.TEST));
+    assertEquals(Arrays.asList("h1", "m1", "m3"), ids(tests.getTasks()));
+  }
+
+  @Test
+  void addedAndDeletedTasks() {
+    SortedTaskView view = view(TaskSortKey.PRIORITY);
+    manager.deleteTask("h1");
+    manager.addTask(task("h3", "Golf", DAY, TaskType.WORK, Priority.HIGH, RepetitionPattern.NONE));
+    manager.addTasks(Collections.singletonList(
+        task("m1", "Bravo neu", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE)));
+    // A task replacing one with the same ID takes over its place
+    assertEquals(Arrays.asList("h2", "h3", "m2", "m3", "m1", "l1"), ids(view.getTasks()));
+    assertEquals(6, view.size());
+  }
+
+  @Test
+  void sameKeysReturnTheSameView() {
+    assertSame(view(TaskSortKey.PRIORITY, TaskSortKey.NAME), view(TaskSortKey.PRIORITY, TaskSortKey.NAME));
+    assertNotSame(view(TaskSortKey.NAME), view(TaskSortKey.PRIORITY));
+  }
+
+  private SortedTaskView view(TaskSortKey... keys) {
+    return manager.getSortedView(keys);
+  }
+
+  private static List<String> ids(List<Task> tasks) {
+    List<String> ids = new ArrayList<>(tasks.size());
+    for (Task task : tasks) {
+      ids.add(task.getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,60 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.assertSameTasks;
+import static com.prowork.model.TaskAssertions.completed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Archives completed tasks in monthly segments and reads them back.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class TaskArchiveTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void segmentsPerMonth() {
+    Task march = completed("a", "März", LocalDate.of(2025, 3, 1), LocalDateTime.of(2025, 3, 2, 10, 0));
+    Task april = completed("b", "April", LocalDate.of(2025, 4, 1), LocalDateTime.of(2025, 4, 30, 23, 59));
+    TaskArchive archive = new TaskArchive(directory);
+    assertTrue(archive.archive(Arrays.asList(april, march)));
+    // Archiving the same task again replaces it
+    Task renamed = completed("a", "März 2", LocalDate.of(2025, 3, 1), LocalDateTime.of(2025, 3, 2, 10, 0));
+    assertTrue(archive.archive(Arrays.asList(renamed)));
+
+    TaskArchive reopened = new TaskArchive(directory);
+    assertEquals(Arrays.asList(YearMonth.of(2025, 3), YearMonth.of(2025, 4)), reopened.getMonths());
+    assertSameTasks(Arrays.asList(renamed), reopened.getTasks(YearMonth.of(2025, 3)));
+    assertSameTasks(Arrays.asList(april),
+        reopened.getTasksCompletedBetween(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 4, 30)));
+  }
+
+  @Test
+  void archivedIdsFollowLaterArchiving() {
+    TaskArchive archive = new TaskArchive(directory);
+    assertTrue(archive.archive(Arrays.asList(
+        completed("a", "Alt", LocalDate.of(2025, 3, 1), LocalDateTime.of(2025, 3, 2, 10, 0)))));
+
+    Predicate<String> archived = archive.archivedIds();
+    assertTrue(archived.test("a"));
+    assertFalse(archived.test("b"));
+    assertTrue(archive.archive(Arrays.asList(
+        completed("b", "Neu", LocalDate.of(2025, 5, 1), LocalDateTime.of(2025, 5, 2, 10, 0)))));
+    assertTrue(archived.test("b"));
+    assertTrue(new TaskArchive(directory).archivedIds().test("b"));
+  }
+}
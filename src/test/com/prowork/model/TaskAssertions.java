@@ -0,0 +1,56 @@
+package com.prowork.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Builds tasks and compares them field by field for the round-trip tests.
+ * Task has no equals, since the manager tells tasks apart by identity.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+final class TaskAssertions {
+  private TaskAssertions() {
+  }
+
+  /**
+   * Builds a task with a known ID.
+   */
+  static Task task(String id, String name, LocalDate deadline, TaskType type, Priority priority,
+      RepetitionPattern repetition) {
+    return new Task(id, name, deadline, type, priority, repetition);
+  }
+
+  /**
+   * Builds a completed task with a known ID and completion time.
+   */
+  static Task completed(String id, String name, LocalDate deadline, LocalDateTime completedAt) {
+    Task task = new Task(id, name, deadline, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE);
+    task.setCompleted(true);
+    task.setCompletedAt(completedAt);
+    return task;
+  }
+
+  static void assertSameTask(Task expected, Task actual) {
+    assertEquals(expected.getId(), actual.getId(), "id");
+    assertEquals(expected.getName(), actual.getName(), "name of " + expected.getId());
+    assertEquals(expected.getDeadline(), actual.getDeadline(), "deadline of " + expected.getId());
+    assertEquals(expected.getType(), actual.getType(), "type of " + expected.getId());
+    assertEquals(expected.getPriority(), actual.getPriority(), "priority of " + expected.getId());
+    assertEquals(expected.getRepetition(), actual.getRepetition(), "repetition of " + expected.getId());
+    assertEquals(expected.getNotes(), actual.getNotes(), "notes of " + expected.getId());
+    assertEquals(expected.isCompleted(), actual.isCompleted(), "completed of " + expected.getId());
+    assertEquals(expected.getCompletedAt(), actual.getCompletedAt(), "completedAt of " + expected.getId());
+  }
+
+  static void assertSameTasks(List<Task> expected, List<Task> actual) {
+    assertEquals(expected.size(), actual.size(), "task count");
+    for (int i = 0; i < expected.size(); i++) {
+      assertSameTask(expected.get(i), actual.get(i));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Serialized task JSON cached by TaskJsonCache and invalidated through the
+ * change notifications of a TaskManager.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class TaskJsonCacheTest {
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+  @TempDir
+  Path directory;
+
+  private TaskManager manager;
+  private TaskJsonCache cache;
+
+  @BeforeEach
+  void setUp() {
+    manager = new TaskManager(new TaskPersistence(directory));
+    manager.addTask(task("a", "Alpha", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    manager.addTask(task("b", "Bravo", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    cache = new TaskJsonCache(TaskJsonFormat.BRIDGE, 1024 * 1024);
+    manager.addChangeListener(cache);
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void modifiedTaskIsSerializedAgain() {
+    String json = cache.getJson(manager.getTask("a"));
+    assertSame(json, cache.getJson(manager.getTask("a")));
+    assertEquals(1, cache.getHitCount());
+
+    manager.modifyTask("a", task -> task.setName("Alpha 2"));
+    assertTrue(cache.getJson(manager.getTask("a")).contains("\"name\":\"Alpha 2\""));
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  void arrayIsReusedUntilAChange() {
+    String all = cache.getAllTasksJson(manager.getAllTasks(), manager.getVersion());
+    assertSame(all, cache.getAllTasksJson(manager.getAllTasks(), manager.getVersion()));
+    assertEquals(1, cache.getArrayHitCount());
+
+    manager.deleteTask("b");
+    String rest = cache.getAllTasksJson(manager.getAllTasks(), manager.getVersion());
+    assertEquals("[" + cache.getJson(manager.getTask("a")) + "]", rest);
+    assertEquals(2, cache.getArrayMissCount());
+  }
+
+  @Test
+  void removedTasksAndEvictionFreeTheirSize() {
+    String a = cache.getJson(manager.getTask("a"));
+    String b = cache.getJson(manager.getTask("b"));
+    assertEquals(a.length() + b.length() + 2 * TaskJsonCache.ENTRY_OVERHEAD, cache.getCachedChars());
+    manager.deleteTask("b");
+    assertEquals(a.length() + TaskJsonCache.ENTRY_OVERHEAD, cache.getCachedChars());
+
+    TaskJsonCache small = new TaskJsonCache(TaskJsonFormat.BRIDGE, a.length() + TaskJsonCache.ENTRY_OVERHEAD);
+    small.getJson(manager.getTask("a"));
+    small.getJson(task("c", "Charlie", DAY, TaskType.WORK, Priority.LOW, RepetitionPattern.NONE));
+    assertTrue(small.getCachedChars() <= a.length() + TaskJsonCache.ENTRY_OVERHEAD);
+    small.getJson(manager.getTask("a"));
+    assertEquals(0, small.getHitCount());
+  }
+}
@@ -0,0 +1,106 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.assertSameTask;
+import static com.prowork.model.TaskAssertions.assertSameTasks;
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes tasks with TaskJsonWriter and reads them back with TaskJsonReader.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class TaskJsonTest {
+
+  @Test
+  void storageRoundTrip() throws IOException {
+    List<Task> tasks = TaskPersistenceTest.sampleTasks();
+    assertSameTasks(tasks, read(write(tasks, TaskJsonFormat.STORAGE), TaskJsonFormat.STORAGE));
+  }
+
+  @Test
+  void bridgeRoundTrip() throws IOException {
+    List<Task> tasks = TaskPersistenceTest.sampleTasks().subList(0, 3);
+    String json = write(tasks, TaskJsonFormat.BRIDGE);
+    assertTrue(json.contains("\"dueDate\":\"2026-02-10\""));
+    assertTrue(json.contains("\"color\":\"" + TaskType.TEST.getColor() + "\""));
+    assertSameTasks(tasks, read(json, TaskJsonFormat.BRIDGE));
+  }
+
+  @Test
+  void controlCharactersAndUnicodeAreEscaped() throws IOException {
+    Task task = task("id\t1", "Tab\tCR\rNull\u0000 \u00e4\u20ac\ud83d\ude80", LocalDate.of(2026, 4, 1),
+        TaskType.TEST, Priority.HIGH, RepetitionPattern.NONE);
+    task.setNotes("\\\"\b\f");
+    String json = write(Arrays.asList(task), TaskJsonFormat.STORAGE);
+    assertTrue(json.contains("\\u0000"));
+    assertSameTasks(Arrays.asList(task), read(json, TaskJsonFormat.STORAGE));
+  }
+
+  @Test
+  void invalidElementsAreSkippedAndReported() throws IOException {
+    String json = "[{\"id\":\"a\",\"name\":\"Ohne Datum\"},"
+        + "{\"id\":\"b\",\"name\":\"Gut\",\"deadline\":\"2026-01-01\",\"type\":\"MEETING\",\"unknown\":[1,{}]},"
+        + "{\"id\":\"c\",\"name\":\"Falsches Datum\",\"deadline\":\"2026-13-01\"}]";
+    TaskJsonReader reader = new TaskJsonReader(new StringReader(json));
+    List<Task> tasks = reader.readTaskElements();
+    assertEquals(3, tasks.size());
+    assertNull(tasks.get(0));
+    assertEquals("b", tasks.get(1).getId());
+    assertEquals(TaskType.MEETING, tasks.get(1).getType());
+    assertEquals(Priority.MEDIUM, tasks.get(1).getPriority());
+    assertNull(tasks.get(2));
+    assertEquals(2, reader.getProblems().size());
+  }
+
+  @Test
+  void journalRecordsAreReadOneByOne() throws IOException {
+    Task task = TaskPersistenceTest.sampleTasks().get(0);
+    StringWriter out = new StringWriter();
+    TaskJsonWriter writer = new TaskJsonWriter(out, TaskJsonFormat.STORAGE);
+    out.write("PUT ");
+    writer.writeTask(task);
+    out.write("\nDEL \"a \\\"b\\\"\"\nDEL legacy-id\n");
+
+    TaskJsonReader reader = new TaskJsonReader(new StringReader(out.toString()));
+    assertEquals("PUT", reader.readWord());
+    assertSameTask(task, reader.readTask());
+    assertEquals("DEL", reader.readWord());
+    assertEquals("a \"b\"", reader.readId());
+    assertEquals("DEL", reader.readWord());
+    assertEquals("legacy-id", reader.readId());
+    assertNull(reader.readWord());
+  }
+
+  @Test
+  void stringArrays() throws IOException {
+    TaskJsonReader reader = new TaskJsonReader(new StringReader("[\"a\", null, \"\\u00e4\"]"));
+    assertEquals(Arrays.asList("a", null, "\u00e4"), reader.readStrings());
+    assertNull(new TaskJsonReader(new StringReader("{}")).readStrings());
+  }
+
+  private static String write(List<Task> tasks, TaskJsonFormat format) throws IOException {
+    StringWriter out = new StringWriter();
+    new TaskJsonWriter(out, format).writeTasks(tasks);
+    return out.toString();
+  }
+
+  private static List<Task> read(String json, TaskJsonFormat format) throws IOException {
+    TaskJsonReader reader = new TaskJsonReader(new StringReader(json), format);
+    List<Task> tasks = reader.readTasks();
+    assertEquals(Arrays.asList(), reader.getProblems());
+    return tasks;
+  }
+}
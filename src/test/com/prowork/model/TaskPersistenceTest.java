@@ -0,0 +1,249 @@
+package com.prowork.model;
+
+import static com.prowork.model.TaskAssertions.assertSameTask;
+import static com.prowork.model.TaskAssertions.assertSameTasks;
+import static com.prowork.model.TaskAssertions.completed;
+import static com.prowork.model.TaskAssertions.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Replays the snapshot and journal of TaskPersistence.
+ *
+ * @author Chris
+ * @version 1.0
+ */
+class TaskPersistenceTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void snapshotRoundTrip() {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    store.close();
+
+    TaskPersistence reopened = new TaskPersistence(directory);
+    assertSameTasks(tasks, reopened.loadTasks());
+    reopened.close();
+  }
+
+  @Test
+  void journalIsReplayedOnTopOfSnapshot() {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+
+    Task renamed = new Task(tasks.get(0));
+    renamed.setName("Mathe \"Klausur\" lernen");
+    Task added = task("added", "Neu", LocalDate.of(2026, 5, 1), TaskType.MEETING, Priority.HIGH,
+        RepetitionPattern.WEEKLY);
+    assertTrue(store.appendTask(renamed));
+    assertTrue(store.appendTask(added));
+    assertTrue(store.appendDeletion(tasks.get(1).getId()));
+    store.close();
+
+    TaskPersistence reopened = new TaskPersistence(directory);
+    List<Task> loaded = reopened.loadTasks();
+    reopened.close();
+    assertSameTasks(Arrays.asList(renamed, tasks.get(2), tasks.get(3), added), loaded);
+  }
+
+  @Test
+  void changesOfOneAppendAreReplayedInOrder() {
+    Task first = task("a", "Erste", LocalDate.of(2026, 1, 1), TaskType.WORK, Priority.MEDIUM,
+        RepetitionPattern.NONE);
+    Task second = task("b", "Zweite", LocalDate.of(2026, 1, 2), TaskType.WORK, Priority.MEDIUM,
+        RepetitionPattern.NONE);
+    Map<String, Task> changes = new LinkedHashMap<>();
+    changes.put(first.getId(), first);
+    changes.put(second.getId(), second);
+    changes.put("missing", null);
+
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.appendChanges(changes));
+    List<Task> loaded = store.loadTasks();
+    store.close();
+    assertSameTasks(Arrays.asList(first, second), loaded);
+  }
+
+  @Test
+  void deletionOfIdWithSpacesAndQuotes() {
+    Task imported = task("Import \"7\" von Kalender", "Importiert", LocalDate.of(2026, 3, 3),
+        TaskType.MEETING, Priority.MEDIUM, RepetitionPattern.NONE);
+    Task kept = task("Import 8", "Bleibt", LocalDate.of(2026, 3, 4), TaskType.MEETING,
+        Priority.MEDIUM, RepetitionPattern.NONE);
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.appendTask(imported));
+    assertTrue(store.appendTask(kept));
+    assertTrue(store.appendDeletion(imported.getId()));
+    store.close();
+
+    TaskPersistence reopened = new TaskPersistence(directory);
+    List<Task> loaded = reopened.loadTasks();
+    reopened.close();
+    assertEquals(1, loaded.size());
+    assertSameTask(kept, loaded.get(0));
+  }
+
+  @Test
+  void bareDeletionOfOlderJournalsIsReplayed() throws Exception {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    Files.write(store.getJournalFilePath(),
+        ("DEL " + tasks.get(2).getId() + "\n").getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+    List<Task> loaded = store.loadTasks();
+    store.close();
+    assertSameTasks(Arrays.asList(tasks.get(0), tasks.get(1), tasks.get(3)), loaded);
+  }
+
+  @Test
+  void invalidJournalRecordIsSkipped() throws Exception {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    Task added = task("added", "Neu", LocalDate.of(2026, 7, 1), TaskType.WORK, Priority.LOW,
+        RepetitionPattern.NONE);
+    Files.write(store.getJournalFilePath(), "MOVE x y\n".getBytes(StandardCharsets.UTF_8));
+    assertTrue(store.appendTask(added));
+
+    List<Task> loaded = store.loadTasks();
+    store.close();
+    assertEquals(tasks.size() + 1, loaded.size());
+    assertSameTask(added, loaded.get(tasks.size()));
+  }
+
+  @Test
+  void appendAfterCutOffRecordStartsANewLine() throws Exception {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    store.close();
+    // A crash in the middle of an append
+    Files.write(store.getJournalFilePath(), "PUT {\"id\":\"lost\",\"name\":\"Hal".getBytes(StandardCharsets.UTF_8));
+
+    Task added = task("added", "Neu", LocalDate.of(2026, 7, 1), TaskType.WORK, Priority.LOW,
+        RepetitionPattern.NONE);
+    TaskPersistence reopened = new TaskPersistence(directory);
+    assertTrue(reopened.appendTask(added));
+    List<Task> loaded = reopened.loadTasks();
+    reopened.close();
+    assertTrue(new String(Files.readAllBytes(store.getJournalFilePath()), StandardCharsets.UTF_8)
+        .startsWith("PUT {\"id\":\"lost\",\"name\":\"Hal\nPUT {"));
+    assertEquals(tasks.size() + 1, loaded.size());
+    assertSameTask(added, loaded.get(tasks.size()));
+  }
+
+  @Test
+  void recordsRunIntoACutOffRecordAreReplayed() throws Exception {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    Task first = task("first", "Erste", LocalDate.of(2026, 7, 1), TaskType.WORK, Priority.LOW,
+        RepetitionPattern.NONE);
+    Task second = task("second", "Zweite", LocalDate.of(2026, 7, 2), TaskType.WORK, Priority.LOW,
+        RepetitionPattern.NONE);
+    // Journals written before the line break check could contain lines like these
+    String journal = "PUT {\"id\":\"lost\",\"name\":\"Hal" + "PUT " + json(first) + "\n"
+        + "PU" + "PUT " + json(second) + "\n"
+        + "DEL \"lo" + "DEL \"" + tasks.get(1).getId() + "\"\n";
+    Files.write(store.getJournalFilePath(), journal.getBytes(StandardCharsets.UTF_8));
+
+    List<Task> loaded = store.loadTasks();
+    store.close();
+    assertSameTasks(Arrays.asList(tasks.get(0), tasks.get(2), tasks.get(3), first, second), loaded);
+  }
+
+  @Test
+  void interruptedCompactionReplaysBothJournals() throws Exception {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    Task renamed = new Task(tasks.get(0));
+    renamed.setName("Vor der Kompaktierung");
+    assertTrue(store.appendTask(renamed));
+    assertTrue(store.appendDeletion(tasks.get(1).getId()));
+    store.close();
+    // A crash after the journal was moved aside, before the snapshot was written
+    Files.move(store.getJournalFilePath(), directory.resolve("tasks.journal.compacting"));
+
+    TaskPersistence reopened = new TaskPersistence(directory);
+    Task renamedAgain = new Task(renamed);
+    renamedAgain.setName("Nach der Kompaktierung");
+    Task added = task("added", "Neu", LocalDate.of(2026, 7, 1), TaskType.WORK, Priority.LOW,
+        RepetitionPattern.NONE);
+    assertTrue(reopened.appendTask(renamedAgain));
+    assertTrue(reopened.appendTask(added));
+    List<Task> loaded = reopened.loadTasks();
+    reopened.close();
+    // The active journal is newer, so its records win
+    assertSameTasks(Arrays.asList(renamedAgain, tasks.get(2), tasks.get(3), added), loaded);
+  }
+
+  @Test
+  void compactionFoldsJournalIntoSnapshot() {
+    List<Task> tasks = sampleTasks();
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.saveTasks(tasks));
+    assertTrue(store.appendDeletion(tasks.get(3).getId()));
+    List<Task> current = tasks.subList(0, 3);
+    store.compactAsync(current);
+    store.close();
+    assertFalse(Files.exists(store.getJournalFilePath()));
+    assertFalse(Files.exists(directory.resolve("tasks.journal.compacting")));
+
+    TaskPersistence reopened = new TaskPersistence(directory);
+    assertSameTasks(current, reopened.loadTasks());
+    reopened.close();
+  }
+
+  @Test
+  void snapshotClearsJournal() {
+    TaskPersistence store = new TaskPersistence(directory);
+    assertTrue(store.appendDeletion("x"));
+    assertTrue(Files.exists(store.getJournalFilePath()));
+    assertTrue(store.saveTasks(sampleTasks()));
+    assertFalse(Files.exists(store.getJournalFilePath()));
+    store.close();
+  }
+
+  private static String json(Task task) throws IOException {
+    StringWriter out = new StringWriter();
+    new TaskJsonWriter(out, TaskJsonFormat.STORAGE).writeTask(task);
+    return out.toString();
+  }
+
+  static List<Task> sampleTasks() {
+    Task test = task("11111111-2222-3333-4444-555555555555", "Physik Test", LocalDate.of(2026, 2, 10),
+        TaskType.TEST, Priority.HIGH, RepetitionPattern.NONE);
+    test.setNotes("Kapitel 3–5\nFormeln \\ Einheiten, \"alles\"");
+    Task weekly = task("weekly", "Training", LocalDate.of(2026, 1, 5), TaskType.TRAINING,
+        Priority.MEDIUM, RepetitionPattern.WEEKLY);
+    Task yearly = task("yearly", "Steuererklärung", LocalDate.of(2026, 5, 31), TaskType.WORK,
+        Priority.LOW, RepetitionPattern.YEARLY);
+    Task done = completed("done", "Bericht abgeben", LocalDate.of(2025, 12, 1),
+        LocalDateTime.of(2025, 12, 1, 17, 30, 5, 123_000_000));
+    return Arrays.asList(test, weekly, yearly, done);
+  }
+}